@@ -5,6 +5,7 @@ import java.io.PrintStream;
 import java.lang.reflect.Field;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
@@ -43,7 +44,9 @@ import com.osthus.rdfcmap.ontology.OntologyCreator;
 import com.osthus.rdfcmap.path.PathFinder;
 import com.osthus.rdfcmap.sparql.SparqlCreator;
 import com.osthus.rdfcmap.util.CmapUtil;
+import com.osthus.rdfcmap.util.NTriplesLoader;
 import com.osthus.rdfcmap.util.Prefixes;
+import com.osthus.rdfcmap.util.WorkingModelStore;
 
 /**
  * Main class RDF CMap conversion tool check command line argument --help for available options
@@ -76,6 +79,8 @@ public class RdfCmap
 
 	public static boolean writeTurtleToCxl = true;
 
+	public static boolean compactRdfModel = false;
+
 	public static boolean optimizeLayout = false;
 
 	public static int layoutDuration = 10;
@@ -148,6 +153,12 @@ public class RdfCmap
 
 	public static boolean visualizeLiterals = true;
 
+	public static Path snapshotCacheDirectory = null;
+
+	public static Path storeDirectory = null;
+
+	public static int neighborhoodHops = -1;
+
 	public static String version = StringUtils.EMPTY;
 
 	/**
@@ -287,7 +298,8 @@ public class RdfCmap
 			}
 		}
 		else if (inputFileToConvert.toLowerCase().endsWith("ttl") || inputFileToConvert.toLowerCase().endsWith("owl")
-				|| inputFileToConvert.toLowerCase().endsWith("xml") || inputFileToConvert.toLowerCase().endsWith("adf"))
+				|| inputFileToConvert.toLowerCase().endsWith("xml") || inputFileToConvert.toLowerCase().endsWith("adf")
+				|| NTriplesLoader.isNTriplesFile(Paths.get(inputFileToConvert)))
 		{
 			if (!roundtrip)
 			{
@@ -313,6 +325,8 @@ public class RdfCmap
 			System.exit(1);
 		}
 
+		WorkingModelStore.release();
+
 		log.info("done");
 	}
 
@@ -349,6 +363,8 @@ public class RdfCmap
 				.build();
 		Option createadf = Option.builder("adf").longOpt("createadf").required(false).desc("For CXL to TTL conversion, write instance data to ADF.").build();
 		Option noTurtle = Option.builder("n").longOpt("noturtle").required(false).desc("Do not store RDf model within CXL.").build();
+		Option compactModel = Option.builder("cm").longOpt("compactmodel").required(false)
+				.desc("Store RDF model within CXL in compact binary encoding (gzipped RDF Thrift) instead of turtle.").build();
 		Option noTitles = Option.builder("nt").longOpt("notitles").required(false).desc("Do not add dct:title based on labels of CXL.").build();
 		Option machine = Option.builder("ma").longOpt("machine").required(false).desc("Write machine-readable TTL without human readable comments.").build();
 		Option debug = Option.builder("de").longOpt("debug").required(false).desc("Show extended output for debugging purposes.").build();
@@ -386,7 +402,7 @@ public class RdfCmap
 		Option nodeSize = Option.builder("z").longOpt("nodesize").required(false).hasArg()
 				.desc("Use the given node size for optimizing layout with graphviz. Default: 0.1").build();
 		Option shapeRoot = Option.builder("rt").longOpt("root").required(false).hasArg()
-				.desc("Use the given IRI of instance or class as root node for shapes creation.").build();
+				.desc("Use the given IRI of instance or class as root node for shapes creation or neighborhood extraction.").build();
 		Option initLayout = Option.builder("y").longOpt("initlayout").required(false).hasArg()
 				.desc("Initial layout as starting point for automatic layout. diagonal, square, blob. Default: diagonal").build();
 		Option overlap = Option.builder("w").longOpt("overlap").required(false).hasArg()
@@ -406,6 +422,12 @@ public class RdfCmap
 				.desc("Ignore all existing long comments and create new ones.").build();
 		Option hideLiteralValues = Option.builder("hlv").longOpt("hideliterals").required(false)
 				.desc("Do not show literal values as explicit nodes in visualization.").build();
+		Option store = Option.builder("st").longOpt("store").required(false).hasArg().argName("directory")
+				.desc("Keep the working model in a disk-backed store within the given scratch directory instead of memory.").build();
+		Option neighborhood = Option.builder("hop").longOpt("hops").required(false).hasArg()
+				.desc("For TTL to CXL conversion, only visualize instances within the given number of hops of the node specified by --root.").build();
+		Option snapshotCache = Option.builder("sc").longOpt("cache").required(false).hasArg().argName("directory")
+				.desc("Cache parsed vocabulary files given via --read as binary snapshots in the given directory.").build();
 
 		Options infoOptions = new Options();
 		infoOptions.addOption(help);
@@ -438,6 +460,7 @@ public class RdfCmap
 		appOptions.addOption(updateCxl);
 		appOptions.addOption(shapes);
 		appOptions.addOption(noTurtle);
+		appOptions.addOption(compactModel);
 		appOptions.addOption(optimize);
 		appOptions.addOption(optimizeTime);
 		appOptions.addOption(layouter);
@@ -460,6 +483,9 @@ public class RdfCmap
 		appOptions.addOption(specificProperties);
 		appOptions.addOption(dropLongComments);
 		appOptions.addOption(hideLiteralValues);
+		appOptions.addOption(snapshotCache);
+		appOptions.addOption(store);
+		appOptions.addOption(neighborhood);
 
 		Options allOptions = new Options();
 		allOptions.addOption(help);
@@ -487,6 +513,7 @@ public class RdfCmap
 		allOptions.addOption(version);
 		allOptions.addOption(shapes);
 		allOptions.addOption(noTurtle);
+		allOptions.addOption(compactModel);
 		allOptions.addOption(optimize);
 		allOptions.addOption(optimizeTime);
 		allOptions.addOption(layouter);
@@ -509,6 +536,9 @@ public class RdfCmap
 		allOptions.addOption(specificProperties);
 		allOptions.addOption(dropLongComments);
 		allOptions.addOption(hideLiteralValues);
+		allOptions.addOption(snapshotCache);
+		allOptions.addOption(store);
+		allOptions.addOption(neighborhood);
 
 		CommandLine cmd = new DefaultParser().parse(infoOptions, args, true);
 
@@ -680,6 +710,11 @@ public class RdfCmap
 			writeTurtleToCxl = false;
 		}
 
+		if (cmd.hasOption("compactmodel"))
+		{
+			compactRdfModel = true;
+		}
+
 		if (cmd.hasOption("optimize"))
 		{
 			optimizeLayout = true;
@@ -811,6 +846,21 @@ public class RdfCmap
 			RdfCmap.removeBnodes = true;
 		}
 
+		if (cmd.hasOption("cache"))
+		{
+			RdfCmap.snapshotCacheDirectory = Paths.get(cmd.getOptionValue("cache").trim());
+		}
+
+		if (cmd.hasOption("store"))
+		{
+			RdfCmap.storeDirectory = Paths.get(cmd.getOptionValue("store").trim());
+		}
+
+		if (cmd.hasOption("hops"))
+		{
+			RdfCmap.neighborhoodHops = Integer.valueOf(cmd.getOptionValue("hops").trim());
+		}
+
 		System.setProperty("file.encoding", "UTF-8");
 		Field charset = Charset.class.getDeclaredField("defaultCharset");
 		charset.setAccessible(true);
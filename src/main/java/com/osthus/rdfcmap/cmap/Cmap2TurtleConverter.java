@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,7 +28,6 @@ import java.util.regex.Pattern;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.commons.io.FileUtils;
@@ -71,14 +71,23 @@ import com.osthus.rdfcmap.cmap.xml.Image;
 import com.osthus.rdfcmap.cmap.xml.LinkingPhrase;
 import com.osthus.rdfcmap.cmap.xml.LinkingPhraseAppearance;
 import com.osthus.rdfcmap.enums.ConceptProperty;
+import com.osthus.rdfcmap.helper.CxlReaderResult;
 import com.osthus.rdfcmap.helper.LinkedConcept;
+import com.osthus.rdfcmap.helper.LongCommentToken;
 import com.osthus.rdfcmap.helper.PreparedModels;
+import com.osthus.rdfcmap.helper.StatementDelta;
+import com.osthus.rdfcmap.helper.UiProperties;
 import com.osthus.rdfcmap.helper.VisualizationInfoBuilderResult;
 import com.osthus.rdfcmap.util.AFOUtil;
 import com.osthus.rdfcmap.util.CmapUtil;
+import com.osthus.rdfcmap.util.LongCommentLexer;
 import com.osthus.rdfcmap.util.Prefixes;
 import com.osthus.rdfcmap.util.RdfUtil;
+import com.osthus.rdfcmap.util.StyleIndex;
+import com.osthus.rdfcmap.util.TermDictionary;
+import com.osthus.rdfcmap.util.TermDictionary.Term;
 import com.osthus.rdfcmap.util.VizUtil;
+import com.osthus.rdfcmap.util.WorkingModelStore;
 
 /**
  * Cmap2TurtleConverter
@@ -91,13 +100,23 @@ public class Cmap2TurtleConverter
 {
 	private static final Logger log = LogManager.getLogger("Logger");
 
+	private static final Pattern HUMAN_READABLE_IDENTIFIER_PATTERN = Pattern.compile("^([a-z\\-]+):([a-z\\-\\s/\\(\\)0-9]+)$", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern CARDINALITY_IDENTIFIER_PATTERN = Pattern.compile(
+			"((^|[\\w\\s]*)<<((([a-z\\-]+):([a-z\\-\\s/\\(\\)0-9]+))\\s+((([\\[\\]]?)([\\<\\>\\=]*)\\s*([0-9]+)([\\[\\]]?))\\s*[\\,]?([0-9]*)\\s*([\\[\\]]?))\\s*)>>)([\"\\:\\w\\s<]*|$)",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern COMMENT_PATTERN = Pattern.compile(".*#(?![\\w]*>.*)", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern CARDINALITY_PATTERN = Pattern.compile(CmapUtil.CARDINALITY_PATTERN, Pattern.CASE_INSENSITIVE);
+
 	public static File outputFolder = new File("separate files");
 
-	private Map<String, Map<String, String>> conceptId2UiProperties = new HashMap<>();
-	private Map<String, Map<String, String>> connectionId2UiProperties = new HashMap<>();
-	private Map<String, Map<String, String>> fullLinkId2UiProperties = new HashMap<>();
-	private Map<String, Map<String, String>> controlPointId2UiProperties = new HashMap<>();
-	private Map<String, Map<String, String>> imageId2UiProperties = new HashMap<>();
+	private Map<String, UiProperties> conceptId2UiProperties = new HashMap<>();
+	private Map<String, UiProperties> connectionId2UiProperties = new HashMap<>();
+	private Map<String, UiProperties> fullLinkId2UiProperties = new HashMap<>();
+	private Map<String, UiProperties> controlPointId2UiProperties = new HashMap<>();
+	private Map<String, UiProperties> imageId2UiProperties = new HashMap<>();
 
 	private List<Resource> resources = new ArrayList<>();
 
@@ -130,8 +149,9 @@ public class Cmap2TurtleConverter
 		// We must determine if CXL contains an additional RDF model. CXL directly generated by CMap do not include the RDF model, so we have to extract it from
 		// a previous version or provide it additionally.
 
-		Model model = CmapUtil.extractStoredModelFromCxl(pathToInputFile);
-		log.info(model.listStatements().toList().size() + " triples total.");
+		CxlReaderResult cxlReaderResult = CxlReader.read(pathToInputFile, CxlReader.ALL_SECTIONS, WorkingModelStore.createModel());
+		Model model = cxlReaderResult.getModel();
+		log.info(model.size() + " triples total.");
 		model = CmapUtil.addTriples(additionalFiles, model);
 		if (model.isEmpty())
 		{
@@ -139,11 +159,11 @@ public class Cmap2TurtleConverter
 		}
 		else if (additionalFiles != null && additionalFiles.length > 0)
 		{
-			log.info(model.listStatements().toList().size() + " triples total.");
+			log.info(model.size() + " triples total.");
 		}
 
 		// Second, we create or update the visualization description of the RDF model.
-		model = createOrUpdateVisualizationModel(pathToInputFile, model);
+		model = createOrUpdateVisualizationModel(cxlReaderResult.getCmap(), pathToInputFile, model);
 		// model.write(System.out, "TTL");
 		// Third, we walk through all long comments and update the RDF model (creating or updating resources)
 		model = updateModel(model);
@@ -156,7 +176,7 @@ public class Cmap2TurtleConverter
 
 		prepareOutput(pathToInputFile, model);
 
-		log.info(model.listStatements().toList().size() + " triples total after processing.");
+		log.info(model.size() + " triples total after processing.");
 	}
 
 	public Model updateModel(Model model)
@@ -189,6 +209,33 @@ public class Cmap2TurtleConverter
 			}
 		}
 
+		// index connections by start concept and by link, so that matching a triple only touches the links of its start concept
+		Map<String, List<String>> concept2links = new HashMap<>();
+		for (LinkedConcept linkedConcept : connectionsFromConceptToLink)
+		{
+			List<String> links = concept2links.get(linkedConcept.from);
+			if (links == null)
+			{
+				links = new ArrayList<>();
+				concept2links.put(linkedConcept.from, links);
+			}
+			links.add(linkedConcept.to);
+		}
+
+		Map<String, Set<String>> link2concepts = new HashMap<>();
+		for (LinkedConcept linkedConcept : connectionsFromLinkToConcept)
+		{
+			Set<String> concepts = link2concepts.get(linkedConcept.from);
+			if (concepts == null)
+			{
+				concepts = new LinkedHashSet<>();
+				link2concepts.put(linkedConcept.from, concepts);
+			}
+			concepts.add(linkedConcept.to);
+		}
+
+		Map<String, String> link2vizLinkLabel = new HashMap<>();
+
 		HashMap<Resource, List<StatementWithCardinality>> resources2cardinalities = new HashMap<>();
 		for (Resource resource : resources)
 		{
@@ -417,45 +464,35 @@ public class Cmap2TurtleConverter
 						// link needs special handling because each link is its own instance of AFV_LINK and is related to a proxy instance of an object
 						// property
 						// the instance's title is equal to prefLabel for AFX properties or equal to prefix:localname for properties of other ontologies
-						for (Iterator<LinkedConcept> linkedConceptIterator = connectionsFromConceptToLink.iterator(); linkedConceptIterator.hasNext();)
+						List<String> linkIds = concept2links.get(fromConcept.getURI());
+						if (linkIds != null)
 						{
-							LinkedConcept linkedConcept = linkedConceptIterator.next();
-							if (!linkedConcept.from.equals(fromConcept.getURI()))
+							for (String linkId : linkIds)
 							{
-								continue;
-							}
-							// start concepts agree
-
-							Resource vizLink = model.getResource(linkedConcept.to.replace(CmapUtil.URN_UUID, VizUtil.AFV_PREFIX));
-							String vizLinkLabel = vizLink.getProperty(AFOUtil.DCT_TITLE).getString();
-							if (!vizLinkLabel.contains(viaLinkLabel))
-							{
-								// check if label of link in visualization disagrees from title of AFV_Link in visualization model
-								continue;
-							}
-							// link labels agree
+								// start concepts agree
+								String vizLinkLabel = link2vizLinkLabel.get(linkId);
+								if (vizLinkLabel == null)
+								{
+									Resource vizLink = model.getResource(linkId.replace(CmapUtil.URN_UUID, VizUtil.AFV_PREFIX));
+									vizLinkLabel = vizLink.getProperty(AFOUtil.DCT_TITLE).getString();
+									link2vizLinkLabel.put(linkId, vizLinkLabel);
+								}
 
-							for (Iterator<LinkedConcept> innerLinkedConceptIterator = connectionsFromLinkToConcept.iterator(); innerLinkedConceptIterator
-									.hasNext();)
-							{
-								LinkedConcept innerLinkedConcept = innerLinkedConceptIterator.next();
-								if (!innerLinkedConcept.from.equals(linkedConcept.to))
+								if (!vizLinkLabel.contains(viaLinkLabel))
 								{
+									// check if label of link in visualization disagrees from title of AFV_Link in visualization model
 									continue;
 								}
+								// link labels agree
 
-								if (toConcept.getURI().equals(innerLinkedConcept.to))
+								Set<String> toConcepts = link2concepts.get(linkId);
+								if (toConcepts != null && toConcepts.contains(toConcept.getURI()))
 								{
 									// target concepts agree
 									vizContainsTriple = true;
 									break;
 								}
 							}
-
-							if (vizContainsTriple)
-							{
-								break;
-							}
 						}
 
 						if (!vizContainsTriple)
@@ -485,15 +522,15 @@ public class Cmap2TurtleConverter
 			link = RdfUtil.getResourceByLabel(model, label, true, false);
 
 			statementsToRemove.addAll(model.listStatements(fromConcept, ResourceFactory.createProperty(linkId), (RDFNode) null).toList());
-			for (Iterator<LinkedConcept> iterator2 = connectionsFromLinkToConcept.iterator(); iterator2.hasNext();)
+			Set<String> toConceptIds = link2concepts.get(linkId);
+			if (toConceptIds == null)
 			{
-				LinkedConcept linkedConcept2 = iterator2.next();
-				if (!linkId.equals(linkedConcept2.from))
-				{
-					continue;
-				}
+				continue;
+			}
 
-				Resource toConcept = model.getResource(linkedConcept2.to);
+			for (String toConceptId : toConceptIds)
+			{
+				Resource toConcept = model.getResource(toConceptId);
 
 				Property property = null;
 				if (link.getURI().contains(AFOUtil.AFX_PREFIX) || link.getURI().contains(AFOUtil.OBO_PREFIX))
@@ -755,12 +792,6 @@ public class Cmap2TurtleConverter
 
 		List<String> processedLines = new ArrayList<String>(lines.size());
 
-		String regex = "((^|[\\w\\s]*)<<((([a-z\\-]+):([a-z\\-\\s/\\(\\)0-9]+))\\s+((([\\[\\]]?)([\\<\\>\\=]*)\\s*([0-9]+)([\\[\\]]?))\\s*[\\,]?([0-9]*)\\s*([\\[\\]]?))\\s*)>>)([\"\\:\\w\\s<]*|$)";
-		Pattern p = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-
-		String commentRegex = ".*#(?![\\w]*>.*)";
-		Pattern commentPattern = Pattern.compile(commentRegex, Pattern.CASE_INSENSITIVE);
-
 		for (Iterator<String> iterator = lines.iterator(); iterator.hasNext();)
 		{
 			String line = iterator.next();
@@ -771,8 +802,8 @@ public class Cmap2TurtleConverter
 			line = line.replaceAll("»", ">>");
 
 			// replace human readable identifiers for artificial IDs
-			Matcher m = p.matcher(line);
-			Matcher commentMatcher = commentPattern.matcher(line);
+			Matcher m = CARDINALITY_IDENTIFIER_PATTERN.matcher(line);
+			Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
 			boolean foundId = false;
 			boolean commentedOut = false;
 			while (m.find())
@@ -913,134 +944,71 @@ public class Cmap2TurtleConverter
 
 	private String createMachineReadableRdf(Model model, String singleRdf)
 	{
-		List<String> lines = Arrays.asList(singleRdf.split("\n"));
-		List<String> processedLines = new ArrayList<String>(lines.size());
-		String regex = "((^|[\\w\\s]*)<<([a-z\\-]+):([a-z\\-\\s/\\(\\)0-9]+)>>)([\\w\\s]*|$)";
-		String placeHolderRegex = "(^|[\\w\\s]+)(\\?[a-zA-Z0-9\\-]+)([\\w\\s]+|$)";
-		String commentRegex = ".*#(?![\\w]*>.*)";
-		Pattern p = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-		Pattern placeHolderPattern = Pattern.compile(placeHolderRegex, Pattern.CASE_INSENSITIVE);
-		Pattern commentPattern = Pattern.compile(commentRegex, Pattern.CASE_INSENSITIVE);
-		for (Iterator<String> iterator = lines.iterator(); iterator.hasNext();)
-		{
-			String line = iterator.next();
-			log.debug("<-- " + line);
-
-			// replace placeholders like ?variable-placeholder-name for UUIDs
-			Matcher placeHolderMatcher = placeHolderPattern.matcher(line);
-			Matcher commentMatcher = commentPattern.matcher(line);
-			while (placeHolderMatcher.find())
-			{
-				if (line.contains("#") && line.indexOf("#") < placeHolderMatcher.start(1))
-				{
-					if (commentMatcher.matches() && commentMatcher.end(1) < placeHolderMatcher.end(2))
+		log.debug("<-- " + singleRdf);
+		TermDictionary termDictionary = TermDictionary.get(model);
+		Map<String, String> placeHolder2uuid = new HashMap<String, String>();
+		StringBuilder sb = new StringBuilder(singleRdf.length() + 256);
+		for (LongCommentToken token : LongCommentLexer.tokenize(singleRdf))
+		{
+			switch (token.getType())
+			{
+				case PLACEHOLDER:
+					// replace placeholders like ?variable-placeholder-name for UUIDs
+					String uuid = placeHolder2uuid.get(token.getText());
+					if (uuid == null)
 					{
-						continue;
+						uuid = "<" + CmapUtil.URN_UUID + UUID.randomUUID() + ">";
+						placeHolder2uuid.put(token.getText(), uuid);
 					}
-				}
-
-				String placeHolder = placeHolderMatcher.group(2);
-				String uuid = "<" + CmapUtil.URN_UUID + UUID.randomUUID() + ">";
-				line = line.replaceAll(Pattern.quote(placeHolder), uuid);
+					sb.append(uuid);
+					break;
+				case IDENTIFIER:
+					// replace human readable identifiers for artificial IDs
+					sb.append(resolveHumanReadableIdentifier(model, termDictionary, token.getContent()));
+					break;
+				case PREFIXED_NAME:
+					sb.append(CmapUtil.expandPrefixedName(token));
+					break;
+				default:
+					sb.append(token.getText());
+					break;
 			}
+		}
 
-			// replace french quotes for double brackets
-			line = line.replaceAll("«", "<<");
-			line = line.replaceAll("»", ">>");
-
-			// replace human readable identifiers for artificial IDs
-			Matcher m = p.matcher(line);
-			commentMatcher = commentPattern.matcher(line);
-			boolean foundId = false;
-			boolean commentedOut = false;
-			while (m.find())
-			{
-				foundId = true;
-				if (line.contains("#") && line.indexOf("#") < m.start(1))
-				{
-					if (commentMatcher.matches() && commentMatcher.end(1) < m.end(3))
-					{
-						commentedOut = true;
-						processedLines.add(line);
-						continue;
-					}
-				}
-
-				String label = m.group(4);
-				String escapedRegexForSparql = label.replaceAll("\\(", "\\\\\\\\(").replaceAll("\\)", "\\\\\\\\)");
-				String escapedRegexForJava = label.replaceAll("\\(", "\\\\\\(").replaceAll("\\)", "\\\\\\)");
-				// @formatter:off
-					String queryString = Prefixes.getSparqlPrefixes()
-				             + "select ?s where { \n"
-				             + "  { \n"
-				             + "    OPTIONAL { ?s skos:prefLabel ?label . } \n"
-				             + "  } UNION { \n"
-				             + "    OPTIONAL { ?s rdfs:label ?label . } \n"
-				             + "  } \n"
-				             + "  FILTER regex(?label, \"^" + escapedRegexForSparql + "$\", \"i\" )\n"
-				             + "  FILTER (lang(?label) = \"\" || langMatches(lang(?label), \"EN\") )\n"
-				             + "}" ;
-					// @formatter:on
-
-				Query query = QueryFactory.create(queryString);
-				QueryExecution queryExecution = QueryExecutionFactory.create(query, model);
-				ResultSet results = queryExecution.execSelect();
-				boolean foundPrefix = false;
-				while (results.hasNext())
-				{
-					QuerySolution qs = results.next();
-					String namespace = qs.get("s").asResource().getNameSpace();
-					String prefix = Prefixes.getNamespaceMap().get(namespace);
-					String localname = "";
-					if (prefix != null && ((prefix.equals(m.group(3))) || prefix.replaceAll("-", "").equals(m.group(3)) || prefix.toLowerCase().equals("obo")))
-					{
-						if (qs.get("s").asResource().hasProperty(AFOUtil.OWL_DEPRECATED)
-								&& qs.get("s").asResource().getProperty(AFOUtil.OWL_DEPRECATED).getBoolean())
-						{
-							// term is deprecated, look for replacement
-							if (!qs.get("s").asResource().hasProperty(AFOUtil.DCT_IS_REPLACED_BY))
-							{
-								log.error("Deprecated term without replacement: " + m.group(3) + ":" + m.group(4));
-								localname = qs.get("s").asResource().getLocalName();
-							}
-							else
-							{
-								namespace = qs.get("s").asResource().getProperty(AFOUtil.DCT_IS_REPLACED_BY).getObject().asResource().getNameSpace();
-								prefix = Prefixes.getNamespaceMap().get(namespace);
-								localname = qs.get("s").asResource().getProperty(AFOUtil.DCT_IS_REPLACED_BY).getObject().asResource().getLocalName();
-								String replaceLabel = qs.get("s").asResource().getProperty(AFOUtil.SKOS_PREF_LABEL).getString();
-								log.debug("Deprecated term: <<" + m.group(3) + ":" + label + ">> is replaced by <<" + prefix + ":" + replaceLabel + ">> ("
-										+ prefix + ":" + localname + ")");
-							}
-						}
-						else
-						{
-							// term is not deprecated
-							localname = qs.get("s").asResource().getLocalName();
-						}
-						foundPrefix = true;
-						line = line.replaceAll("<<" + Pattern.quote(m.group(3)) + ":" + Pattern.quote(m.group(4)) + ">>", "<" + namespace + localname + ">");
-						break;
-					}
-				}
-				queryExecution.close();
+		String machineReadableRdf = sb.toString();
+		log.debug("--> " + machineReadableRdf);
+		return machineReadableRdf;
+	}
 
-				if (!foundPrefix)
-				{
-					log.error("Missing term: " + m.group(3) + ":" + m.group(4));
-				}
-			}
+	private String resolveHumanReadableIdentifier(Model model, TermDictionary termDictionary, String identifier)
+	{
+		Matcher m = HUMAN_READABLE_IDENTIFIER_PATTERN.matcher(identifier);
+		if (!m.matches())
+		{
+			return "<<" + identifier + ">>";
+		}
 
-			if (!(foundId && commentedOut))
-			{
-				processedLines.add(line);
-			}
-			log.debug("--> " + line);
+		String prefix = m.group(1);
+		String label = m.group(2);
+		Term term = termDictionary.getTerm(model, prefix, label);
+		if (term == null)
+		{
+			log.error("Missing term: " + prefix + ":" + label);
+			return "<<" + identifier + ">>";
 		}
 
-		processedLines = CmapUtil.replacePrefixesWithNamespaces(model, processedLines);
+		if (term.isReplaced())
+		{
+			String replacementPrefix = term.getReplacementPrefix();
+			log.debug("Deprecated term: <<" + prefix + ":" + label + ">> is replaced by <<" + replacementPrefix + ":" + term.getDeprecatedLabel() + ">> ("
+					+ replacementPrefix + ":" + term.getLocalName() + ")");
+		}
+		else if (term.isDeprecated())
+		{
+			log.error("Deprecated term without replacement: " + prefix + ":" + label);
+		}
 
-		return StringUtils.join(processedLines.toArray(), "\n");
+		return "<" + term.getIri() + ">";
 	}
 
 	public static Resource tryToExtractLinkFromAfxAndObo(Model model, Resource link)
@@ -1224,7 +1192,7 @@ public class Cmap2TurtleConverter
 			log.debug("Dropped all long comments. Clean up not needed.");
 			return model;
 		}
-		List<Statement> statementsToRemove = new ArrayList<>();
+		StatementDelta delta = new StatementDelta();
 		List<String> idsToRemove = new ArrayList<>();
 		StmtIterator stmtIterator = model.listStatements();
 		while (stmtIterator.hasNext())
@@ -1268,47 +1236,34 @@ public class Cmap2TurtleConverter
 						&& !connectionId2UiProperties.containsKey(vizKey) && !controlPointId2UiProperties.containsKey(vizKey))
 				{
 					log.debug("RDF resource with id: " + subjectId + " was not found in vizmodel. Deleting from RDF model.");
-					statementsToRemove.addAll(extractStatementsForResource(subject, model));
-					statementsToRemove.addAll(model.listStatements((Resource) null, (Property) null, subject).toList());
+					delta.removeAll(extractStatementsForResource(subject, model));
+					delta.removeAll(model.listStatements((Resource) null, (Property) null, subject).toList());
 					idsToRemove.add(subjectId);
 
-					statementsToRemove.addAll(extractStatementsForResource(uiSubject, model));
-					statementsToRemove.addAll(model.listStatements((Resource) null, (Property) null, uiSubject).toList());
+					delta.removeAll(extractStatementsForResource(uiSubject, model));
+					delta.removeAll(model.listStatements((Resource) null, (Property) null, uiSubject).toList());
 					idsToRemove.add(uiSubjectId);
 
-					if (uiSubject.hasProperty(VizUtil.AFV_HAS_FONT))
-					{
-						Resource fontResource = uiSubject.getProperty(VizUtil.AFV_HAS_FONT).getResource();
-						statementsToRemove.addAll(extractStatementsForResource(fontResource, model));
-						statementsToRemove.addAll(model.listStatements((Resource) null, (Property) null, fontResource).toList());
-					}
-
-					if (uiSubject.hasProperty(VizUtil.AFV_HAS_BORDER))
-					{
-						Resource borderResource = uiSubject.getProperty(VizUtil.AFV_HAS_BORDER).getResource();
-						statementsToRemove.addAll(extractStatementsForResource(borderResource, model));
-						statementsToRemove.addAll(model.listStatements((Resource) null, (Property) null, borderResource).toList());
-					}
-
+					// fonts and borders are shared, unreferenced ones are removed after applying the delta
 					if (uiSubject.hasProperty(VizUtil.AFV_HAS_CONTROL_POINT))
 					{
 						Resource controlPointResource = uiSubject.getProperty(VizUtil.AFV_HAS_CONTROL_POINT).getResource();
-						statementsToRemove.addAll(extractStatementsForResource(controlPointResource, model));
-						statementsToRemove.addAll(model.listStatements((Resource) null, (Property) null, controlPointResource).toList());
+						delta.removeAll(extractStatementsForResource(controlPointResource, model));
+						delta.removeAll(model.listStatements((Resource) null, (Property) null, controlPointResource).toList());
 					}
 
 					if (uiSubject.hasProperty(VizUtil.AFV_HAS_IMAGE))
 					{
 						Resource imageResource = uiSubject.getProperty(VizUtil.AFV_HAS_IMAGE).getResource();
-						statementsToRemove.addAll(extractStatementsForResource(imageResource, model));
-						statementsToRemove.addAll(model.listStatements((Resource) null, (Property) null, imageResource).toList());
+						delta.removeAll(extractStatementsForResource(imageResource, model));
+						delta.removeAll(model.listStatements((Resource) null, (Property) null, imageResource).toList());
 					}
 
 					if (uiSubject.hasProperty(VizUtil.AFV_HAS_CARDINALITY))
 					{
 						Resource cardinalityResource = uiSubject.getProperty(VizUtil.AFV_HAS_CARDINALITY).getResource();
-						statementsToRemove.addAll(extractStatementsForResource(cardinalityResource, model));
-						statementsToRemove.addAll(model.listStatements((Resource) null, (Property) null, cardinalityResource).toList());
+						delta.removeAll(extractStatementsForResource(cardinalityResource, model));
+						delta.removeAll(model.listStatements((Resource) null, (Property) null, cardinalityResource).toList());
 					}
 
 					if (uiSubject.hasProperty(VizUtil.AFV_HAS_HIDDEN_PROPERTY))
@@ -1318,8 +1273,8 @@ public class Cmap2TurtleConverter
 						{
 							Statement statement2 = hiddenPropertyIterator.next();
 							Resource hiddenPropertyResource = statement2.getResource();
-							statementsToRemove.addAll(extractStatementsForResource(hiddenPropertyResource, model));
-							statementsToRemove.addAll(model.listStatements((Resource) null, (Property) null, hiddenPropertyResource).toList());
+							delta.removeAll(extractStatementsForResource(hiddenPropertyResource, model));
+							delta.removeAll(model.listStatements((Resource) null, (Property) null, hiddenPropertyResource).toList());
 						}
 					}
 				}
@@ -1332,37 +1287,43 @@ public class Cmap2TurtleConverter
 			log.debug("Deleting resources and relations for Ids: " + StringUtils.join(idsToRemove.iterator(), ", \n"));
 		}
 
-		model.remove(statementsToRemove);
+		delta.apply(model);
+		model = StyleIndex.removeUnreferencedStyles(model);
 
 		return model;
 	}
 
-	@SuppressWarnings("deprecation")
 	public Model createOrUpdateVisualizationModel(Path path, Model model) throws JAXBException, IOException
 	{
-		JAXBContext jc = JAXBContext.newInstance(CMap.class);
-		// jc.generateSchema(new CMapSchemaOutputResolver(new File("src\\main\\resources")));
-
-		Unmarshaller unmarshaller = jc.createUnmarshaller();
-		CMap cmap = (CMap) unmarshaller.unmarshal(path.toFile());
-
-		Marshaller marshaller = jc.createMarshaller();
-		marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-		marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-		marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", new CmapNamespacePrefixMapper());
+		return createOrUpdateVisualizationModel(CxlReader.read(path).getCmap(), path, model);
+	}
 
-		ByteArrayOutputStream output = new ByteArrayOutputStream()
+	@SuppressWarnings("deprecation")
+	public Model createOrUpdateVisualizationModel(CMap cmap, Path path, Model model) throws JAXBException, IOException
+	{
+		if (log.isDebugEnabled())
 		{
-			private StringBuilder string = new StringBuilder();
+			JAXBContext jc = JAXBContext.newInstance(CMap.class);
+			// jc.generateSchema(new CMapSchemaOutputResolver(new File("src\\main\\resources")));
+
+			Marshaller marshaller = jc.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+			marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+			marshaller.setProperty("com.sun.xml.bind.namespacePrefixMapper", new CmapNamespacePrefixMapper());
 
-			@Override
-			public void write(int b)
+			ByteArrayOutputStream output = new ByteArrayOutputStream()
 			{
-				string.append((char) b);
-			}
-		};
-		marshaller.marshal(cmap, output);
-		log.debug(output.toString());
+				private StringBuilder string = new StringBuilder();
+
+				@Override
+				public void write(int b)
+				{
+					string.append((char) b);
+				}
+			};
+			marshaller.marshal(cmap, output);
+			log.debug(output.toString());
+		}
 
 		List<Concept> concepts = new ArrayList<>();
 		if (cmap.getMap() != null && cmap.getMap().getConcepts() != null && cmap.getMap().getConcepts().getConceptList() != null)
@@ -1373,29 +1334,29 @@ public class Cmap2TurtleConverter
 		{
 			Concept concept = iterator.next();
 			String conceptId = concept.getId();
-			Map<String, String> conceptProperties = CmapUtil.createOrRetrieveMapOfUiProperties(conceptId2UiProperties, conceptId);
+			UiProperties conceptProperties = CmapUtil.createOrRetrieveUiProperties(conceptId2UiProperties, conceptId);
 			String label = concept.getLabel();
 			if (label != null && !label.isEmpty())
 			{
 				label = unbreakString(label).trim();
 				if (label.contains("[") && label.contains("]") && !label.contains("\"") && !label.contains("^^"))
 				{
-					conceptProperties.put(ConceptProperty.IS_BLANK_NODE.name(), "true");
+					conceptProperties.put(ConceptProperty.IS_BLANK_NODE, "true");
 					label = label.replaceAll("\\[", "").replaceAll("\\]", "");
 				}
 				else if ((label.startsWith("\"") && label.contains("\"^^")))
 				{
-					conceptProperties.put(ConceptProperty.IS_LITERAL_NODE.name(), "true");
+					conceptProperties.put(ConceptProperty.IS_LITERAL_NODE, "true");
 				}
 
-				conceptProperties.put(ConceptProperty.TITLE.name(), label);
+				conceptProperties.put(ConceptProperty.TITLE, label);
 
 				Resource type = RdfUtil.getResourceByLabel(model, label, false, true);
 				if (type != null)
 				{
 					if (type.hasProperty(AFOUtil.RDF_TYPE, AFOUtil.OWL_NAMED_INDIVIDUAL) && !type.getURI().startsWith(AFOUtil.AFDT_PREFIX))
 					{
-						conceptProperties.put(ConceptProperty.IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES.name(), "true");
+						conceptProperties.put(ConceptProperty.IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES, "true");
 					}
 				}
 
@@ -1404,20 +1365,20 @@ public class Cmap2TurtleConverter
 			String shortComment = concept.getShortComment();
 			if (shortComment != null && !shortComment.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.SHORT_COMMENT.name(), shortComment);
+				conceptProperties.put(ConceptProperty.SHORT_COMMENT, shortComment);
 			}
 
 			String longComment = concept.getLongComment();
 			if (longComment != null && !longComment.isEmpty() && !RdfCmap.ignoreLongComments)
 			{
-				conceptProperties.put(ConceptProperty.LONG_COMMENT.name(),
+				conceptProperties.put(ConceptProperty.LONG_COMMENT,
 						NumericEntityEscaper.below(0x20).translate(StringEscapeUtils.escapeXml11(longComment)));
 			}
 
 			String parentId = concept.getParentId();
 			if (parentId != null && !parentId.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.PARENT.name(), parentId);
+				conceptProperties.put(ConceptProperty.PARENT, parentId);
 			}
 
 			conceptId2UiProperties.put(conceptId, conceptProperties);
@@ -1432,7 +1393,7 @@ public class Cmap2TurtleConverter
 		{
 			ConceptAppearance conceptAppearance = iterator.next();
 			String conceptAppearanceId = conceptAppearance.getId();
-			Map<String, String> conceptProperties = CmapUtil.createOrRetrieveMapOfUiProperties(conceptId2UiProperties, conceptAppearanceId);
+			UiProperties conceptProperties = CmapUtil.createOrRetrieveUiProperties(conceptId2UiProperties, conceptAppearanceId);
 			String x = conceptAppearance.getX();
 			String y = conceptAppearance.getY();
 			String width = conceptAppearance.getWidth();
@@ -1449,64 +1410,64 @@ public class Cmap2TurtleConverter
 
 			if (x != null && !x.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.X.name(), x);
+				conceptProperties.put(ConceptProperty.X, x);
 			}
 
 			if (y != null && !y.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.Y.name(), y);
+				conceptProperties.put(ConceptProperty.Y, y);
 			}
 
 			if (width != null && !width.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.WIDTH.name(), width);
+				conceptProperties.put(ConceptProperty.WIDTH, width);
 			}
 
 			if (height != null && !height.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.HEIGHT.name(), height);
+				conceptProperties.put(ConceptProperty.HEIGHT, height);
 			}
 
 			if (fontStyle != null && !fontStyle.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.FONT_STYLE.name(), fontStyle);
+				conceptProperties.put(ConceptProperty.FONT_STYLE, fontStyle);
 			}
 
 			if (fontSize != null && !fontSize.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.FONT_SIZE.name(), fontSize);
+				conceptProperties.put(ConceptProperty.FONT_SIZE, fontSize);
 			}
 
 			if (backgroundColor != null && !backgroundColor.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.BACKGROUND_COLOR.name(), backgroundColor);
+				conceptProperties.put(ConceptProperty.BACKGROUND_COLOR, backgroundColor);
 			}
 
 			if (backgroundImage != null && !backgroundImage.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE.name(), backgroundImage);
+				conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE, backgroundImage);
 			}
 
 			if (backgroundImageStyle != null && !backgroundImageStyle.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE_STYLE.name(), backgroundImageStyle);
+				conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE_STYLE, backgroundImageStyle);
 			}
 
 			if (backgroundImageLayout != null && !backgroundImageLayout.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE_LAYOUT.name(), backgroundImageLayout);
+				conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE_LAYOUT, backgroundImageLayout);
 			}
 
 			if (borderShape != null && !borderShape.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.BORDER_SHAPE.name(), borderShape);
-				if (conceptProperties.get(ConceptProperty.IS_LITERAL_NODE.name()) == null
-						|| conceptProperties.get(ConceptProperty.IS_LITERAL_NODE.name()).equals("false"))
+				conceptProperties.put(ConceptProperty.BORDER_SHAPE, borderShape);
+				if (conceptProperties.get(ConceptProperty.IS_LITERAL_NODE) == null
+						|| conceptProperties.get(ConceptProperty.IS_LITERAL_NODE).equals("false"))
 				{
 					if (borderShape.equals("rounded-rectangle"))
 					{
 						log.debug("Found class node. Check for punning.");
-						conceptProperties.put(ConceptProperty.IS_CLASS.name(), "true");
+						conceptProperties.put(ConceptProperty.IS_CLASS, "true");
 					}
 				}
 
@@ -1515,37 +1476,37 @@ public class Cmap2TurtleConverter
 					if (borderStyle != null && (borderStyle.equals("dashed") || borderStyle.equals("dotted")))
 					{
 						log.debug("Found source node.");
-						conceptProperties.put(ConceptProperty.IS_SOURCE_NODE.name(), "true");
+						conceptProperties.put(ConceptProperty.IS_SOURCE_NODE, "true");
 					}
 					else
 					{
 						log.debug("Found target node.");
-						conceptProperties.put(ConceptProperty.IS_TARGET_NODE.name(), "true");
+						conceptProperties.put(ConceptProperty.IS_TARGET_NODE, "true");
 					}
 				}
 			}
 
 			if (borderStyle != null && !borderStyle.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.BORDER_STYLE.name(), borderStyle);
+				conceptProperties.put(ConceptProperty.BORDER_STYLE, borderStyle);
 				if (borderShape != null && borderShape.equals("oval"))
 				{
 					if (borderStyle.equals("dashed"))
 					{
 						log.debug("Found source node.");
-						conceptProperties.put(ConceptProperty.IS_SOURCE_NODE.name(), "true");
+						conceptProperties.put(ConceptProperty.IS_SOURCE_NODE, "true");
 					}
 					else if (borderStyle.equals("solid"))
 					{
 						log.debug("Found target node.");
-						conceptProperties.put(ConceptProperty.IS_TARGET_NODE.name(), "true");
+						conceptProperties.put(ConceptProperty.IS_TARGET_NODE, "true");
 					}
 				}
 				else
 				{
 					if (borderStyle.equals("dotted") || borderStyle.equals("dashed"))
 					{
-						conceptProperties.put(ConceptProperty.IS_CLASS.name(), "true");
+						conceptProperties.put(ConceptProperty.IS_CLASS, "true");
 						log.debug("Found class node with dashed/dotted border.");
 					}
 				}
@@ -1553,7 +1514,7 @@ public class Cmap2TurtleConverter
 
 			if (expanded != null && !expanded.isEmpty())
 			{
-				conceptProperties.put(ConceptProperty.EXPANDED.name(), expanded);
+				conceptProperties.put(ConceptProperty.EXPANDED, expanded);
 			}
 
 			conceptId2UiProperties.put(conceptAppearanceId, conceptProperties);
@@ -1568,15 +1529,14 @@ public class Cmap2TurtleConverter
 		{
 			LinkingPhrase linkingPhrase = iterator.next();
 			String linkingPhraseId = linkingPhrase.getId();
-			Map<String, String> linkProperties = CmapUtil.createOrRetrieveMapOfUiProperties(fullLinkId2UiProperties, linkingPhraseId);
+			UiProperties linkProperties = CmapUtil.createOrRetrieveUiProperties(fullLinkId2UiProperties, linkingPhraseId);
 			String label = linkingPhrase.getLabel();
 			if (label != null && !label.isEmpty())
 			{
 				label = unbreakString(label);
 
-				Pattern p = Pattern.compile(CmapUtil.CARDINALITY_PATTERN, Pattern.CASE_INSENSITIVE);
 				log.debug("Matching property label: " + label);
-				Matcher m = p.matcher(label);
+				Matcher m = CARDINALITY_PATTERN.matcher(label);
 				String cardinalityString = StringUtils.EMPTY;
 				if (m.find())
 				{
@@ -1584,7 +1544,7 @@ public class Cmap2TurtleConverter
 					cardinalityString = m.group(2).trim();
 				}
 
-				linkProperties.put(ConceptProperty.CARDINALITY.name(), cardinalityString);
+				linkProperties.put(ConceptProperty.CARDINALITY, cardinalityString);
 
 				if (label.contains(":") && !label.toLowerCase().contains("af-x") && !label.toLowerCase().contains("afx") && !isOboProperty(label)
 						&& !isQudtProperty(label))
@@ -1593,25 +1553,25 @@ public class Cmap2TurtleConverter
 					label = label.replaceAll(" ", "");
 				}
 
-				linkProperties.put(ConceptProperty.TITLE.name(), label);
+				linkProperties.put(ConceptProperty.TITLE, label);
 			}
 
 			String shortComment = linkingPhrase.getShortComment();
 			if (shortComment != null && !shortComment.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.SHORT_COMMENT.name(), shortComment);
+				linkProperties.put(ConceptProperty.SHORT_COMMENT, shortComment);
 			}
 
 			String longComment = linkingPhrase.getLongComment();
 			if (longComment != null && !longComment.isEmpty() && !RdfCmap.ignoreLongComments)
 			{
-				linkProperties.put(ConceptProperty.LONG_COMMENT.name(), NumericEntityEscaper.below(0x20).translate(StringEscapeUtils.escapeXml(longComment)));
+				linkProperties.put(ConceptProperty.LONG_COMMENT, NumericEntityEscaper.below(0x20).translate(StringEscapeUtils.escapeXml(longComment)));
 			}
 
 			String parentId = linkingPhrase.getParentId();
 			if (parentId != null && !parentId.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.PARENT.name(), parentId);
+				linkProperties.put(ConceptProperty.PARENT, parentId);
 			}
 
 			fullLinkId2UiProperties.put(linkingPhraseId, linkProperties);
@@ -1627,7 +1587,7 @@ public class Cmap2TurtleConverter
 		{
 			LinkingPhraseAppearance linkingPhraseAppearance = iterator.next();
 			String linkingPhraseAppearanceId = linkingPhraseAppearance.getId();
-			Map<String, String> linkProperties = CmapUtil.createOrRetrieveMapOfUiProperties(fullLinkId2UiProperties, linkingPhraseAppearanceId);
+			UiProperties linkProperties = CmapUtil.createOrRetrieveUiProperties(fullLinkId2UiProperties, linkingPhraseAppearanceId);
 
 			String x = linkingPhraseAppearance.getX();
 			String y = linkingPhraseAppearance.getY();
@@ -1646,72 +1606,72 @@ public class Cmap2TurtleConverter
 
 			if (x != null && !x.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.X.name(), x);
+				linkProperties.put(ConceptProperty.X, x);
 			}
 
 			if (y != null && !y.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.Y.name(), y);
+				linkProperties.put(ConceptProperty.Y, y);
 			}
 
 			if (width != null && !width.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.WIDTH.name(), width);
+				linkProperties.put(ConceptProperty.WIDTH, width);
 			}
 
 			if (height != null && !height.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.HEIGHT.name(), height);
+				linkProperties.put(ConceptProperty.HEIGHT, height);
 			}
 
 			if (minWidth != null && !minWidth.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.MIN_WIDTH.name(), minWidth);
+				linkProperties.put(ConceptProperty.MIN_WIDTH, minWidth);
 			}
 
 			if (minHeight != null && !minHeight.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.MIN_HEIGHT.name(), minHeight);
+				linkProperties.put(ConceptProperty.MIN_HEIGHT, minHeight);
 			}
 
 			if (fontSize != null && !fontSize.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.FONT_SIZE.name(), fontSize);
+				linkProperties.put(ConceptProperty.FONT_SIZE, fontSize);
 			}
 
 			if (fontColor != null && !fontColor.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.FONT_COLOR.name(), fontColor);
+				linkProperties.put(ConceptProperty.FONT_COLOR, fontColor);
 			}
 
 			if (borderColor != null && !borderColor.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.BORDER_COLOR.name(), borderColor);
+				linkProperties.put(ConceptProperty.BORDER_COLOR, borderColor);
 			}
 
 			if (backgroundColor != null && !backgroundColor.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.BACKGROUND_COLOR.name(), backgroundColor);
+				linkProperties.put(ConceptProperty.BACKGROUND_COLOR, backgroundColor);
 			}
 
 			if (backgroundImage != null && !backgroundImage.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.BACKGROUND_IMAGE.name(), backgroundImage);
+				linkProperties.put(ConceptProperty.BACKGROUND_IMAGE, backgroundImage);
 			}
 
 			if (backgroundImageStyle != null && !backgroundImageStyle.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.BACKGROUND_IMAGE_STYLE.name(), backgroundImageStyle);
+				linkProperties.put(ConceptProperty.BACKGROUND_IMAGE_STYLE, backgroundImageStyle);
 			}
 
 			if (backgroundImageLayout != null && !backgroundImageLayout.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.BACKGROUND_IMAGE_LAYOUT.name(), backgroundImageLayout);
+				linkProperties.put(ConceptProperty.BACKGROUND_IMAGE_LAYOUT, backgroundImageLayout);
 			}
 
 			if (shadowColor != null && !shadowColor.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.SHADOW_COLOR.name(), shadowColor);
+				linkProperties.put(ConceptProperty.SHADOW_COLOR, shadowColor);
 			}
 
 			fullLinkId2UiProperties.put(linkingPhraseAppearanceId, linkProperties);
@@ -1726,11 +1686,11 @@ public class Cmap2TurtleConverter
 		{
 			Connection connection = iterator.next();
 			String connectionId = connection.getId();
-			Map<String, String> connectionProperties = CmapUtil.createOrRetrieveMapOfUiProperties(connectionId2UiProperties, connectionId);
+			UiProperties connectionProperties = CmapUtil.createOrRetrieveUiProperties(connectionId2UiProperties, connectionId);
 			String fromId = connection.getFromId();
 			if (fromId != null && !fromId.isEmpty())
 			{
-				connectionProperties.put(ConceptProperty.CONNECTS_FROM.name(), fromId);
+				connectionProperties.put(ConceptProperty.CONNECTS_FROM, fromId);
 			}
 			else
 			{
@@ -1740,7 +1700,7 @@ public class Cmap2TurtleConverter
 			String toId = connection.getToId();
 			if (toId != null && !toId.isEmpty())
 			{
-				connectionProperties.put(ConceptProperty.CONNECTS_TO.name(), toId);
+				connectionProperties.put(ConceptProperty.CONNECTS_TO, toId);
 			}
 			else
 			{
@@ -1760,29 +1720,29 @@ public class Cmap2TurtleConverter
 		{
 			ConnectionAppearance connectionAppearance = iterator.next();
 			String connectionAppearanceId = connectionAppearance.getId();
-			Map<String, String> connectionProperties = CmapUtil.createOrRetrieveMapOfUiProperties(connectionId2UiProperties, connectionAppearanceId);
+			UiProperties connectionProperties = CmapUtil.createOrRetrieveUiProperties(connectionId2UiProperties, connectionAppearanceId);
 			String fromPos = connectionAppearance.getFromPos();
 			if (fromPos != null && !fromPos.isEmpty())
 			{
-				connectionProperties.put(ConceptProperty.ANCHOR_FROM.name(), fromPos);
+				connectionProperties.put(ConceptProperty.ANCHOR_FROM, fromPos);
 			}
 
 			String toPos = connectionAppearance.getToPos();
 			if (toPos != null && !toPos.isEmpty())
 			{
-				connectionProperties.put(ConceptProperty.ANCHOR_TO.name(), toPos);
+				connectionProperties.put(ConceptProperty.ANCHOR_TO, toPos);
 			}
 
 			String arrowHead = connectionAppearance.getArrowHead();
 			if (arrowHead != null && !arrowHead.isEmpty())
 			{
-				connectionProperties.put(ConceptProperty.ARROW_HEAD.name(), arrowHead);
+				connectionProperties.put(ConceptProperty.ARROW_HEAD, arrowHead);
 			}
 
 			String type = connectionAppearance.getType();
 			if (type != null && !type.isEmpty())
 			{
-				connectionProperties.put(ConceptProperty.LINE_TYPE.name(), type);
+				connectionProperties.put(ConceptProperty.LINE_TYPE, type);
 			}
 
 			connectionId2UiProperties.put(connectionAppearanceId, connectionProperties);
@@ -1796,23 +1756,23 @@ public class Cmap2TurtleConverter
 			for (Iterator<ControlPoint> controlPointIterator = controlPoints.iterator(); controlPointIterator.hasNext();)
 			{
 				ControlPoint controlPoint = controlPointIterator.next();
-				Map<String, String> controlPointProperties = CmapUtil.createOrRetrieveMapOfUiProperties(controlPointId2UiProperties, "");
+				UiProperties controlPointProperties = CmapUtil.createOrRetrieveUiProperties(controlPointId2UiProperties, "");
 
 				String x = controlPoint.getX();
 				String y = controlPoint.getY();
 
 				if (x != null && !x.isEmpty())
 				{
-					controlPointProperties.put(ConceptProperty.X.name(), x);
+					controlPointProperties.put(ConceptProperty.X, x);
 				}
 
 				if (y != null && !y.isEmpty())
 				{
-					controlPointProperties.put(ConceptProperty.Y.name(), y);
+					controlPointProperties.put(ConceptProperty.Y, y);
 				}
 
-				controlPointProperties.put(ConceptProperty.CONNECTION_ID.name(), connectionAppearanceId);
-				controlPointProperties.put(ConceptProperty.INDEX.name(), String.valueOf(pointCount));
+				controlPointProperties.put(ConceptProperty.CONNECTION_ID, connectionAppearanceId);
+				controlPointProperties.put(ConceptProperty.INDEX, String.valueOf(pointCount));
 
 				controlPointId2UiProperties.put(CmapUtil.URN_UUID + UUID.randomUUID().toString(), controlPointProperties); // control points must be newly
 																															// created because they have no id
@@ -1831,12 +1791,12 @@ public class Cmap2TurtleConverter
 		{
 			Image image = iterator.next();
 			String imageId = image.getId();
-			Map<String, String> imageProperties = CmapUtil.createOrRetrieveMapOfUiProperties(imageId2UiProperties, imageId);
+			UiProperties imageProperties = CmapUtil.createOrRetrieveUiProperties(imageId2UiProperties, imageId);
 			String bytes = image.getBytes();
 
 			if (bytes != null && !bytes.isEmpty())
 			{
-				imageProperties.put(ConceptProperty.BACKGROUND_IMAGE_BYTES.name(), bytes);
+				imageProperties.put(ConceptProperty.BACKGROUND_IMAGE_BYTES, bytes);
 			}
 
 			imageId2UiProperties.put(imageId, imageProperties);
@@ -0,0 +1,461 @@
+package com.osthus.rdfcmap.cmap;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.osthus.rdfcmap.cmap.xml.CMap;
+import com.osthus.rdfcmap.cmap.xml.Concept;
+import com.osthus.rdfcmap.cmap.xml.ConceptAppearance;
+import com.osthus.rdfcmap.cmap.xml.ConceptAppearances;
+import com.osthus.rdfcmap.cmap.xml.Concepts;
+import com.osthus.rdfcmap.cmap.xml.Connection;
+import com.osthus.rdfcmap.cmap.xml.ConnectionAppearance;
+import com.osthus.rdfcmap.cmap.xml.ConnectionAppearances;
+import com.osthus.rdfcmap.cmap.xml.Connections;
+import com.osthus.rdfcmap.cmap.xml.ControlPoint;
+import com.osthus.rdfcmap.cmap.xml.Image;
+import com.osthus.rdfcmap.cmap.xml.Images;
+import com.osthus.rdfcmap.cmap.xml.LinkingPhrase;
+import com.osthus.rdfcmap.cmap.xml.LinkingPhraseAppearance;
+import com.osthus.rdfcmap.cmap.xml.LinkingPhraseAppearances;
+import com.osthus.rdfcmap.cmap.xml.LinkingPhrases;
+import com.osthus.rdfcmap.cmap.xml.Map;
+import com.osthus.rdfcmap.enums.CxlSection;
+import com.osthus.rdfcmap.helper.CxlReaderResult;
+
+/**
+ * CxlReader
+ *
+ * Read cxl input in a single streaming pass. Concepts, linking phrases, connections, their appearances and images are collected into the structures of
+ * package cmap.xml, the content of the &lt;rdf-model&gt;-tag is handed directly to the parser without buffering it as string or temp file. Both turtle and
+ * the compact encoding of RdfModelEncoding are supported.
+ *
+ * Sections that are not requested are skipped without materializing them, e.g. read-only commands do not need image payloads or control points.
+ */
+public class CxlReader
+{
+	private static final Logger log = LogManager.getLogger("Logger");
+
+	public static final Set<CxlSection> ALL_SECTIONS = EnumSet.allOf(CxlSection.class);
+
+	public static final Set<CxlSection> STRUCTURE_SECTIONS = EnumSet.complementOf(EnumSet.of(CxlSection.IMAGES, CxlSection.CONTROL_POINTS));
+
+	public static CxlReaderResult read(Path path) throws IOException
+	{
+		return read(path, ALL_SECTIONS);
+	}
+
+	public static CxlReaderResult read(Path path, Set<CxlSection> sections) throws IOException
+	{
+		return read(path, sections, ModelFactory.createDefaultModel());
+	}
+
+	/**
+	 * Read cxl and add the stored RDF model to the given model.
+	 */
+	public static CxlReaderResult read(Path path, Set<CxlSection> sections, Model model) throws IOException
+	{
+		CMap cmap = new CMap();
+
+		XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+		xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+
+		try (InputStream inputStream = new BufferedInputStream(new FileInputStream(path.toFile())))
+		{
+			XMLStreamReader xmlStreamReader = xmlInputFactory.createXMLStreamReader(inputStream);
+			try
+			{
+				Map map = null;
+				ConnectionAppearance currentConnectionAppearance = null;
+				while (xmlStreamReader.hasNext())
+				{
+					int event = xmlStreamReader.next();
+					if (event == XMLStreamConstants.END_ELEMENT)
+					{
+						if ("connection-appearance".equals(xmlStreamReader.getLocalName()))
+						{
+							currentConnectionAppearance = null;
+						}
+						continue;
+					}
+
+					if (event != XMLStreamConstants.START_ELEMENT)
+					{
+						continue;
+					}
+
+					String localName = xmlStreamReader.getLocalName();
+					switch (localName)
+					{
+						case "map":
+							map = new Map();
+							map.setWidth(attribute(xmlStreamReader, "width"));
+							map.setHeight(attribute(xmlStreamReader, "height"));
+							cmap.setMap(map);
+							break;
+						case "concept-list":
+							if (!sections.contains(CxlSection.CONCEPTS))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							Concepts concepts = new Concepts();
+							concepts.setConceptList(new ArrayList<Concept>());
+							map.setConcepts(concepts);
+							break;
+						case "concept":
+							map.getConcepts().getConceptList().add(readConcept(xmlStreamReader));
+							break;
+						case "linking-phrase-list":
+							if (!sections.contains(CxlSection.LINKING_PHRASES))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							LinkingPhrases linkingPhrases = new LinkingPhrases();
+							linkingPhrases.setLinkingPhrases(new ArrayList<LinkingPhrase>());
+							map.setLinkingPhrases(linkingPhrases);
+							break;
+						case "linking-phrase":
+							map.getLinkingPhrases().getLinkingPhrases().add(readLinkingPhrase(xmlStreamReader));
+							break;
+						case "connection-list":
+							if (!sections.contains(CxlSection.CONNECTIONS))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							Connections connections = new Connections();
+							connections.setConnections(new ArrayList<Connection>());
+							map.setConnections(connections);
+							break;
+						case "connection":
+							map.getConnections().getConnections().add(readConnection(xmlStreamReader));
+							break;
+						case "concept-appearance-list":
+							if (!sections.contains(CxlSection.CONCEPT_APPEARANCES))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							ConceptAppearances conceptAppearances = new ConceptAppearances();
+							conceptAppearances.setConceptAppearances(new ArrayList<ConceptAppearance>());
+							map.setConceptAppearances(conceptAppearances);
+							break;
+						case "concept-appearance":
+							map.getConceptAppearances().getConceptAppearances().add(readConceptAppearance(xmlStreamReader));
+							break;
+						case "linking-phrase-appearance-list":
+							if (!sections.contains(CxlSection.LINKING_PHRASE_APPEARANCES))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							LinkingPhraseAppearances linkingPhraseAppearances = new LinkingPhraseAppearances();
+							linkingPhraseAppearances.setLinkingPhraseAppearances(new ArrayList<LinkingPhraseAppearance>());
+							map.setLinkingPhraseAppearances(linkingPhraseAppearances);
+							break;
+						case "linking-phrase-appearance":
+							map.getLinkingPhraseAppearances().getLinkingPhraseAppearances().add(readLinkingPhraseAppearance(xmlStreamReader));
+							break;
+						case "connection-appearance-list":
+							if (!sections.contains(CxlSection.CONNECTION_APPEARANCES))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							ConnectionAppearances connectionAppearances = new ConnectionAppearances();
+							connectionAppearances.setConnectionAppearances(new ArrayList<ConnectionAppearance>());
+							map.setConnectionAppearances(connectionAppearances);
+							break;
+						case "connection-appearance":
+							currentConnectionAppearance = readConnectionAppearance(xmlStreamReader);
+							map.getConnectionAppearances().getConnectionAppearances().add(currentConnectionAppearance);
+							break;
+						case "control-point":
+							if (!sections.contains(CxlSection.CONTROL_POINTS))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							if (currentConnectionAppearance != null)
+							{
+								if (currentConnectionAppearance.getControlPoints() == null)
+								{
+									currentConnectionAppearance.setControlPoints(new ArrayList<ControlPoint>());
+								}
+								currentConnectionAppearance.getControlPoints().add(readControlPoint(xmlStreamReader));
+							}
+							break;
+						case "image-list":
+							if (!sections.contains(CxlSection.IMAGES))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							Images images = new Images();
+							images.setImages(new ArrayList<Image>());
+							map.setImages(images);
+							break;
+						case "image":
+							map.getImages().getImages().add(readImage(xmlStreamReader));
+							break;
+						case "rdf-model":
+							if (!sections.contains(CxlSection.RDF_MODEL))
+							{
+								skipElement(xmlStreamReader);
+								break;
+							}
+							log.debug("Reading stored RDF model from cxl: " + path.toString());
+							String format = attribute(xmlStreamReader, RdfModelEncoding.FORMAT_ATTRIBUTE);
+							try (Reader rdfModelReader = new ElementTextReader(xmlStreamReader))
+							{
+								if (format == null || format.isEmpty())
+								{
+									model.read(rdfModelReader, path.toUri().toString(), "TTL");
+								}
+								else if (RdfModelEncoding.COMPACT_FORMAT.equals(format))
+								{
+									RdfModelEncoding.decode(rdfModelReader, model);
+								}
+								else
+								{
+									throw new IllegalStateException("Unsupported format of stored RDF model: " + format);
+								}
+							}
+							break;
+						default:
+							break;
+					}
+				}
+			}
+			finally
+			{
+				xmlStreamReader.close();
+			}
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException("Error while reading cxl: " + path.toString(), e);
+		}
+
+		return new CxlReaderResult(cmap, model);
+	}
+
+	/**
+	 * Skip the current element including all children. The stream reader must be positioned at the start tag and is left at the matching end tag.
+	 */
+	private static void skipElement(XMLStreamReader xmlStreamReader) throws XMLStreamException
+	{
+		int depth = 1;
+		while (depth > 0 && xmlStreamReader.hasNext())
+		{
+			int event = xmlStreamReader.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				depth++;
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT)
+			{
+				depth--;
+			}
+		}
+	}
+
+	private static String attribute(XMLStreamReader xmlStreamReader, String name)
+	{
+		return xmlStreamReader.getAttributeValue(null, name);
+	}
+
+	private static Concept readConcept(XMLStreamReader xmlStreamReader)
+	{
+		Concept concept = new Concept();
+		concept.setId(attribute(xmlStreamReader, "id"));
+		concept.setLabel(attribute(xmlStreamReader, "label"));
+		concept.setShortComment(attribute(xmlStreamReader, "short-comment"));
+		concept.setLongComment(attribute(xmlStreamReader, "long-comment"));
+		concept.setParentId(attribute(xmlStreamReader, "parent-id"));
+		return concept;
+	}
+
+	private static LinkingPhrase readLinkingPhrase(XMLStreamReader xmlStreamReader)
+	{
+		LinkingPhrase linkingPhrase = new LinkingPhrase();
+		linkingPhrase.setId(attribute(xmlStreamReader, "id"));
+		linkingPhrase.setLabel(attribute(xmlStreamReader, "label"));
+		linkingPhrase.setShortComment(attribute(xmlStreamReader, "short-comment"));
+		linkingPhrase.setLongComment(attribute(xmlStreamReader, "long-comment"));
+		linkingPhrase.setParentId(attribute(xmlStreamReader, "parent-id"));
+		return linkingPhrase;
+	}
+
+	private static Connection readConnection(XMLStreamReader xmlStreamReader)
+	{
+		Connection connection = new Connection();
+		connection.setId(attribute(xmlStreamReader, "id"));
+		connection.setFromId(attribute(xmlStreamReader, "from-id"));
+		connection.setToId(attribute(xmlStreamReader, "to-id"));
+		return connection;
+	}
+
+	private static ConceptAppearance readConceptAppearance(XMLStreamReader xmlStreamReader)
+	{
+		ConceptAppearance conceptAppearance = new ConceptAppearance();
+		conceptAppearance.setId(attribute(xmlStreamReader, "id"));
+		conceptAppearance.setX(attribute(xmlStreamReader, "x"));
+		conceptAppearance.setY(attribute(xmlStreamReader, "y"));
+		conceptAppearance.setWidth(attribute(xmlStreamReader, "width"));
+		conceptAppearance.setHeight(attribute(xmlStreamReader, "height"));
+		conceptAppearance.setFontStyle(attribute(xmlStreamReader, "font-style"));
+		conceptAppearance.setFontSize(attribute(xmlStreamReader, "font-size"));
+		conceptAppearance.setBackgroundColor(attribute(xmlStreamReader, "background-color"));
+		conceptAppearance.setBackgroundImage(attribute(xmlStreamReader, "background-image"));
+		conceptAppearance.setBackgroundImageStyle(attribute(xmlStreamReader, "background-image-style"));
+		conceptAppearance.setBackgroundImageLayout(attribute(xmlStreamReader, "background-image-layout"));
+		conceptAppearance.setBorderShape(attribute(xmlStreamReader, "border-shape"));
+		conceptAppearance.setBorderStyle(attribute(xmlStreamReader, "border-style"));
+		conceptAppearance.setExpanded(attribute(xmlStreamReader, "expanded"));
+		return conceptAppearance;
+	}
+
+	private static LinkingPhraseAppearance readLinkingPhraseAppearance(XMLStreamReader xmlStreamReader)
+	{
+		LinkingPhraseAppearance linkingPhraseAppearance = new LinkingPhraseAppearance();
+		linkingPhraseAppearance.setId(attribute(xmlStreamReader, "id"));
+		linkingPhraseAppearance.setX(attribute(xmlStreamReader, "x"));
+		linkingPhraseAppearance.setY(attribute(xmlStreamReader, "y"));
+		linkingPhraseAppearance.setWidth(attribute(xmlStreamReader, "width"));
+		linkingPhraseAppearance.setHeight(attribute(xmlStreamReader, "height"));
+		linkingPhraseAppearance.setMinWidth(attribute(xmlStreamReader, "min-width"));
+		linkingPhraseAppearance.setMinHeight(attribute(xmlStreamReader, "min-height"));
+		linkingPhraseAppearance.setBorderColor(attribute(xmlStreamReader, "border-color"));
+		linkingPhraseAppearance.setBackgroundColor(attribute(xmlStreamReader, "background-color"));
+		linkingPhraseAppearance.setBackgroundImage(attribute(xmlStreamReader, "background-image"));
+		linkingPhraseAppearance.setBackgroundImageStyle(attribute(xmlStreamReader, "background-image-style"));
+		linkingPhraseAppearance.setBackgroundImageLayout(attribute(xmlStreamReader, "background-image-layout"));
+		linkingPhraseAppearance.setShadowColor(attribute(xmlStreamReader, "shadow-color"));
+		linkingPhraseAppearance.setFontSize(attribute(xmlStreamReader, "font-size"));
+		linkingPhraseAppearance.setFontColor(attribute(xmlStreamReader, "font-color"));
+		return linkingPhraseAppearance;
+	}
+
+	private static ConnectionAppearance readConnectionAppearance(XMLStreamReader xmlStreamReader)
+	{
+		ConnectionAppearance connectionAppearance = new ConnectionAppearance();
+		connectionAppearance.setId(attribute(xmlStreamReader, "id"));
+		connectionAppearance.setFromPos(attribute(xmlStreamReader, "from-pos"));
+		connectionAppearance.setToPos(attribute(xmlStreamReader, "to-pos"));
+		connectionAppearance.setType(attribute(xmlStreamReader, "type"));
+		connectionAppearance.setArrowHead(attribute(xmlStreamReader, "arrowhead"));
+		return connectionAppearance;
+	}
+
+	private static ControlPoint readControlPoint(XMLStreamReader xmlStreamReader)
+	{
+		ControlPoint controlPoint = new ControlPoint();
+		controlPoint.setX(attribute(xmlStreamReader, "x"));
+		controlPoint.setY(attribute(xmlStreamReader, "y"));
+		return controlPoint;
+	}
+
+	private static Image readImage(XMLStreamReader xmlStreamReader)
+	{
+		Image image = new Image();
+		image.setId(attribute(xmlStreamReader, "id"));
+		image.setBytes(attribute(xmlStreamReader, "bytes"));
+		return image;
+	}
+
+	/**
+	 * Exposes the text content of the current element as character stream. The stream reader must be positioned at the start tag, reading ends with the
+	 * matching end tag.
+	 */
+	private static class ElementTextReader extends Reader
+	{
+		private final XMLStreamReader xmlStreamReader;
+		private int depth = 0;
+		private int offset = 0;
+		private boolean finished = false;
+
+		ElementTextReader(XMLStreamReader xmlStreamReader)
+		{
+			this.xmlStreamReader = xmlStreamReader;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException
+		{
+			if (len == 0)
+			{
+				return 0;
+			}
+
+			try
+			{
+				while (!finished)
+				{
+					int event = xmlStreamReader.getEventType();
+					if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE)
+					{
+						int copied = xmlStreamReader.getTextCharacters(offset, cbuf, off, len);
+						if (copied > 0)
+						{
+							offset += copied;
+							return copied;
+						}
+					}
+					else if (event == XMLStreamConstants.START_ELEMENT)
+					{
+						depth++;
+					}
+					else if (event == XMLStreamConstants.END_ELEMENT)
+					{
+						depth--;
+						if (depth == 0)
+						{
+							finished = true;
+							break;
+						}
+					}
+
+					offset = 0;
+					xmlStreamReader.next();
+				}
+			}
+			catch (XMLStreamException e)
+			{
+				throw new IOException(e);
+			}
+
+			return -1;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			char[] buffer = new char[4096];
+			while (read(buffer, 0, buffer.length) != -1)
+			{
+				// skip remaining text of element
+			}
+		}
+	}
+}
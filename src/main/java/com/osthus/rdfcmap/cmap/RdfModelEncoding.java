@@ -0,0 +1,47 @@
+package com.osthus.rdfcmap.cmap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.input.ReaderInputStream;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+
+/**
+ * RdfModelEncoding
+ *
+ * Compact encoding of the RDF model stored within the &lt;rdf-model&gt;-tag of cxl: RDF Thrift, gzipped and base64 encoded. The encoding is indicated by
+ * the format attribute of the tag, without format attribute the content is escaped turtle.
+ */
+public class RdfModelEncoding
+{
+	public static final String FORMAT_ATTRIBUTE = "format";
+
+	public static final String COMPACT_FORMAT = "rdf-thrift+gzip+base64";
+
+	public static String encode(Model model) throws IOException
+	{
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try (OutputStream outputStream = new GZIPOutputStream(Base64.getMimeEncoder().wrap(byteArrayOutputStream)))
+		{
+			RDFDataMgr.write(outputStream, model, Lang.RDFTHRIFT);
+		}
+		return new String(byteArrayOutputStream.toByteArray(), StandardCharsets.US_ASCII);
+	}
+
+	public static void decode(Reader reader, Model model) throws IOException
+	{
+		try (InputStream inputStream = new GZIPInputStream(Base64.getMimeDecoder().wrap(new ReaderInputStream(reader, StandardCharsets.US_ASCII))))
+		{
+			RDFDataMgr.read(model, inputStream, Lang.RDFTHRIFT);
+		}
+	}
+}
@@ -41,15 +41,23 @@ import com.osthus.rdfcmap.RdfCmap;
 import com.osthus.rdfcmap.cmap.cardinality.Cardinality;
 import com.osthus.rdfcmap.cmap.cardinality.StatementWithCardinality;
 import com.osthus.rdfcmap.cmap.layout.Layouter;
+import com.osthus.rdfcmap.cmap.scene.Scene;
 import com.osthus.rdfcmap.enums.ConceptProperty;
+import com.osthus.rdfcmap.enums.LongCommentTokenType;
 import com.osthus.rdfcmap.helper.ConceptRelation;
 import com.osthus.rdfcmap.helper.LinkedConcept;
+import com.osthus.rdfcmap.helper.LongCommentToken;
+import com.osthus.rdfcmap.helper.StatementDelta;
+import com.osthus.rdfcmap.helper.UiProperties;
 import com.osthus.rdfcmap.helper.VisualizationInfoBuilderResult;
 import com.osthus.rdfcmap.util.AFOUtil;
 import com.osthus.rdfcmap.util.CmapUtil;
+import com.osthus.rdfcmap.util.LongCommentLexer;
+import com.osthus.rdfcmap.util.NTriplesLoader;
 import com.osthus.rdfcmap.util.Prefixes;
 import com.osthus.rdfcmap.util.RdfUtil;
 import com.osthus.rdfcmap.util.VizUtil;
+import com.osthus.rdfcmap.util.WorkingModelStore;
 
 @SuppressWarnings("deprecation")
 /**
@@ -71,6 +79,17 @@ public class Turtle2CmapConverter
 
 	private static final Logger log = LogManager.getLogger("Logger");
 
+	private static final Pattern ALLOTROPE_TERM_PATTERN = Pattern.compile("^http\\:\\/\\/purl\\.allotrope\\.org\\/ontologies\\/[a-z]*#[A-Z]{3}_[0-9]{7}$",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern COMPACTABLE_IRI_PATTERN = Pattern.compile("^((http[s]?|ftp):\\/)?\\/?([^:\\/\\s]+)((\\/\\w+)*\\/)([\\w\\-\\.]+[^#?\\s]+)$",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern PROPERTY_PATTERN = Pattern.compile("(^|[\\s]+)([<]{0,2}([a-z\\-]+):([a-z\\-\\s/\\(\\)0-9]+)[>]{0,2})([\"\\:\\w\\s<]+|$)",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern COMMENT_PATTERN = Pattern.compile(".*#(?![\\w]*>.*)", Pattern.CASE_INSENSITIVE);
+
 	public void convert(Path pathToInputFile) throws FileNotFoundException, SAXException, IOException, ParserConfigurationException, JAXBException
 	{
 		convert(pathToInputFile, null);
@@ -81,13 +100,21 @@ public class Turtle2CmapConverter
 		log.info("Converting to cmap: " + pathToInputFile.toString()
 				+ ((additionalFiles != null && additionalFiles.length > 0) ? " using additional files: " + StringUtils.join(additionalFiles, ", ") : ""));
 
-		Model model = ModelFactory.createDefaultModel();
+		Model model = WorkingModelStore.createModel();
 		log.info("Reading model from file: " + pathToInputFile.toString());
 
 		if (pathToInputFile.toFile().getName().toLowerCase().endsWith("adf"))
 		{
 			model = CmapUtil.extractModelFromAdf(pathToInputFile, model);
 		}
+		else if (NTriplesLoader.isNTriplesFile(pathToInputFile))
+		{
+			model = NTriplesLoader.read(pathToInputFile, model);
+			if (RdfCmap.removeBnodes)
+			{
+				model = RdfUtil.convertBlankNodesToNamedResources(model);
+			}
+		}
 		else if (pathToInputFile.toFile().getName().toLowerCase().endsWith("owl") || pathToInputFile.toFile().getName().toLowerCase().endsWith("xml")
 				|| pathToInputFile.toFile().getName().toLowerCase().endsWith("rdfxml"))
 		{
@@ -107,7 +134,7 @@ public class Turtle2CmapConverter
 			model.read(pathToInputFile.toUri().toString(), null, "TTL");
 		}
 
-		log.info(model.listStatements().toList().size() + " triples total.");
+		log.info(model.size() + " triples total.");
 
 		model = CmapUtil.addTriples(additionalFiles, model);
 		if (model.isEmpty())
@@ -117,18 +144,36 @@ public class Turtle2CmapConverter
 		}
 		else if (additionalFiles != null && additionalFiles.length > 0)
 		{
-			log.info(model.listStatements().toList().size() + " triples total.");
+			log.info(model.size() + " triples total.");
+		}
+
+		if (RdfCmap.neighborhoodHops >= 0)
+		{
+			if (RdfCmap.root == null)
+			{
+				log.error("Neighborhood extraction requires a root node specified by --root.");
+				System.exit(1);
+			}
+			else if (model.contains((Resource) null, AFOUtil.RDF_TYPE, VizUtil.AFV_MAP))
+			{
+				log.info("Model already contains a visualization, ignoring neighborhood extraction.");
+			}
+			else
+			{
+				model = RdfUtil.extractNeighborhood(model, model.getResource(RdfCmap.root.getURI()), RdfCmap.neighborhoodHops,
+						WorkingModelStore.createModel());
+			}
 		}
 
 		link2conceptRelations = RdfUtil.determineConceptRelations(model);
 
-		Map<String, Map<String, String>> conceptId2UiProperties = new HashMap<>();
-		Map<String, Map<String, String>> linkId2UiProperties = new HashMap<>();
-		Map<String, Map<String, String>> fullLinkId2UiProperties = new HashMap<>();
+		Map<String, UiProperties> conceptId2UiProperties = new HashMap<>();
+		Map<String, UiProperties> linkId2UiProperties = new HashMap<>();
+		Map<String, UiProperties> fullLinkId2UiProperties = new HashMap<>();
 		Map<String, List<String>> connectionId2LinkAndConcept = new HashMap<>();
-		Map<String, Map<String, String>> connectionId2UiProperties = new HashMap<>();
-		Map<String, Map<String, String>> controlPointId2UiProperties = new HashMap<>();
-		Map<String, Map<String, String>> imageId2UiProperties = new HashMap<>();
+		Map<String, UiProperties> connectionId2UiProperties = new HashMap<>();
+		Map<String, UiProperties> controlPointId2UiProperties = new HashMap<>();
+		Map<String, UiProperties> imageId2UiProperties = new HashMap<>();
 		Map<String, Set<LinkedConcept>> linkId2LinkedConcepts = new HashMap<>();
 
 		HashSet<Resource> visited = new HashSet<Resource>();
@@ -187,13 +232,14 @@ public class Turtle2CmapConverter
 					}
 				}
 
-				Map<String, String> conceptProperties = CmapUtil.createOrRetrieveMapOfUiProperties(conceptId2UiProperties, subjectKey);
+				UiProperties conceptProperties = CmapUtil.createOrRetrieveUiProperties(conceptId2UiProperties, subjectKey);
 				conceptProperties = createTitle(model, statement.getSubject(), conceptProperties);
 				conceptProperties = createShortComment(model, statement.getSubject(), conceptProperties);
 
 				conceptId2UiProperties.put(subjectKey, conceptProperties);
 
 				Model singleConceptModel = ModelFactory.createDefaultModel();
+				StatementDelta delta = new StatementDelta();
 				StmtIterator instanceStmtIterator = model.listStatements(statement.getSubject(), (Property) null, (RDFNode) null);
 				while (instanceStmtIterator.hasNext())
 				{
@@ -208,19 +254,19 @@ public class Turtle2CmapConverter
 						linkedConcepts.add(linkedConcept);
 						linkId2LinkedConcepts.put(linkKey, linkedConcepts);
 
-						Map<String, String> linkProperties = CmapUtil.createOrRetrieveMapOfUiProperties(linkId2UiProperties, linkKey);
+						UiProperties linkProperties = CmapUtil.createOrRetrieveUiProperties(linkId2UiProperties, linkKey);
 						linkProperties = createLinkTitle(model, instanceStatement.getPredicate().asResource(), linkProperties);
 						linkProperties = createLinkShortComment(model, instanceStatement.getPredicate().asResource(), linkProperties);
 
 						linkId2UiProperties.put(linkKey, linkProperties);
 
-						Map<String, String> targetConceptProperties = CmapUtil.createOrRetrieveMapOfUiProperties(conceptId2UiProperties, targetSubjectKey);
+						UiProperties targetConceptProperties = CmapUtil.createOrRetrieveUiProperties(conceptId2UiProperties, targetSubjectKey);
 						targetConceptProperties = createTitle(model, instanceStatement.getObject().asResource(), targetConceptProperties);
 						targetConceptProperties = createShortComment(model, instanceStatement.getObject().asResource(), targetConceptProperties);
 
 						conceptId2UiProperties.put(targetSubjectKey, targetConceptProperties);
 
-						singleConceptModel.add(instanceStatement);
+						delta.add(instanceStatement);
 					}
 					else if (instanceStatement.getObject().isAnon()
 							&& allNodeIdsOfInstanceGraph.contains(instanceStatement.getResource().getId().getBlankNodeId().getLabelString()))
@@ -234,23 +280,23 @@ public class Turtle2CmapConverter
 						linkedConcepts.add(linkedConcept);
 						linkId2LinkedConcepts.put(linkKey, linkedConcepts);
 
-						Map<String, String> linkProperties = CmapUtil.createOrRetrieveMapOfUiProperties(linkId2UiProperties, linkKey);
+						UiProperties linkProperties = CmapUtil.createOrRetrieveUiProperties(linkId2UiProperties, linkKey);
 						linkProperties = createLinkTitle(model, instanceStatement.getPredicate().asResource(), linkProperties);
 						linkProperties = createLinkShortComment(model, instanceStatement.getPredicate().asResource(), linkProperties);
 
 						linkId2UiProperties.put(linkKey, linkProperties);
 
-						Map<String, String> targetConceptProperties = CmapUtil.createOrRetrieveMapOfUiProperties(conceptId2UiProperties, targetSubjectKey);
+						UiProperties targetConceptProperties = CmapUtil.createOrRetrieveUiProperties(conceptId2UiProperties, targetSubjectKey);
 						targetConceptProperties = createTitle(model, instanceStatement.getObject().asResource(), targetConceptProperties);
 						targetConceptProperties = createShortComment(model, instanceStatement.getObject().asResource(), targetConceptProperties);
 
 						conceptId2UiProperties.put(targetSubjectKey, targetConceptProperties);
 
-						singleConceptModel.add(instanceStatement);
+						delta.add(instanceStatement);
 					}
 					else if (instanceStatement.getObject().isURIResource() || instanceStatement.getObject().isLiteral())
 					{
-						singleConceptModel.add(instanceStatement);
+						delta.add(instanceStatement);
 					}
 					else if (instanceStatement.getObject().isAnon())
 					{
@@ -262,6 +308,7 @@ public class Turtle2CmapConverter
 						System.out.println("Warning! Unhandled state.");
 					}
 				}
+				delta.apply(singleConceptModel);
 
 				if (!singleConceptModel.isEmpty())
 				{
@@ -277,8 +324,8 @@ public class Turtle2CmapConverter
 					};
 
 					singleConceptModel.write(output, "TTL");
-					conceptProperties = CmapUtil.createOrRetrieveMapOfUiProperties(conceptId2UiProperties, subjectKey);
-					conceptProperties.put(ConceptProperty.LONG_COMMENT.name(),
+					conceptProperties = CmapUtil.createOrRetrieveUiProperties(conceptId2UiProperties, subjectKey);
+					conceptProperties.put(ConceptProperty.LONG_COMMENT,
 							NumericEntityEscaper.below(0x20).translate(StringEscapeUtils.escapeXml11(createHumanReadableRdf(model, output.toString()))));
 
 					conceptId2UiProperties.put(subjectKey, conceptProperties);
@@ -297,17 +344,17 @@ public class Turtle2CmapConverter
 					connectionId2LinkAndConcept.put(connectionFromId, Arrays.asList(from, linkKey));
 					connectionId2LinkAndConcept.put(connectionToId, Arrays.asList(linkKey, to));
 
-					Map<String, String> connectionFromProperties = CmapUtil.createOrRetrieveMapOfUiProperties(connectionId2UiProperties, connectionFromId);
-					connectionFromProperties.put(ConceptProperty.CONNECTS_FROM.name(), from);
-					connectionFromProperties.put(ConceptProperty.CONNECTS_TO.name(), linkKey);
+					UiProperties connectionFromProperties = CmapUtil.createOrRetrieveUiProperties(connectionId2UiProperties, connectionFromId);
+					connectionFromProperties.put(ConceptProperty.CONNECTS_FROM, from);
+					connectionFromProperties.put(ConceptProperty.CONNECTS_TO, linkKey);
 					connectionId2UiProperties.put(connectionFromId, connectionFromProperties);
 
-					Map<String, String> connectionToProperties = CmapUtil.createOrRetrieveMapOfUiProperties(connectionId2UiProperties, connectionToId);
-					connectionToProperties.put(ConceptProperty.CONNECTS_FROM.name(), linkKey);
-					connectionToProperties.put(ConceptProperty.CONNECTS_TO.name(), to);
+					UiProperties connectionToProperties = CmapUtil.createOrRetrieveUiProperties(connectionId2UiProperties, connectionToId);
+					connectionToProperties.put(ConceptProperty.CONNECTS_FROM, linkKey);
+					connectionToProperties.put(ConceptProperty.CONNECTS_TO, to);
 					connectionId2UiProperties.put(connectionToId, connectionToProperties);
 
-					Map<String, String> linkProperties = linkId2UiProperties.get(link.getKey());
+					UiProperties linkProperties = linkId2UiProperties.get(link.getKey());
 					fullLinkId2UiProperties.put(linkKey, linkProperties);
 				}
 			}
@@ -345,7 +392,7 @@ public class Turtle2CmapConverter
 				}
 				else if (VizUtil.AFV_CONCEPT.getURI().equals(uiSubject.getProperty(AFOUtil.RDF_TYPE).getResource().getURI()))
 				{
-					Map<String, String> conceptProperties = CmapUtil.createOrRetrieveMapOfUiProperties(conceptId2UiProperties, subject.getURI());
+					UiProperties conceptProperties = CmapUtil.createOrRetrieveUiProperties(conceptId2UiProperties, subject.getURI());
 					conceptProperties = createTitle(model, subject, conceptProperties);
 					conceptProperties = createShortComment(model, subject, conceptProperties);
 					conceptProperties = createLongComment(model, subject, conceptProperties);
@@ -360,7 +407,7 @@ public class Turtle2CmapConverter
 				}
 				else if (VizUtil.AFV_LINK.getURI().equals(uiSubject.getProperty(AFOUtil.RDF_TYPE).getResource().getURI()))
 				{
-					Map<String, String> linkProperties = CmapUtil.createOrRetrieveMapOfUiProperties(fullLinkId2UiProperties, subject.getURI());
+					UiProperties linkProperties = CmapUtil.createOrRetrieveUiProperties(fullLinkId2UiProperties, subject.getURI());
 					linkProperties = createLinkTitle(model, subject, linkProperties);
 					linkProperties = createLinkCardinality(model, uiSubject, linkProperties);
 					linkProperties = createLinkShortComment(model, subject, linkProperties);
@@ -381,9 +428,9 @@ public class Turtle2CmapConverter
 					connectsToId = connectsToId.replace(CmapUtil.URN_UUID, VizUtil.AFV_PREFIX);
 					connectionId2LinkAndConcept.put(connectionId, Arrays.asList(connectsFromId, connectsToId));
 
-					Map<String, String> connectionProperties = CmapUtil.createOrRetrieveMapOfUiProperties(connectionId2UiProperties, connectionId);
-					connectionProperties.put(ConceptProperty.CONNECTS_FROM.name(), connectsFromId);
-					connectionProperties.put(ConceptProperty.CONNECTS_TO.name(), connectsToId);
+					UiProperties connectionProperties = CmapUtil.createOrRetrieveUiProperties(connectionId2UiProperties, connectionId);
+					connectionProperties.put(ConceptProperty.CONNECTS_FROM, connectsFromId);
+					connectionProperties.put(ConceptProperty.CONNECTS_TO, connectsToId);
 					connectionProperties = createConnectionAppearanceInfo(model, uiSubject, connectionProperties);
 
 					connectionId2UiProperties.put(connectionId, connectionProperties);
@@ -403,11 +450,11 @@ public class Turtle2CmapConverter
 						String y = controlPoint.getProperty(VizUtil.AFV_Y_POSITION).getString();
 						String index = controlPoint.getProperty(AFOUtil.AFX_INDEX).getString();
 						String parentConnectionId = uiSubject.getURI();
-						Map<String, String> controlPointProperties = CmapUtil.createOrRetrieveMapOfUiProperties(controlPointId2UiProperties, controlPointId);
-						controlPointProperties.put(ConceptProperty.X.name(), x);
-						controlPointProperties.put(ConceptProperty.Y.name(), y);
-						controlPointProperties.put(ConceptProperty.CONNECTION_ID.name(), parentConnectionId);
-						controlPointProperties.put(ConceptProperty.INDEX.name(), index);
+						UiProperties controlPointProperties = CmapUtil.createOrRetrieveUiProperties(controlPointId2UiProperties, controlPointId);
+						controlPointProperties.put(ConceptProperty.X, x);
+						controlPointProperties.put(ConceptProperty.Y, y);
+						controlPointProperties.put(ConceptProperty.CONNECTION_ID, parentConnectionId);
+						controlPointProperties.put(ConceptProperty.INDEX, index);
 						controlPointId2UiProperties.put(controlPointId, controlPointProperties);
 					}
 				}
@@ -425,14 +472,15 @@ public class Turtle2CmapConverter
 			model = addSelectedNodesForVisualization(model);
 		}
 
+		Scene scene = Scene.read(model);
 		if (RdfCmap.optimizeLayout)
 		{
-			model = Layouter.optimizeLayout(model);
+			Layouter.optimizeLayout(model, scene);
 		}
 
-		CxlWriter.generateCxlFromRdfModel(pathToInputFile, model);
+		CxlWriter.generateCxlFromScene(pathToInputFile, model, scene);
 
-		log.info(model.listStatements().toList().size() + " triples total after processing.");
+		log.info(model.size() + " triples total after processing.");
 	}
 
 	private Model addLiteralNodesForVisualization(Model model)
@@ -498,29 +546,29 @@ public class Turtle2CmapConverter
 					uiResource = model.createResource(nodeId.replaceAll(CmapUtil.URN_UUID, VizUtil.AFV_PREFIX));
 				}
 
-				Long x = uiResource.getProperty(VizUtil.AFV_X_POSITION).getLong();
-				Long y = uiResource.getProperty(VizUtil.AFV_Y_POSITION).getLong();
+				long x = uiResource.getProperty(VizUtil.AFV_X_POSITION).getLong();
+				long y = uiResource.getProperty(VizUtil.AFV_Y_POSITION).getLong();
 				x = x + 200;
 				y = y + 200;
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, x.toString());
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, y.toString());
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, String.valueOf(x));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, String.valueOf(y));
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_WIDTH, "100");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_HEIGHT, "25");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_STYLE,
-						"plain");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_SIZE, "12");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_SHAPE,
-						"rectangle");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_STYLE,
-						"solid");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_COLOR,
-						"240,240,240,0");
+				Map<Property, String> uiConceptFont = new HashMap<Property, String>();
+				uiConceptFont.put(VizUtil.AFV_STYLE, "plain");
+				uiConceptFont.put(VizUtil.AFV_SIZE, "12");
+				model = CmapUtil.createOrUpdateStyle(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, uiConceptFont);
+				Map<Property, String> uiConceptBorder = new HashMap<Property, String>();
+				uiConceptBorder.put(VizUtil.AFV_SHAPE, "rectangle");
+				uiConceptBorder.put(VizUtil.AFV_STYLE, "solid");
+				uiConceptBorder.put(VizUtil.AFV_COLOR, "240,240,240,0");
+				model = CmapUtil.createOrUpdateStyle(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, uiConceptBorder);
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_BACKGROUND_COLOR, "240,240,240,0");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_SHADOW_COLOR, "none");
 
 				// add link to literal node
-				Map<String, String> properties = createTitle(model, predicate, new HashMap<String, String>());
-				String propertyTitle = properties.get(ConceptProperty.TITLE.name());
+				UiProperties properties = createTitle(model, predicate, new UiProperties());
+				String propertyTitle = properties.get(ConceptProperty.TITLE);
 				propertyTitle = addPrefix(propertyTitle, predicate);
 				String linkId = UUID.randomUUID().toString();
 				Resource link = model.createResource(CmapUtil.URN_UUID + linkId);
@@ -539,18 +587,20 @@ public class Turtle2CmapConverter
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HAS_PARENT_ID, nodeId);
 				x = x - 100;
 				y = y - 100;
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_X_POSITION, x.toString());
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_Y_POSITION, y.toString());
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_X_POSITION, String.valueOf(x));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_Y_POSITION, String.valueOf(y));
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_WIDTH, "100");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HEIGHT, "15");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_WIDTH, "2");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_HEIGHT, "11");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_BACKGROUND_COLOR, "240,240,240,0");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_COLOR,
-						"240,240,240,0");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_SIZE, "9");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_COLOR,
-						"0,0,0,255");
+				Map<Property, String> uiLinkBorder = new HashMap<Property, String>();
+				uiLinkBorder.put(VizUtil.AFV_COLOR, "240,240,240,0");
+				model = CmapUtil.createOrUpdateStyle(model, uiLink, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, uiLinkBorder);
+				Map<Property, String> uiLinkFont = new HashMap<Property, String>();
+				uiLinkFont.put(VizUtil.AFV_SIZE, "9");
+				uiLinkFont.put(VizUtil.AFV_COLOR, "0,0,0,255");
+				model = CmapUtil.createOrUpdateStyle(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, uiLinkFont);
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_SHADOW_COLOR, "none");
 
 				// add connection from resource to link
@@ -631,8 +681,8 @@ public class Turtle2CmapConverter
 				Resource object = statement.getResource();
 
 				// add selected node
-				Map<String, String> properties = createTitle(model, object, new HashMap<String, String>());
-				String title = properties.get(ConceptProperty.TITLE.name());
+				UiProperties properties = createTitle(model, object, new UiProperties());
+				String title = properties.get(ConceptProperty.TITLE);
 				title = addPrefix(title, predicate);
 				String id = UUID.randomUUID().toString();
 				Resource concept = model.createResource(CmapUtil.URN_UUID + id);
@@ -662,27 +712,28 @@ public class Turtle2CmapConverter
 					uiResource = model.createResource(nodeId.replaceAll(CmapUtil.URN_UUID, VizUtil.AFV_PREFIX));
 				}
 
-				Long x = uiResource.getProperty(VizUtil.AFV_X_POSITION).getLong();
-				Long y = uiResource.getProperty(VizUtil.AFV_Y_POSITION).getLong();
+				long x = uiResource.getProperty(VizUtil.AFV_X_POSITION).getLong();
+				long y = uiResource.getProperty(VizUtil.AFV_Y_POSITION).getLong();
 				x = x + 200;
 				y = y - 200;
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, x.toString());
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, y.toString());
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, String.valueOf(x));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, String.valueOf(y));
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_WIDTH, "100");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_HEIGHT, "25");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_STYLE,
-						"plain");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_SIZE, "12");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_SHAPE,
-						"rounded-rectangle");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_STYLE,
-						"solid");
+				Map<Property, String> uiConceptFont = new HashMap<Property, String>();
+				uiConceptFont.put(VizUtil.AFV_STYLE, "plain");
+				uiConceptFont.put(VizUtil.AFV_SIZE, "12");
+				model = CmapUtil.createOrUpdateStyle(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, uiConceptFont);
+				Map<Property, String> uiConceptBorder = new HashMap<Property, String>();
+				uiConceptBorder.put(VizUtil.AFV_SHAPE, "rounded-rectangle");
+				uiConceptBorder.put(VizUtil.AFV_STYLE, "solid");
+				model = CmapUtil.createOrUpdateStyle(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, uiConceptBorder);
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_BACKGROUND_COLOR, "240,240,240,0");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_SHADOW_COLOR, "none");
 
 				// add link to literal node
-				properties = createTitle(model, predicate, new HashMap<String, String>());
-				String propertyTitle = properties.get(ConceptProperty.TITLE.name());
+				properties = createTitle(model, predicate, new UiProperties());
+				String propertyTitle = properties.get(ConceptProperty.TITLE);
 				propertyTitle = addPrefix(propertyTitle, predicate);
 				String linkId = UUID.randomUUID().toString();
 				Resource link = model.createResource(CmapUtil.URN_UUID + linkId);
@@ -701,18 +752,20 @@ public class Turtle2CmapConverter
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HAS_PARENT_ID, nodeId);
 				x = x - 100;
 				y = y + 100;
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_X_POSITION, x.toString());
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_Y_POSITION, y.toString());
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_X_POSITION, String.valueOf(x));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_Y_POSITION, String.valueOf(y));
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_WIDTH, "100");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HEIGHT, "15");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_WIDTH, "2");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_HEIGHT, "11");
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_BACKGROUND_COLOR, "240,240,240,0");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_COLOR,
-						"240,240,240,0");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_SIZE, "9");
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_COLOR,
-						"0,0,0,255");
+				Map<Property, String> uiLinkBorder = new HashMap<Property, String>();
+				uiLinkBorder.put(VizUtil.AFV_COLOR, "240,240,240,0");
+				model = CmapUtil.createOrUpdateStyle(model, uiLink, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, uiLinkBorder);
+				Map<Property, String> uiLinkFont = new HashMap<Property, String>();
+				uiLinkFont.put(VizUtil.AFV_SIZE, "9");
+				uiLinkFont.put(VizUtil.AFV_COLOR, "0,0,0,255");
+				model = CmapUtil.createOrUpdateStyle(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, uiLinkFont);
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_SHADOW_COLOR, "none");
 
 				// add connection from resource to link
@@ -810,8 +863,8 @@ public class Turtle2CmapConverter
 					nodeIds.add(subject.getId().getBlankNodeId().getLabelString());
 				}
 
-				Map<String, String> properties = createTitle(model, subject, new HashMap<String, String>());
-				log.info("Found node: " + subject.toString() + " of type \"" + properties.get(ConceptProperty.TITLE.name()) + "\"");
+				UiProperties properties = createTitle(model, subject, new UiProperties());
+				log.info("Found node: " + subject.toString() + " of type \"" + properties.get(ConceptProperty.TITLE) + "\"");
 			}
 
 			if (subject.isURIResource())
@@ -856,8 +909,8 @@ public class Turtle2CmapConverter
 					nodeIds.add(object.getId().getBlankNodeId().getLabelString());
 				}
 
-				Map<String, String> properties = createTitle(model, object, new HashMap<String, String>());
-				log.info("Found node: " + object.toString() + " of type \"" + properties.get(ConceptProperty.TITLE.name()) + "\"");
+				UiProperties properties = createTitle(model, object, new UiProperties());
+				log.info("Found node: " + object.toString() + " of type \"" + properties.get(ConceptProperty.TITLE) + "\"");
 			}
 
 			if (object.isURIResource())
@@ -940,44 +993,13 @@ public class Turtle2CmapConverter
 			return false;
 		}
 
-		if (resource.hasProperty(AFOUtil.RDF_TYPE))
+		if (RdfUtil.isVocabularyType(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
 		{
-			if (AFOUtil.OWL_RESTRICTION.equals(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
-			{
-				return false;
-			}
-			if (AFOUtil.OWL_CLASS.equals(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
-			{
-				return false;
-			}
-			if (AFOUtil.OWL_OBJECT_PROPERTY.equals(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
-			{
-				return false;
-			}
-			if (AFOUtil.OWL_DATATYPE_PROPERTY.equals(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
-			{
-				return false;
-			}
-			if (AFOUtil.OWL_ANNOTATION_PROPERTY.equals(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
-			{
-				return false;
-			}
-			if (AFOUtil.OWL_AXIOM.equals(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
-			{
-				return false;
-			}
-			if (AFOUtil.RDFS_DATATYPE.equals(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
-			{
-				return false;
-			}
-			if (AFOUtil.OWL_ALL_DIFFERENT.equals(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE)))
-			{
-				return false;
-			}
+			return false;
 		}
 
-		Map<String, String> properties = createTitle(model, resource, new HashMap<String, String>());
-		String title = properties.get(ConceptProperty.TITLE.name());
+		UiProperties properties = createTitle(model, resource, new UiProperties());
+		String title = properties.get(ConceptProperty.TITLE);
 		log.debug("Checking: " + resource.toString() + " " + title);
 
 		Set<String> visited = new HashSet<String>();
@@ -1157,20 +1179,20 @@ public class Turtle2CmapConverter
 		return false;
 	}
 
-	private Map<String, String> createLinkCardinality(Model model, Resource subject, Map<String, String> linkProperties)
+	private UiProperties createLinkCardinality(Model model, Resource subject, UiProperties linkProperties)
 	{
 		if (subject.hasProperty(VizUtil.AFV_HAS_CARDINALITY))
 		{
-			linkProperties.put(ConceptProperty.CARDINALITY.name(), CmapUtil.addCardinality(model, subject, "").trim());
+			linkProperties.put(ConceptProperty.CARDINALITY, CmapUtil.addCardinality(model, subject, "").trim());
 		}
 		else
 		{
-			linkProperties.put(ConceptProperty.CARDINALITY.name(), "");
+			linkProperties.put(ConceptProperty.CARDINALITY, "");
 		}
 		return linkProperties;
 	}
 
-	private Map<String, Map<String, String>> handleImage(Model model, Map<String, Map<String, String>> imageId2UiProperties, Resource uiSubject)
+	private Map<String, UiProperties> handleImage(Model model, Map<String, UiProperties> imageId2UiProperties, Resource uiSubject)
 	{
 		if (uiSubject.hasProperty(VizUtil.AFV_HAS_IMAGE))
 		{
@@ -1179,7 +1201,7 @@ public class Turtle2CmapConverter
 			{
 				Statement statement = stmtIterator.next();
 				Resource imageResource = statement.getResource();
-				Map<String, String> imageProperties = CmapUtil.createOrRetrieveMapOfUiProperties(imageId2UiProperties, imageResource.getURI());
+				UiProperties imageProperties = CmapUtil.createOrRetrieveUiProperties(imageId2UiProperties, imageResource.getURI());
 				imageProperties = createImageInfo(model, imageResource, imageProperties);
 				imageId2UiProperties.put(imageResource.getURI(), imageProperties);
 
@@ -1194,36 +1216,36 @@ public class Turtle2CmapConverter
 		return imageId2UiProperties;
 	}
 
-	private Map<String, String> createConnectionAppearanceInfo(Model model, Resource uiSubject, Map<String, String> connectionProperties)
+	private UiProperties createConnectionAppearanceInfo(Model model, Resource uiSubject, UiProperties connectionProperties)
 	{
 		String fromPos = uiSubject.getProperty(VizUtil.AFV_ANCHOR_FROM).getString();
 		if (fromPos != null && !fromPos.isEmpty())
 		{
-			connectionProperties.put(ConceptProperty.ANCHOR_FROM.name(), fromPos);
+			connectionProperties.put(ConceptProperty.ANCHOR_FROM, fromPos);
 		}
 
 		String toPos = uiSubject.getProperty(VizUtil.AFV_ANCHOR_TO).getString();
 		if (toPos != null && !toPos.isEmpty())
 		{
-			connectionProperties.put(ConceptProperty.ANCHOR_TO.name(), toPos);
+			connectionProperties.put(ConceptProperty.ANCHOR_TO, toPos);
 		}
 
 		String arrowHead = uiSubject.getProperty(VizUtil.AFV_ARROW_HEAD).getString();
 		if (arrowHead != null && !arrowHead.isEmpty())
 		{
-			connectionProperties.put(ConceptProperty.ARROW_HEAD.name(), arrowHead);
+			connectionProperties.put(ConceptProperty.ARROW_HEAD, arrowHead);
 		}
 
 		String type = uiSubject.getProperty(VizUtil.AFV_LINE_TYPE).getString();
 		if (type != null && !type.isEmpty())
 		{
-			connectionProperties.put(ConceptProperty.LINE_TYPE.name(), type);
+			connectionProperties.put(ConceptProperty.LINE_TYPE, type);
 		}
 
 		return connectionProperties;
 	}
 
-	private Map<String, String> createLinkAppearanceInfo(Model model, Resource uiSubject, Map<String, String> linkProperties)
+	private UiProperties createLinkAppearanceInfo(Model model, Resource uiSubject, UiProperties linkProperties)
 	{
 		String x = uiSubject.getProperty(VizUtil.AFV_X_POSITION).getString();
 		String y = uiSubject.getProperty(VizUtil.AFV_Y_POSITION).getString();
@@ -1239,57 +1261,57 @@ public class Turtle2CmapConverter
 
 		if (x != null && !x.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.X.name(), x);
+			linkProperties.put(ConceptProperty.X, x);
 		}
 
 		if (y != null && !y.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.Y.name(), y);
+			linkProperties.put(ConceptProperty.Y, y);
 		}
 
 		if (width != null && !width.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.WIDTH.name(), width);
+			linkProperties.put(ConceptProperty.WIDTH, width);
 		}
 
 		if (height != null && !height.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.HEIGHT.name(), height);
+			linkProperties.put(ConceptProperty.HEIGHT, height);
 		}
 
 		if (minWidth != null && !minWidth.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.MIN_WIDTH.name(), minWidth);
+			linkProperties.put(ConceptProperty.MIN_WIDTH, minWidth);
 		}
 
 		if (minHeight != null && !minHeight.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.MIN_HEIGHT.name(), minHeight);
+			linkProperties.put(ConceptProperty.MIN_HEIGHT, minHeight);
 		}
 
 		if (fontSize != null && !fontSize.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.FONT_SIZE.name(), fontSize);
+			linkProperties.put(ConceptProperty.FONT_SIZE, fontSize);
 		}
 
 		if (fontColor != null && !fontColor.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.FONT_COLOR.name(), fontColor);
+			linkProperties.put(ConceptProperty.FONT_COLOR, fontColor);
 		}
 
 		if (borderColor != null && !borderColor.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.BORDER_COLOR.name(), borderColor);
+			linkProperties.put(ConceptProperty.BORDER_COLOR, borderColor);
 		}
 
 		if (backgroundColor != null && !backgroundColor.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.BACKGROUND_COLOR.name(), backgroundColor);
+			linkProperties.put(ConceptProperty.BACKGROUND_COLOR, backgroundColor);
 		}
 
 		if (shadowColor != null && !shadowColor.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.SHADOW_COLOR.name(), shadowColor);
+			linkProperties.put(ConceptProperty.SHADOW_COLOR, shadowColor);
 		}
 
 		String backgroundImage = null;
@@ -1299,7 +1321,7 @@ public class Turtle2CmapConverter
 		}
 		if (backgroundImage != null && !backgroundImage.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.BACKGROUND_IMAGE.name(), backgroundImage);
+			linkProperties.put(ConceptProperty.BACKGROUND_IMAGE, backgroundImage);
 		}
 
 		String backgroundImageStyle = null;
@@ -1309,7 +1331,7 @@ public class Turtle2CmapConverter
 		}
 		if (backgroundImageStyle != null && !backgroundImageStyle.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.BACKGROUND_IMAGE_STYLE.name(), backgroundImageStyle);
+			linkProperties.put(ConceptProperty.BACKGROUND_IMAGE_STYLE, backgroundImageStyle);
 		}
 
 		String backgroundImageLayout = null;
@@ -1319,13 +1341,13 @@ public class Turtle2CmapConverter
 		}
 		if (backgroundImageLayout != null && !backgroundImageLayout.isEmpty())
 		{
-			linkProperties.put(ConceptProperty.BACKGROUND_IMAGE_LAYOUT.name(), backgroundImageLayout);
+			linkProperties.put(ConceptProperty.BACKGROUND_IMAGE_LAYOUT, backgroundImageLayout);
 		}
 
 		return linkProperties;
 	}
 
-	private Map<String, String> createAppearanceInfo(Model model, Resource uiSubject, Map<String, String> conceptProperties)
+	private UiProperties createAppearanceInfo(Model model, Resource uiSubject, UiProperties conceptProperties)
 	{
 		String x = uiSubject.getProperty(VizUtil.AFV_X_POSITION).getString();
 		String y = uiSubject.getProperty(VizUtil.AFV_Y_POSITION).getString();
@@ -1342,42 +1364,42 @@ public class Turtle2CmapConverter
 
 		if (x != null && !x.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.X.name(), x);
+			conceptProperties.put(ConceptProperty.X, x);
 		}
 
 		if (y != null && !y.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.Y.name(), y);
+			conceptProperties.put(ConceptProperty.Y, y);
 		}
 
 		if (width != null && !width.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.WIDTH.name(), width);
+			conceptProperties.put(ConceptProperty.WIDTH, width);
 		}
 
 		if (height != null && !height.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.HEIGHT.name(), height);
+			conceptProperties.put(ConceptProperty.HEIGHT, height);
 		}
 
 		if (fontStyle != null && !fontStyle.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.FONT_STYLE.name(), fontStyle);
+			conceptProperties.put(ConceptProperty.FONT_STYLE, fontStyle);
 		}
 
 		if (fontSize != null && !fontSize.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.FONT_SIZE.name(), fontSize);
+			conceptProperties.put(ConceptProperty.FONT_SIZE, fontSize);
 		}
 
 		if (backgroundColor != null && !backgroundColor.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.BACKGROUND_COLOR.name(), backgroundColor);
+			conceptProperties.put(ConceptProperty.BACKGROUND_COLOR, backgroundColor);
 		}
 
 		if (expanded != null && !expanded.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.EXPANDED.name(), expanded);
+			conceptProperties.put(ConceptProperty.EXPANDED, expanded);
 		}
 
 		String backgroundImage = null;
@@ -1387,7 +1409,7 @@ public class Turtle2CmapConverter
 		}
 		if (backgroundImage != null && !backgroundImage.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE.name(), backgroundImage);
+			conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE, backgroundImage);
 		}
 
 		String backgroundImageStyle = null;
@@ -1397,7 +1419,7 @@ public class Turtle2CmapConverter
 		}
 		if (backgroundImageStyle != null && !backgroundImageStyle.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE_STYLE.name(), backgroundImageStyle);
+			conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE_STYLE, backgroundImageStyle);
 		}
 
 		String backgroundImageLayout = null;
@@ -1407,13 +1429,13 @@ public class Turtle2CmapConverter
 		}
 		if (backgroundImageLayout != null && !backgroundImageLayout.isEmpty())
 		{
-			conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE_LAYOUT.name(), backgroundImageLayout);
+			conceptProperties.put(ConceptProperty.BACKGROUND_IMAGE_LAYOUT, backgroundImageLayout);
 		}
 
 		return conceptProperties;
 	}
 
-	private Map<String, String> createLinkShortComment(Model model, Resource resource, Map<String, String> linkProperties)
+	private UiProperties createLinkShortComment(Model model, Resource resource, UiProperties linkProperties)
 	{
 		StringBuilder linkPopup = new StringBuilder();
 		resource = Cmap2TurtleConverter.tryToExtractLinkFromAfxAndObo(model, resource);
@@ -1432,54 +1454,54 @@ public class Turtle2CmapConverter
 
 		if (linkPopup.length() > 0)
 		{
-			linkProperties.put(ConceptProperty.SHORT_COMMENT.name(),
+			linkProperties.put(ConceptProperty.SHORT_COMMENT,
 					NumericEntityEscaper.below(0x20).translate(StringEscapeUtils.escapeXml11(linkPopup.toString())));
 		}
 
 		return linkProperties;
 	}
 
-	private Map<String, String> createLinkTitle(Model model, Resource resource, Map<String, String> linkProperties)
+	private UiProperties createLinkTitle(Model model, Resource resource, UiProperties linkProperties)
 	{
 		if (resource.hasProperty(AFOUtil.SKOS_PREF_LABEL))
 		{
 			String title = model.listStatements(resource, AFOUtil.SKOS_PREF_LABEL, (RDFNode) null).next().getLiteral().toString();
 			title = addPrefix(title, resource);
-			linkProperties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+			linkProperties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 		}
 		else if (resource.hasProperty(AFOUtil.DCT_TITLE))
 		{
 			String title = model.listStatements(resource, AFOUtil.DCT_TITLE, (RDFNode) null).next().getLiteral().toString();
 			title = addPrefix(title, resource);
-			linkProperties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+			linkProperties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 		}
 		else if (resource.hasProperty(AFOUtil.RDFS_LABEL))
 		{
 			String title = model.listStatements(resource, AFOUtil.RDFS_LABEL, (RDFNode) null).next().getLiteral().toString();
 			title = addPrefix(title, resource);
-			linkProperties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+			linkProperties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 		}
 		else
 		{
 			String prefix = Prefixes.getNamespaceMap().get(resource.getNameSpace());
 			if (prefix != null && !prefix.isEmpty())
 			{
-				linkProperties.put(ConceptProperty.TITLE.name(), breakString(prefix + ":" + resource.getLocalName(), MAX_CHARS));
+				linkProperties.put(ConceptProperty.TITLE, breakString(prefix + ":" + resource.getLocalName(), MAX_CHARS));
 			}
 			else
 			{
-				linkProperties.put(ConceptProperty.TITLE.name(), breakString(resource.getURI(), MAX_CHARS));
+				linkProperties.put(ConceptProperty.TITLE, breakString(resource.getURI(), MAX_CHARS));
 			}
 		}
 		return linkProperties;
 	}
 
-	private Map<String, String> createImageInfo(Model model, Resource resource, Map<String, String> imageProperties)
+	private UiProperties createImageInfo(Model model, Resource resource, UiProperties imageProperties)
 	{
 		if (resource.hasProperty(VizUtil.AFV_IDENTIFIER))
 		{
 			String id = model.listStatements(resource, VizUtil.AFV_IDENTIFIER, (RDFNode) null).next().getLiteral().toString();
-			imageProperties.put(ConceptProperty.BACKGROUND_IMAGE.name(), id);
+			imageProperties.put(ConceptProperty.BACKGROUND_IMAGE, id);
 		}
 		else
 		{
@@ -1489,13 +1511,13 @@ public class Turtle2CmapConverter
 		if (resource.hasProperty(VizUtil.AFV_BYTES))
 		{
 			String bytes = model.listStatements(resource, VizUtil.AFV_BYTES, (RDFNode) null).next().getLiteral().toString();
-			imageProperties.put(ConceptProperty.BACKGROUND_IMAGE_BYTES.name(), bytes);
+			imageProperties.put(ConceptProperty.BACKGROUND_IMAGE_BYTES, bytes);
 		}
 
 		return imageProperties;
 	}
 
-	private Map<String, String> createLongComment(Model model, Resource resource, Map<String, String> properties)
+	private UiProperties createLongComment(Model model, Resource resource, UiProperties properties)
 	{
 		ByteArrayOutputStream output = new ByteArrayOutputStream()
 		{
@@ -1522,7 +1544,7 @@ public class Turtle2CmapConverter
 		String singleConceptModelString = output.toString();
 		singleConceptModelString = createHumanReadableRdf(model, singleConceptModelString);
 		singleConceptModelString = addCardinalitiesToLongComment(model, singleConceptModel, resource, singleConceptModelString);
-		properties.put(ConceptProperty.LONG_COMMENT.name(),
+		properties.put(ConceptProperty.LONG_COMMENT,
 				NumericEntityEscaper.below(0x20).translate(StringEscapeUtils.escapeXml11(singleConceptModelString)));
 
 		return properties;
@@ -1606,19 +1628,13 @@ public class Turtle2CmapConverter
 
 		List<String> processedLines = new ArrayList<String>(lines.size());
 
-		String regex = "(^|[\\s]+)([<]{0,2}([a-z\\-]+):([a-z\\-\\s/\\(\\)0-9]+)[>]{0,2})([\"\\:\\w\\s<]+|$)";
-		Pattern p = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-
-		String commentRegex = ".*#(?![\\w]*>.*)";
-		Pattern commentPattern = Pattern.compile(commentRegex, Pattern.CASE_INSENSITIVE);
-
 		for (Iterator<String> iterator = lines.iterator(); iterator.hasNext();)
 		{
 			String line = iterator.next();
 			log.debug("<-- " + line);
 
-			Matcher m = p.matcher(line);
-			Matcher commentMatcher = commentPattern.matcher(line);
+			Matcher m = PROPERTY_PATTERN.matcher(line);
+			Matcher commentMatcher = COMMENT_PATTERN.matcher(line);
 			boolean foundId = false;
 			boolean commentedOut = false;
 			while (m.find())
@@ -1685,129 +1701,72 @@ public class Turtle2CmapConverter
 		return StringUtils.join(processedLines.toArray(), ";\n");
 	}
 
-	private Map<String, String> createNestedParentRelation(Model model, Resource resource, Map<String, String> properties)
+	private UiProperties createNestedParentRelation(Model model, Resource resource, UiProperties properties)
 	{
 		if (!resource.hasProperty(VizUtil.AFV_HAS_PARENT))
 		{
 			return properties;
 		}
 
-		properties.put(ConceptProperty.PARENT.name(), model.listStatements(resource, VizUtil.AFV_HAS_PARENT, (RDFNode) null).next().getResource().getURI());
+		properties.put(ConceptProperty.PARENT, model.listStatements(resource, VizUtil.AFV_HAS_PARENT, (RDFNode) null).next().getResource().getURI());
 
 		return properties;
 	}
 
 	public String createHumanReadableRdf(Model model, String singleConceptModelString)
 	{
-		List<String> lines = Arrays.asList(singleConceptModelString.split("\n"));
-		List<String> processedLines = new ArrayList<String>(lines.size());
-		String regex = "(^|[\\w\\s]+)<(http\\:\\/\\/purl\\.allotrope\\.org\\/ontologies\\/[a-z]*#)([A-Z]{3}_[0-9]{7})>[\\w\\s.]*";
-		String regexUri = "(<((http[s]?|ftp):\\/)?\\/?([^:\\/\\s]+)((\\/\\w+)*\\/)([\\w\\-\\.]+[^#?\\s]+)(.*)>)";
-		Pattern p = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-		Pattern patternUri = Pattern.compile(regexUri, Pattern.CASE_INSENSITIVE);
-		String commentRegex = ".*#(?![\\w]*>.*)";
-		Pattern commentPattern = Pattern.compile(commentRegex, Pattern.CASE_INSENSITIVE);
-		for (Iterator<String> iterator = lines.iterator(); iterator.hasNext();)
+		log.debug("<-- " + singleConceptModelString);
+		StringBuilder sb = new StringBuilder(singleConceptModelString.length());
+		for (LongCommentToken token : LongCommentLexer.tokenize(singleConceptModelString))
 		{
-			String line = iterator.next();
-			log.debug("<-- " + line);
-			Matcher m = p.matcher(line);
-			Matcher commentMatcher = commentPattern.matcher(line);
-			boolean foundId = false;
-			boolean commentedOut = false;
-			while (m.find())
+			if (token.getType() == LongCommentTokenType.IRI)
 			{
-				foundId = true;
-				if (line.contains("#") && line.indexOf("#") < m.start(2))
-				{
-					if (commentMatcher.matches() && commentMatcher.end(1) < m.end(3))
-					{
-						commentedOut = true;
-						processedLines.add(line);
-						continue;
-					}
-				}
-
-				String resourceIri = m.group(2) + m.group(3);
-				Resource resource = model.getResource(resourceIri);
-				if (!resource.hasProperty(AFOUtil.SKOS_PREF_LABEL))
-				{
-					log.error("Error during replacement as human readable identifier: " + m.group(2) + m.group(3));
-				}
-
-				String label = resource.getProperty(AFOUtil.SKOS_PREF_LABEL).getString();
-				String prefix = Prefixes.getNamespaceMap().get(resource.getNameSpace());
-				line = line.replaceAll("<" + m.group(2), "<<" + prefix + ":");
-				line = line.replaceAll(m.group(3) + ">", label + ">>");
+				sb.append(createHumanReadableIri(model, token.getContent()));
 			}
-
-			if (!(foundId && commentedOut))
+			else
 			{
-				processedLines.add(line);
+				sb.append(token.getText());
 			}
-			log.debug("--> " + line);
 		}
 
-		processedLines = replaceNamespacesWithPrefixes(model, processedLines);
-		return StringUtils.join(processedLines.toArray(), "\n");
+		String humanReadableRdf = sb.toString();
+		log.debug("--> " + humanReadableRdf);
+		return humanReadableRdf;
 	}
 
-	private List<String> replaceNamespacesWithPrefixes(Model model, List<String> lines)
+	/**
+	 * Human readable identifier &lt;&lt;prefix:label&gt;&gt; for Allotrope terms, prefixed name for IRIs of known namespaces, the IRI otherwise.
+	 */
+	private String createHumanReadableIri(Model model, String iri)
 	{
-		List<String> processedLines = new ArrayList<String>(lines.size());
-		String regexUri = "(<((http[s]?|ftp):\\/)?\\/?([^:\\/\\s]+)((\\/\\w+)*\\/)([\\w\\-\\.]+[^#?\\s]+)>)";
-		Pattern patternUri = Pattern.compile(regexUri, Pattern.CASE_INSENSITIVE);
-		String commentRegex = ".*#(?![\\w]*>.*)";
-		Pattern commentPattern = Pattern.compile(commentRegex, Pattern.CASE_INSENSITIVE);
-		for (Iterator<String> iterator = lines.iterator(); iterator.hasNext();)
+		if (ALLOTROPE_TERM_PATTERN.matcher(iri).matches())
 		{
-			String line = iterator.next();
-			log.debug("<-- " + line);
-			Matcher m = patternUri.matcher(line);
-			Matcher commentMatcher = commentPattern.matcher(line);
-			boolean foundUri = false;
-			boolean commentedOut = false;
-			while (m.find())
+			Resource resource = model.getResource(iri);
+			if (resource.hasProperty(AFOUtil.SKOS_PREF_LABEL))
 			{
-				foundUri = true;
-				if (line.contains("#") && line.indexOf("#") < m.start(1))
-				{
-					if (commentMatcher.matches() && commentMatcher.end(1) < m.end(2))
-					{
-						commentedOut = true;
-						processedLines.add(line);
-						continue;
-					}
-				}
-				boolean isNamespaceKnown = false;
-				for (String namespace : Prefixes.getNamespaceMap().keySet())
-				{
-					if (m.group(1).contains(namespace))
-					{
-						isNamespaceKnown = true;
-						String replacement = m.group(1).replaceAll("<", "").replaceAll(">", "").replace(namespace,
-								Prefixes.getNamespaceMap().get(namespace) + ":");
-						line = line.replace(m.group(1), replacement);
-						break;
-					}
-				}
-
-				if (!isNamespaceKnown)
-				{
-					log.info("Unknown namespace in URI: " + m.group(1));
-				}
+				String label = resource.getProperty(AFOUtil.SKOS_PREF_LABEL).getString();
+				String prefix = Prefixes.getNamespaceMap().get(resource.getNameSpace());
+				return "<<" + prefix + ":" + label + ">>";
 			}
+			log.error("Error during replacement as human readable identifier: " + iri);
+		}
 
-			if (!(foundUri && commentedOut))
-			{
-				processedLines.add(line);
-			}
-			log.debug("--> " + line);
+		if (!COMPACTABLE_IRI_PATTERN.matcher(iri).matches())
+		{
+			return "<" + iri + ">";
+		}
+
+		String prefixedName = Prefixes.compactIri(iri);
+		if (prefixedName == null)
+		{
+			log.info("Unknown namespace in URI: <" + iri + ">");
+			return "<" + iri + ">";
 		}
-		return processedLines;
+
+		return prefixedName;
 	}
 
-	private Map<String, String> createShortComment(Model model, Resource resource, Map<String, String> properties)
+	private UiProperties createShortComment(Model model, Resource resource, UiProperties properties)
 	{
 		if (resource.isURIResource() && (resource.getURI().startsWith(CmapUtil.URN_UUID + "AF") || resource.getURI().startsWith(CmapUtil.URN_UUID + "BFO")
 				|| resource.getURI().startsWith(CmapUtil.URN_UUID + "IAO")))
@@ -1924,7 +1883,7 @@ public class Turtle2CmapConverter
 				}
 				id = id + resource.getLocalName() + "\n\n";
 				popupText.insert(0, id);
-				properties.put(ConceptProperty.SHORT_COMMENT.name(),
+				properties.put(ConceptProperty.SHORT_COMMENT,
 						NumericEntityEscaper.below(0x20).translate(StringEscapeUtils.escapeXml11(popupText.toString())));
 			}
 		}
@@ -2004,52 +1963,52 @@ public class Turtle2CmapConverter
 
 			if (popupText.length() > 0)
 			{
-				properties.put(ConceptProperty.SHORT_COMMENT.name(),
+				properties.put(ConceptProperty.SHORT_COMMENT,
 						NumericEntityEscaper.below(0x20).translate(StringEscapeUtils.escapeXml11(popupText.toString())));
 			}
 		}
 		else if (resource.hasProperty(AFOUtil.SKOS_DEFINITION))
 		{
-			properties.put(ConceptProperty.SHORT_COMMENT.name(),
+			properties.put(ConceptProperty.SHORT_COMMENT,
 					"definition: \n" + model.listStatements(resource, AFOUtil.SKOS_DEFINITION, (RDFNode) null).next().getLiteral().toString());
 		}
 		else if (resource.hasProperty(AFOUtil.DCT_DESCRIPTION))
 		{
-			properties.put(ConceptProperty.SHORT_COMMENT.name(),
+			properties.put(ConceptProperty.SHORT_COMMENT,
 					"description: \n" + model.listStatements(resource, AFOUtil.DCT_DESCRIPTION, (RDFNode) null).next().getLiteral().toString());
 		}
 		else if (resource.hasProperty(AFOUtil.OBO_DEFINITION))
 		{
-			properties.put(ConceptProperty.SHORT_COMMENT.name(),
+			properties.put(ConceptProperty.SHORT_COMMENT,
 					"obo:definition: \n" + model.listStatements(resource, AFOUtil.OBO_DEFINITION, (RDFNode) null).next().getLiteral().toString());
 		}
 		else if (resource.hasProperty(AFOUtil.OBO_DEFINITION_DISGUISED))
 		{
-			properties.put(ConceptProperty.SHORT_COMMENT.name(),
+			properties.put(ConceptProperty.SHORT_COMMENT,
 					"obo:definition: \n" + model.listStatements(resource, AFOUtil.OBO_DEFINITION_DISGUISED, (RDFNode) null).next().getLiteral().toString());
 		}
 		else if (resource.hasProperty(AFOUtil.OBO_ELUCIDATION))
 		{
-			properties.put(ConceptProperty.SHORT_COMMENT.name(),
+			properties.put(ConceptProperty.SHORT_COMMENT,
 					"obo:elucidation: \n" + model.listStatements(resource, AFOUtil.OBO_ELUCIDATION, (RDFNode) null).next().getLiteral().toString());
 		}
 		else if (resource.hasProperty(AFOUtil.OBO_ELUCIDATION_DISGUISED))
 		{
-			properties.put(ConceptProperty.SHORT_COMMENT.name(),
+			properties.put(ConceptProperty.SHORT_COMMENT,
 					"obo:elucidation: \n" + model.listStatements(resource, AFOUtil.OBO_ELUCIDATION_DISGUISED, (RDFNode) null).next().getLiteral().toString());
 		}
 
 		return properties;
 	}
 
-	public Map<String, String> createTitle(Model model, Resource resource, Map<String, String> properties)
+	public UiProperties createTitle(Model model, Resource resource, UiProperties properties)
 	{
 		if (resource.isAnon())
 		{
 		if (resource.hasProperty(AFOUtil.DCT_TITLE))
 		{
 			String title = model.listStatements(resource, AFOUtil.DCT_TITLE, (RDFNode) null).next().getLiteral().toString();
-				properties.put(ConceptProperty.TITLE.name(), "[" + title + "]");
+				properties.put(ConceptProperty.TITLE, "[" + title + "]");
 			}
 			else if (resource.hasProperty(AFOUtil.RDF_TYPE))
 			{
@@ -2100,33 +2059,33 @@ public class Turtle2CmapConverter
 
 				if (hasTypeLabel)
 				{
-					properties.put(ConceptProperty.TITLE.name(), "[" + StringUtils.join(titles, ", ") + "]");
+					properties.put(ConceptProperty.TITLE, "[" + StringUtils.join(titles, ", ") + "]");
 				}
 				else
 				{
-					properties.put(ConceptProperty.TITLE.name(), resource.getId().getBlankNodeId().getLabelString());
+					properties.put(ConceptProperty.TITLE, resource.getId().getBlankNodeId().getLabelString());
 				}
 			}
 		}
 		else if (resource.hasProperty(AFOUtil.DCT_TITLE))
 		{
 			String title = model.listStatements(resource, AFOUtil.DCT_TITLE, (RDFNode) null).next().getLiteral().toString();
-			properties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+			properties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 		}
 		else if (resource.hasProperty(AFOUtil.SKOS_PREF_LABEL))
 		{
 			String title = model.listStatements(resource, AFOUtil.SKOS_PREF_LABEL, (RDFNode) null).next().getLiteral().toString();
-			properties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+			properties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 		}
 		else if (resource.hasProperty(AFOUtil.DCT_IDENTIFIER))
 		{
 			String title = model.listStatements(resource, AFOUtil.DCT_IDENTIFIER, (RDFNode) null).next().getLiteral().toString();
-			properties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+			properties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 		}
 		else if (resource.hasProperty(AFOUtil.RDFS_LABEL))
 		{
 			String title = model.listStatements(resource, AFOUtil.RDFS_LABEL, (RDFNode) null).next().getLiteral().toString();
-			properties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+			properties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 		}
 		else if (resource.hasProperty(AFOUtil.RDF_TYPE))
 		{
@@ -2220,33 +2179,33 @@ public class Turtle2CmapConverter
 
 			if (hasTypeLabel)
 			{
-				properties.put(ConceptProperty.TITLE.name(), breakString(StringUtils.join(titles, ", "), MAX_CHARS));
+				properties.put(ConceptProperty.TITLE, breakString(StringUtils.join(titles, ", "), MAX_CHARS));
 			}
 			else if (resource.hasProperty(AFOUtil.SKOS_PREF_LABEL))
 			{
 				String title = model.listStatements(resource, AFOUtil.SKOS_PREF_LABEL, (RDFNode) null).next().getLiteral().toString();
 				title = addPrefix(title, resource);
-				properties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+				properties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 			}
 			else
 			{
 				if (resource.getURI().startsWith(CmapUtil.URN_UUID)
 						&& resource.getURI().toLowerCase().matches(CmapUtil.URN_UUID + "[a-z0-9]{8}-[a-z0-9]{4}-[a-z0-9]{4}-[a-z0-9]{4}-[a-z0-9]{12}"))
 				{
-					properties.put(ConceptProperty.TITLE.name(), "instance");
+					properties.put(ConceptProperty.TITLE, "instance");
 				}
 				else if (resource.getURI().startsWith(CmapUtil.URN_UUID)
 						&& resource.getURI().toLowerCase().matches(CmapUtil.URN_UUID + "bnode:[a-z0-9]{8}-[a-z0-9]{4}-[a-z0-9]{4}-[a-z0-9]{4}-[a-z0-9]{12}"))
 				{
-					properties.put(ConceptProperty.TITLE.name(), "[]");
+					properties.put(ConceptProperty.TITLE, "[]");
 				}
 				else if (resource.getURI().startsWith(CmapUtil.URN_UUID))
 				{
-					properties.put(ConceptProperty.TITLE.name(), breakString(resource.getURI().replaceAll(CmapUtil.URN_UUID, "instance of "), MAX_CHARS));
+					properties.put(ConceptProperty.TITLE, breakString(resource.getURI().replaceAll(CmapUtil.URN_UUID, "instance of "), MAX_CHARS));
 				}
 				else
 				{
-					properties.put(ConceptProperty.TITLE.name(), breakString(resource.getURI(), MAX_CHARS));
+					properties.put(ConceptProperty.TITLE, breakString(resource.getURI(), MAX_CHARS));
 				}
 			}
 		}
@@ -2254,27 +2213,27 @@ public class Turtle2CmapConverter
 		{
 			String title = model.listStatements(resource, AFOUtil.SKOS_PREF_LABEL, (RDFNode) null).next().getLiteral().toString();
 			title = addPrefix(title, resource);
-			properties.put(ConceptProperty.TITLE.name(), breakString(title, MAX_CHARS));
+			properties.put(ConceptProperty.TITLE, breakString(title, MAX_CHARS));
 		}
 		else
 		{
 			if (resource.getURI().startsWith(CmapUtil.URN_UUID)
 					&& resource.getURI().toLowerCase().matches(CmapUtil.URN_UUID + "[a-z0-9]{8}-[a-z0-9]{4}-[a-z0-9]{4}-[a-z0-9]{4}-[a-z0-9]{12}"))
 			{
-				properties.put(ConceptProperty.TITLE.name(), "instance");
+				properties.put(ConceptProperty.TITLE, "instance");
 			}
 			else if (resource.getURI().startsWith(CmapUtil.URN_UUID)
 					&& resource.getURI().toLowerCase().matches(CmapUtil.URN_UUID + "bnode:[a-z0-9]{8}-[a-z0-9]{4}-[a-z0-9]{4}-[a-z0-9]{4}-[a-z0-9]{12}"))
 			{
-				properties.put(ConceptProperty.TITLE.name(), "[]");
+				properties.put(ConceptProperty.TITLE, "[]");
 			}
 			else if (resource.getURI().startsWith(CmapUtil.URN_UUID))
 			{
-				properties.put(ConceptProperty.TITLE.name(), breakString(resource.getURI().replaceAll(CmapUtil.URN_UUID, "instance of "), MAX_CHARS));
+				properties.put(ConceptProperty.TITLE, breakString(resource.getURI().replaceAll(CmapUtil.URN_UUID, "instance of "), MAX_CHARS));
 			}
 			else
 			{
-				properties.put(ConceptProperty.TITLE.name(), breakString(resource.getURI(), MAX_CHARS));
+				properties.put(ConceptProperty.TITLE, breakString(resource.getURI(), MAX_CHARS));
 			}
 		}
 
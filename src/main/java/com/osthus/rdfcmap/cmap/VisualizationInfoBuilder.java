@@ -2,8 +2,10 @@ package com.osthus.rdfcmap.cmap;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -23,10 +25,14 @@ import org.apache.logging.log4j.Logger;
 import com.osthus.rdfcmap.RdfCmap;
 import com.osthus.rdfcmap.cmap.cardinality.Cardinality;
 import com.osthus.rdfcmap.enums.ConceptProperty;
+import com.osthus.rdfcmap.helper.StatementDelta;
+import com.osthus.rdfcmap.helper.UiProperties;
 import com.osthus.rdfcmap.helper.VisualizationInfoBuilderResult;
 import com.osthus.rdfcmap.util.AFOUtil;
+import com.osthus.rdfcmap.util.ClassHierarchyLevels;
 import com.osthus.rdfcmap.util.CmapUtil;
 import com.osthus.rdfcmap.util.RdfUtil;
+import com.osthus.rdfcmap.util.VizIdentifierIndex;
 import com.osthus.rdfcmap.util.VizUtil;
 
 /**
@@ -41,14 +47,15 @@ public class VisualizationInfoBuilder
 	private static final Logger log = LogManager.getLogger("Logger");
 
 	public static VisualizationInfoBuilderResult createOrUpdateVisualizationInfo(Model model, Path path,
-			Map<String, Map<String, String>> conceptId2UiProperties, Map<String, Map<String, String>> fullLinkId2UiProperties,
-			Map<String, Map<String, String>> connectionId2UiProperties, Map<String, Map<String, String>> controlPointId2UiProperties,
-			Map<String, Map<String, String>> imageId2UiProperties, List<Resource> resources)
+			Map<String, UiProperties> conceptId2UiProperties, Map<String, UiProperties> fullLinkId2UiProperties,
+			Map<String, UiProperties> connectionId2UiProperties, Map<String, UiProperties> controlPointId2UiProperties,
+			Map<String, UiProperties> imageId2UiProperties, List<Resource> resources)
 	{
 		log.info("Creating or updating visualization info.");
-		Long x = 10l;
-		Long y = 10l;
-		for (Entry<String, Map<String, String>> entry : conceptId2UiProperties.entrySet())
+		VizIdentifierIndex vizIdentifierIndex = VizIdentifierIndex.register(model, VizUtil.AFV_CONCEPT, VizUtil.AFV_LINK, VizUtil.AFV_CONNECTION);
+		long x = 10l;
+		long y = 10l;
+		for (Entry<String, UiProperties> entry : conceptId2UiProperties.entrySet())
 		{
 			Resource concept;
 			Resource uiConcept;
@@ -63,8 +70,8 @@ public class VisualizationInfoBuilder
 			else
 			{
 				// new concept, new instance
-				String title = entry.getValue().get(ConceptProperty.TITLE.name());
-				Resource existingConceptWithSameVizId = findExistingUiResource(model, entry.getKey(), VizUtil.AFV_CONCEPT);
+				String title = entry.getValue().get(ConceptProperty.TITLE);
+				Resource existingConceptWithSameVizId = vizIdentifierIndex.find(model, entry.getKey(), VizUtil.AFV_CONCEPT);
 				if (existingConceptWithSameVizId == null)
 				{
 					String id = UUID.randomUUID().toString();
@@ -96,7 +103,7 @@ public class VisualizationInfoBuilder
 				log.debug("Found UI concept without relation to RDF concept. Adding required relations.");
 				concept = model.getResource(uiConcept.getURI().replace(VizUtil.AFV_PREFIX, CmapUtil.URN_UUID));
 				model = CmapUtil.createOrUpdateRelatedResource(model, uiConcept, AFOUtil.AFX_HAS_OBJECT, concept);
-				if (!entry.getValue().get(ConceptProperty.TITLE.name()).toLowerCase().contains("\"^^xsd:"))
+				if (!entry.getValue().get(ConceptProperty.TITLE).toLowerCase().contains("\"^^xsd:"))
 				{
 				model = CmapUtil.createOrUpdateRelatedResource(model, concept, AFOUtil.RDF_TYPE, AFOUtil.OWL_NAMED_INDIVIDUAL);
 				}
@@ -109,19 +116,19 @@ public class VisualizationInfoBuilder
 			model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, AFOUtil.DCT_IDENTIFIER, uiConcept.getURI());
 
 			// resolve title against ontologies and add rdf:type
-			Resource type = RdfUtil.getResourceByLabel(model, entry.getValue().get(ConceptProperty.TITLE.name()), false, true);
+			Resource type = RdfUtil.getResourceByLabel(model, entry.getValue().get(ConceptProperty.TITLE), false, true);
 			if (type != null)
 			{
 				model = CmapUtil.createOrUpdateRelatedResource(model, model.getResource(uiConcept.getURI().replace(VizUtil.AFV_PREFIX, CmapUtil.URN_UUID)),
 						AFOUtil.RDF_TYPE, type);
 			}
-			else if (entry.getValue().get(ConceptProperty.TITLE.name()) != null && !entry.getValue().get(ConceptProperty.TITLE.name()).contains("\"^^")
-					&& !entry.getValue().get(ConceptProperty.TITLE.name()).toLowerCase().contains("xsd:"))
+			else if (entry.getValue().get(ConceptProperty.TITLE) != null && !entry.getValue().get(ConceptProperty.TITLE).contains("\"^^")
+					&& !entry.getValue().get(ConceptProperty.TITLE).toLowerCase().contains("xsd:"))
 			{
-				log.info("Found unresolved label: " + entry.getValue().get(ConceptProperty.TITLE.name()));
+				log.info("Found unresolved label: " + entry.getValue().get(ConceptProperty.TITLE));
 			}
 
-			model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, AFOUtil.DCT_TITLE, entry.getValue().get(ConceptProperty.TITLE.name()));
+			model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, AFOUtil.DCT_TITLE, entry.getValue().get(ConceptProperty.TITLE));
 
 			if (!model.contains(uiConcept, VizUtil.AFV_HAS_MAP, (RDFNode) null))
 			{
@@ -129,29 +136,29 @@ public class VisualizationInfoBuilder
 				uiConcept.addProperty(VizUtil.AFV_HAS_MAP, map);
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.SHORT_COMMENT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.SHORT_COMMENT))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_SHORT_COMMENT,
-						entry.getValue().get(ConceptProperty.SHORT_COMMENT.name()));
+						entry.getValue().get(ConceptProperty.SHORT_COMMENT));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_SHORT_COMMENT, "");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.LONG_COMMENT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.LONG_COMMENT))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_LONG_COMMENT,
-						entry.getValue().get(ConceptProperty.LONG_COMMENT.name()));
+						entry.getValue().get(ConceptProperty.LONG_COMMENT));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_LONG_COMMENT, "");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.PARENT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.PARENT))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_HAS_PARENT_ID, entry.getValue().get(ConceptProperty.PARENT.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_HAS_PARENT_ID, entry.getValue().get(ConceptProperty.PARENT));
 			}
 			else
 			{
@@ -162,9 +169,9 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.EXPANDED.name()))
+			if (entry.getValue().containsKey(ConceptProperty.EXPANDED))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_EXPANDED, entry.getValue().get(ConceptProperty.EXPANDED.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_EXPANDED, entry.getValue().get(ConceptProperty.EXPANDED));
 			}
 			else
 			{
@@ -175,10 +182,10 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.IS_BLANK_NODE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.IS_BLANK_NODE))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_IS_BLANK_NODE,
-						entry.getValue().get(ConceptProperty.IS_BLANK_NODE.name()));
+						entry.getValue().get(ConceptProperty.IS_BLANK_NODE));
 				concept = model.getResource(uiConcept.getURI().replace(VizUtil.AFV_PREFIX, CmapUtil.URN_UUID));
 				model = CmapUtil.createOrUpdateRelatedResource(model, concept, VizUtil.AFV_HAS_UUID, concept);
 			}
@@ -197,13 +204,13 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.IS_LITERAL_NODE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.IS_LITERAL_NODE))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_IS_LITERAL_NODE,
-						entry.getValue().get(ConceptProperty.IS_LITERAL_NODE.name()));
+						entry.getValue().get(ConceptProperty.IS_LITERAL_NODE));
 				concept = model.getResource(uiConcept.getURI().replace(VizUtil.AFV_PREFIX, CmapUtil.URN_UUID));
 				model = CmapUtil.createOrUpdateLiteralValue(model, concept, VizUtil.AFV_IS_LITERAL_NODE,
-						entry.getValue().get(ConceptProperty.IS_LITERAL_NODE.name()));
+						entry.getValue().get(ConceptProperty.IS_LITERAL_NODE));
 			}
 			else
 			{
@@ -220,13 +227,13 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES.name()))
+			if (entry.getValue().containsKey(ConceptProperty.IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES,
-						entry.getValue().get(ConceptProperty.IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES.name()));
+						entry.getValue().get(ConceptProperty.IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES));
 				concept = model.getResource(uiConcept.getURI().replace(VizUtil.AFV_PREFIX, CmapUtil.URN_UUID));
 				model = CmapUtil.createOrUpdateLiteralValue(model, concept, VizUtil.AFV_IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES,
-						entry.getValue().get(ConceptProperty.IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES.name()));
+						entry.getValue().get(ConceptProperty.IS_NAMED_INDIVIDUAL_OF_ONTOLOGIES));
 			}
 			else
 			{
@@ -243,11 +250,11 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.IS_CLASS.name()))
+			if (entry.getValue().containsKey(ConceptProperty.IS_CLASS))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_IS_CLASS, entry.getValue().get(ConceptProperty.IS_CLASS.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_IS_CLASS, entry.getValue().get(ConceptProperty.IS_CLASS));
 				concept = model.getResource(uiConcept.getURI().replace(VizUtil.AFV_PREFIX, CmapUtil.URN_UUID));
-				model = CmapUtil.createOrUpdateLiteralValue(model, concept, VizUtil.AFV_IS_CLASS, entry.getValue().get(ConceptProperty.IS_CLASS.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, concept, VizUtil.AFV_IS_CLASS, entry.getValue().get(ConceptProperty.IS_CLASS));
 			}
 			else
 			{
@@ -264,13 +271,13 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.IS_TARGET_NODE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.IS_TARGET_NODE))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_IS_TARGET_NODE,
-						Boolean.parseBoolean(entry.getValue().get(ConceptProperty.IS_TARGET_NODE.name())));
+						Boolean.parseBoolean(entry.getValue().get(ConceptProperty.IS_TARGET_NODE)));
 				concept = model.getResource(uiConcept.getURI().replace(VizUtil.AFV_PREFIX, CmapUtil.URN_UUID));
 				model = CmapUtil.createOrUpdateLiteralValue(model, concept, VizUtil.AFV_IS_TARGET_NODE,
-						Boolean.parseBoolean(entry.getValue().get(ConceptProperty.IS_TARGET_NODE.name())));
+						Boolean.parseBoolean(entry.getValue().get(ConceptProperty.IS_TARGET_NODE)));
 			}
 			else
 			{
@@ -287,13 +294,13 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.IS_SOURCE_NODE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.IS_SOURCE_NODE))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_IS_SOURCE_NODE,
-						Boolean.parseBoolean(entry.getValue().get(ConceptProperty.IS_SOURCE_NODE.name())));
+						Boolean.parseBoolean(entry.getValue().get(ConceptProperty.IS_SOURCE_NODE)));
 				concept = model.getResource(uiConcept.getURI().replace(VizUtil.AFV_PREFIX, CmapUtil.URN_UUID));
 				model = CmapUtil.createOrUpdateLiteralValue(model, concept, VizUtil.AFV_IS_SOURCE_NODE,
-						Boolean.parseBoolean(entry.getValue().get(ConceptProperty.IS_SOURCE_NODE.name())));
+						Boolean.parseBoolean(entry.getValue().get(ConceptProperty.IS_SOURCE_NODE)));
 			}
 			else
 			{
@@ -310,66 +317,65 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.X.name()))
+			if (entry.getValue().containsKey(ConceptProperty.X))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, entry.getValue().get(ConceptProperty.X.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, entry.getValue().get(ConceptProperty.X));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, x.toString());
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, String.valueOf(x));
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.Y.name()))
+			if (entry.getValue().containsKey(ConceptProperty.Y))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, entry.getValue().get(ConceptProperty.Y.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, entry.getValue().get(ConceptProperty.Y));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, y.toString());
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, String.valueOf(y));
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.WIDTH.name()))
+			if (entry.getValue().containsKey(ConceptProperty.WIDTH))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_WIDTH, entry.getValue().get(ConceptProperty.WIDTH.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_WIDTH, entry.getValue().get(ConceptProperty.WIDTH));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_WIDTH, "100");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.HEIGHT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.HEIGHT))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_HEIGHT, entry.getValue().get(ConceptProperty.HEIGHT.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_HEIGHT, entry.getValue().get(ConceptProperty.HEIGHT));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_HEIGHT, "25");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.FONT_STYLE.name()))
+			Map<Property, String> uiConceptFont = new HashMap<Property, String>();
+			if (entry.getValue().containsKey(ConceptProperty.FONT_STYLE))
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_STYLE,
-						entry.getValue().get(ConceptProperty.FONT_STYLE.name()));
+				uiConceptFont.put(VizUtil.AFV_STYLE, entry.getValue().get(ConceptProperty.FONT_STYLE));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_STYLE,
-						"plain");
+				uiConceptFont.put(VizUtil.AFV_STYLE, "plain");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.FONT_SIZE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.FONT_SIZE))
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_SIZE,
-						entry.getValue().get(ConceptProperty.FONT_SIZE.name()));
+				uiConceptFont.put(VizUtil.AFV_SIZE, entry.getValue().get(ConceptProperty.FONT_SIZE));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_SIZE, "12");
+				uiConceptFont.put(VizUtil.AFV_SIZE, "12");
 			}
+			model = CmapUtil.createOrUpdateStyle(model, uiConcept, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, uiConceptFont);
 
-			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE))
 			{
-				if (entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE.name()).toLowerCase().trim().equals(CmapUtil.NO_IMAGE))
+				if (entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE).toLowerCase().trim().equals(CmapUtil.NO_IMAGE))
 				{
 					// remove triples from previously used image (image was removed, "none")
 					List<Statement> statementsToRemove = model.listStatements(uiConcept, VizUtil.AFV_HAS_IMAGE, (RDFNode) null).toList();
@@ -391,7 +397,7 @@ public class VisualizationInfoBuilder
 				}
 
 				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_IMAGE, VizUtil.AFV_IMAGE, VizUtil.AFV_IDENTIFIER,
-						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE.name()));
+						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE));
 
 			}
 			else
@@ -414,10 +420,10 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE_STYLE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE_STYLE))
 			{
 				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_IMAGE, VizUtil.AFV_IMAGE, VizUtil.AFV_STYLE,
-						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_STYLE.name()));
+						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_STYLE));
 			}
 			else
 			{
@@ -439,10 +445,10 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE_LAYOUT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE_LAYOUT))
 			{
 				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_IMAGE, VizUtil.AFV_IMAGE, VizUtil.AFV_LAYOUT,
-						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_LAYOUT.name()));
+						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_LAYOUT));
 			}
 			else
 			{
@@ -464,36 +470,33 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BORDER_SHAPE.name()))
+			Map<Property, String> uiConceptBorder = new HashMap<Property, String>();
+			if (entry.getValue().containsKey(ConceptProperty.BORDER_SHAPE))
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_SHAPE,
-						entry.getValue().get(ConceptProperty.BORDER_SHAPE.name()));
+				uiConceptBorder.put(VizUtil.AFV_SHAPE, entry.getValue().get(ConceptProperty.BORDER_SHAPE));
 			}
 			else if (Turtle2CmapConverter.allNodeIdsOfInstanceGraph != null && !Turtle2CmapConverter.allNodeIdsOfInstanceGraph.isEmpty()
 					&& (Turtle2CmapConverter.allNodeIdsOfInstanceGraph.contains(concept.getURI().replaceAll(CmapUtil.URN_UUID, ""))
 							|| Turtle2CmapConverter.allNodeIdsOfInstanceGraph.contains(concept.getURI())))
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_SHAPE,
-						"rectangle");
+				uiConceptBorder.put(VizUtil.AFV_SHAPE, "rectangle");
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_SHAPE,
-						"rounded-rectangle");
+				uiConceptBorder.put(VizUtil.AFV_SHAPE, "rounded-rectangle");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BORDER_STYLE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BORDER_STYLE))
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_STYLE,
-						entry.getValue().get(ConceptProperty.BORDER_STYLE.name()));
+				uiConceptBorder.put(VizUtil.AFV_STYLE, entry.getValue().get(ConceptProperty.BORDER_STYLE));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_STYLE,
-						"solid");
+				uiConceptBorder.put(VizUtil.AFV_STYLE, "solid");
 			}
+			model = CmapUtil.createOrUpdateStyle(model, uiConcept, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, uiConceptBorder);
 
-			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_COLOR.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_COLOR))
 			{
 				if (RdfCmap.isAftColorScheme)
 				{
@@ -503,7 +506,7 @@ public class VisualizationInfoBuilder
 				else
 				{
 					model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_BACKGROUND_COLOR,
-							entry.getValue().get(ConceptProperty.BACKGROUND_COLOR.name()));
+							entry.getValue().get(ConceptProperty.BACKGROUND_COLOR));
 				}
 			}
 			else
@@ -519,10 +522,10 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.SHADOW_COLOR.name()))
+			if (entry.getValue().containsKey(ConceptProperty.SHADOW_COLOR))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_SHADOW_COLOR,
-						entry.getValue().get(ConceptProperty.SHADOW_COLOR.name()));
+						entry.getValue().get(ConceptProperty.SHADOW_COLOR));
 			}
 			else
 			{
@@ -558,7 +561,7 @@ public class VisualizationInfoBuilder
 		x = 55l;
 		y = 10l;
 
-		for (Entry<String, Map<String, String>> entry : fullLinkId2UiProperties.entrySet())
+		for (Entry<String, UiProperties> entry : fullLinkId2UiProperties.entrySet())
 		{
 			Resource link;
 			Resource uiLink;
@@ -573,8 +576,8 @@ public class VisualizationInfoBuilder
 			else
 			{
 				// new link
-				String title = entry.getValue().get(ConceptProperty.TITLE.name());
-				Resource existingLinkWithSameVizId = findExistingUiResource(model, entry.getKey(), VizUtil.AFV_LINK);
+				String title = entry.getValue().get(ConceptProperty.TITLE);
+				Resource existingLinkWithSameVizId = vizIdentifierIndex.find(model, entry.getKey(), VizUtil.AFV_LINK);
 				if (existingLinkWithSameVizId == null)
 				{
 					String id = UUID.randomUUID().toString();
@@ -611,7 +614,7 @@ public class VisualizationInfoBuilder
 
 			model = CmapUtil.createOrUpdateRelatedResource(model, uiLink, AFOUtil.RDF_TYPE, VizUtil.AFV_LINK);
 			model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, AFOUtil.DCT_IDENTIFIER, uiLink.getURI());
-			model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, AFOUtil.DCT_TITLE, entry.getValue().get(ConceptProperty.TITLE.name()));
+			model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, AFOUtil.DCT_TITLE, entry.getValue().get(ConceptProperty.TITLE));
 
 			if (!model.contains(uiLink, VizUtil.AFV_HAS_MAP, (RDFNode) null))
 			{
@@ -619,28 +622,28 @@ public class VisualizationInfoBuilder
 				uiLink.addProperty(VizUtil.AFV_HAS_MAP, map);
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.SHORT_COMMENT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.SHORT_COMMENT))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_SHORT_COMMENT,
-						entry.getValue().get(ConceptProperty.SHORT_COMMENT.name()));
+						entry.getValue().get(ConceptProperty.SHORT_COMMENT));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_SHORT_COMMENT, "");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.LONG_COMMENT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.LONG_COMMENT))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_LONG_COMMENT, entry.getValue().get(ConceptProperty.LONG_COMMENT.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_LONG_COMMENT, entry.getValue().get(ConceptProperty.LONG_COMMENT));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_LONG_COMMENT, "");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.PARENT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.PARENT))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HAS_PARENT_ID, entry.getValue().get(ConceptProperty.PARENT.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HAS_PARENT_ID, entry.getValue().get(ConceptProperty.PARENT));
 			}
 			else
 			{
@@ -656,61 +659,61 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.X.name()))
+			if (entry.getValue().containsKey(ConceptProperty.X))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_X_POSITION, entry.getValue().get(ConceptProperty.X.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_X_POSITION, entry.getValue().get(ConceptProperty.X));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_X_POSITION, x.toString());
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_X_POSITION, String.valueOf(x));
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.Y.name()))
+			if (entry.getValue().containsKey(ConceptProperty.Y))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_Y_POSITION, entry.getValue().get(ConceptProperty.Y.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_Y_POSITION, entry.getValue().get(ConceptProperty.Y));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_Y_POSITION, y.toString());
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_Y_POSITION, String.valueOf(y));
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.WIDTH.name()))
+			if (entry.getValue().containsKey(ConceptProperty.WIDTH))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_WIDTH, entry.getValue().get(ConceptProperty.WIDTH.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_WIDTH, entry.getValue().get(ConceptProperty.WIDTH));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_WIDTH, "100");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.HEIGHT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.HEIGHT))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HEIGHT, entry.getValue().get(ConceptProperty.HEIGHT.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HEIGHT, entry.getValue().get(ConceptProperty.HEIGHT));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_HEIGHT, "15");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.MIN_WIDTH.name()))
+			if (entry.getValue().containsKey(ConceptProperty.MIN_WIDTH))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_WIDTH, entry.getValue().get(ConceptProperty.MIN_WIDTH.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_WIDTH, entry.getValue().get(ConceptProperty.MIN_WIDTH));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_WIDTH, "2");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.MIN_HEIGHT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.MIN_HEIGHT))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_HEIGHT, entry.getValue().get(ConceptProperty.MIN_HEIGHT.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_HEIGHT, entry.getValue().get(ConceptProperty.MIN_HEIGHT));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_MINIMUM_HEIGHT, "11");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_COLOR.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_COLOR))
 			{
 				if (RdfCmap.isAftColorScheme)
 				{
@@ -720,7 +723,7 @@ public class VisualizationInfoBuilder
 				else
 				{
 					model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_BACKGROUND_COLOR,
-							entry.getValue().get(ConceptProperty.BACKGROUND_COLOR.name()));
+							entry.getValue().get(ConceptProperty.BACKGROUND_COLOR));
 				}
 			}
 			else
@@ -728,10 +731,10 @@ public class VisualizationInfoBuilder
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_BACKGROUND_COLOR, "240,240,240,0");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE))
 			{
 				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_IMAGE, VizUtil.AFV_IMAGE, VizUtil.AFV_IDENTIFIER,
-						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE.name()));
+						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE));
 			}
 			else
 			{
@@ -753,10 +756,10 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE_STYLE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE_STYLE))
 			{
 				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_IMAGE, VizUtil.AFV_IMAGE, VizUtil.AFV_STYLE,
-						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_STYLE.name()));
+						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_STYLE));
 			}
 			else
 			{
@@ -778,10 +781,10 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE_LAYOUT.name()))
+			if (entry.getValue().containsKey(ConceptProperty.BACKGROUND_IMAGE_LAYOUT))
 			{
 				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_IMAGE, VizUtil.AFV_IMAGE, VizUtil.AFV_LAYOUT,
-						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_LAYOUT.name()));
+						entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_LAYOUT));
 			}
 			else
 			{
@@ -803,60 +806,58 @@ public class VisualizationInfoBuilder
 				}
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.BORDER_COLOR.name()))
+			Map<Property, String> uiLinkBorder = new HashMap<Property, String>();
+			if (entry.getValue().containsKey(ConceptProperty.BORDER_COLOR))
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_COLOR,
-						entry.getValue().get(ConceptProperty.BORDER_COLOR.name()));
+				uiLinkBorder.put(VizUtil.AFV_COLOR, entry.getValue().get(ConceptProperty.BORDER_COLOR));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, VizUtil.AFV_COLOR,
-						"240,240,240,0");
+				uiLinkBorder.put(VizUtil.AFV_COLOR, "240,240,240,0");
 			}
+			model = CmapUtil.createOrUpdateStyle(model, uiLink, VizUtil.AFV_HAS_BORDER, VizUtil.AFV_BORDER, uiLinkBorder);
 
-			if (entry.getValue().containsKey(ConceptProperty.FONT_SIZE.name()))
+			Map<Property, String> uiLinkFont = new HashMap<Property, String>();
+			if (entry.getValue().containsKey(ConceptProperty.FONT_SIZE))
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_SIZE,
-						entry.getValue().get(ConceptProperty.FONT_SIZE.name()));
+				uiLinkFont.put(VizUtil.AFV_SIZE, entry.getValue().get(ConceptProperty.FONT_SIZE));
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_SIZE, "9");
+				uiLinkFont.put(VizUtil.AFV_SIZE, "9");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.FONT_COLOR.name()))
+			if (entry.getValue().containsKey(ConceptProperty.FONT_COLOR))
 			{
 				if (RdfCmap.isAftColorScheme)
 				{
 					String fontColor = CmapUtil.determineFontColor(model, uiLink);
-					model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_COLOR,
-							fontColor);
+					uiLinkFont.put(VizUtil.AFV_COLOR, fontColor);
 				}
 				else
 				{
-					model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_COLOR,
-							entry.getValue().get(ConceptProperty.FONT_COLOR.name()));
+					uiLinkFont.put(VizUtil.AFV_COLOR, entry.getValue().get(ConceptProperty.FONT_COLOR));
 				}
 
 			}
 			else
 			{
-				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, VizUtil.AFV_COLOR,
-						"0,0,0,255");
+				uiLinkFont.put(VizUtil.AFV_COLOR, "0,0,0,255");
 			}
+			model = CmapUtil.createOrUpdateStyle(model, uiLink, VizUtil.AFV_HAS_FONT, VizUtil.AFV_FONT, uiLinkFont);
 
-			if (entry.getValue().containsKey(ConceptProperty.SHADOW_COLOR.name()))
+			if (entry.getValue().containsKey(ConceptProperty.SHADOW_COLOR))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_SHADOW_COLOR, entry.getValue().get(ConceptProperty.SHADOW_COLOR.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_SHADOW_COLOR, entry.getValue().get(ConceptProperty.SHADOW_COLOR));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiLink, VizUtil.AFV_SHADOW_COLOR, "none");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.CARDINALITY.name()))
+			if (entry.getValue().containsKey(ConceptProperty.CARDINALITY))
 			{
-				String cardinalityString = entry.getValue().get(ConceptProperty.CARDINALITY.name());
+				String cardinalityString = entry.getValue().get(ConceptProperty.CARDINALITY);
 				Cardinality cardinality = CmapUtil.determineCardinality(cardinalityString);
 
 				model = CmapUtil.createOrUpdateLiteralValueOfRelatedResource(model, uiLink, VizUtil.AFV_HAS_CARDINALITY, cardinality.getType(),
@@ -918,7 +919,7 @@ public class VisualizationInfoBuilder
 
 		}
 
-		for (Entry<String, Map<String, String>> entry : connectionId2UiProperties.entrySet())
+		for (Entry<String, UiProperties> entry : connectionId2UiProperties.entrySet())
 		{
 			Resource connection;
 			Resource uiConnection;
@@ -933,7 +934,7 @@ public class VisualizationInfoBuilder
 			else
 			{
 				// new connection
-				Resource existingConnectionWithSameVizId = findExistingUiResource(model, entry.getKey(), VizUtil.AFV_CONNECTION);
+				Resource existingConnectionWithSameVizId = vizIdentifierIndex.find(model, entry.getKey(), VizUtil.AFV_CONNECTION);
 				if (existingConnectionWithSameVizId == null)
 				{
 					String id = UUID.randomUUID().toString();
@@ -976,45 +977,45 @@ public class VisualizationInfoBuilder
 				uiConnection.addProperty(VizUtil.AFV_HAS_MAP, map);
 			}
 
-			Resource from = model.getResource(entry.getValue().get(ConceptProperty.CONNECTS_FROM.name()));
+			Resource from = model.getResource(entry.getValue().get(ConceptProperty.CONNECTS_FROM));
 
-			Resource to = model.getResource(entry.getValue().get(ConceptProperty.CONNECTS_TO.name()));
+			Resource to = model.getResource(entry.getValue().get(ConceptProperty.CONNECTS_TO));
 
 			model = CmapUtil.createOrUpdateRelatedResource(model, uiConnection, VizUtil.AFV_CONNECTS_FROM, from);
 			model = CmapUtil.createOrUpdateRelatedResource(model, uiConnection, VizUtil.AFV_CONNECTS_TO, to);
 
-			if (entry.getValue().containsKey(ConceptProperty.ANCHOR_FROM.name()))
+			if (entry.getValue().containsKey(ConceptProperty.ANCHOR_FROM))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_ANCHOR_FROM,
-						entry.getValue().get(ConceptProperty.ANCHOR_FROM.name()));
+						entry.getValue().get(ConceptProperty.ANCHOR_FROM));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_ANCHOR_FROM, "center");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.ANCHOR_TO.name()))
+			if (entry.getValue().containsKey(ConceptProperty.ANCHOR_TO))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_ANCHOR_TO, entry.getValue().get(ConceptProperty.ANCHOR_TO.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_ANCHOR_TO, entry.getValue().get(ConceptProperty.ANCHOR_TO));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_ANCHOR_TO, "center");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.LINE_TYPE.name()))
+			if (entry.getValue().containsKey(ConceptProperty.LINE_TYPE))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_LINE_TYPE, entry.getValue().get(ConceptProperty.LINE_TYPE.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_LINE_TYPE, entry.getValue().get(ConceptProperty.LINE_TYPE));
 			}
 			else
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_LINE_TYPE, "straight");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.ARROW_HEAD.name()))
+			if (entry.getValue().containsKey(ConceptProperty.ARROW_HEAD))
 			{
 				model = CmapUtil.createOrUpdateLiteralValue(model, uiConnection, VizUtil.AFV_ARROW_HEAD,
-						entry.getValue().get(ConceptProperty.ARROW_HEAD.name()));
+						entry.getValue().get(ConceptProperty.ARROW_HEAD));
 			}
 			else
 			{
@@ -1024,7 +1025,7 @@ public class VisualizationInfoBuilder
 
 		removeAllControlPoints(model);
 
-		for (Entry<String, Map<String, String>> entry : controlPointId2UiProperties.entrySet())
+		for (Entry<String, UiProperties> entry : controlPointId2UiProperties.entrySet())
 		{
 			Resource controlPoint;
 			if (entry.getKey().contains(VizUtil.AFV_PREFIX))
@@ -1043,7 +1044,7 @@ public class VisualizationInfoBuilder
 			model = CmapUtil.createOrUpdateRelatedResource(model, controlPoint, AFOUtil.RDF_TYPE, VizUtil.AFV_POINT);
 			model = CmapUtil.createOrUpdateLiteralValue(model, controlPoint, AFOUtil.DCT_IDENTIFIER, entry.getKey());
 
-			String parentConnectionId = entry.getValue().get(ConceptProperty.CONNECTION_ID.name());
+			String parentConnectionId = entry.getValue().get(ConceptProperty.CONNECTION_ID);
 			Resource connection = null;
 			if (parentConnectionId.contains(VizUtil.AFV_PREFIX))
 			{
@@ -1074,9 +1075,9 @@ public class VisualizationInfoBuilder
 			model = CmapUtil.createOrUpdateRelatedResource(model, controlPoint, VizUtil.AFV_HAS_CONNECTION, connection);
 			model = CmapUtil.createOrUpdateRelatedResource(model, connection, VizUtil.AFV_HAS_CONTROL_POINT, controlPoint);
 
-			if (entry.getValue().containsKey(ConceptProperty.X.name()))
+			if (entry.getValue().containsKey(ConceptProperty.X))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, controlPoint, VizUtil.AFV_X_POSITION, entry.getValue().get(ConceptProperty.X.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, controlPoint, VizUtil.AFV_X_POSITION, entry.getValue().get(ConceptProperty.X));
 			}
 			else
 			{
@@ -1084,9 +1085,9 @@ public class VisualizationInfoBuilder
 				model = CmapUtil.createOrUpdateLiteralValue(model, connection, VizUtil.AFV_X_POSITION, "0");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.Y.name()))
+			if (entry.getValue().containsKey(ConceptProperty.Y))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, controlPoint, VizUtil.AFV_Y_POSITION, entry.getValue().get(ConceptProperty.Y.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, controlPoint, VizUtil.AFV_Y_POSITION, entry.getValue().get(ConceptProperty.Y));
 			}
 			else
 			{
@@ -1094,9 +1095,9 @@ public class VisualizationInfoBuilder
 				model = CmapUtil.createOrUpdateLiteralValue(model, connection, VizUtil.AFV_Y_POSITION, "0");
 			}
 
-			if (entry.getValue().containsKey(ConceptProperty.INDEX.name()))
+			if (entry.getValue().containsKey(ConceptProperty.INDEX))
 			{
-				model = CmapUtil.createOrUpdateLiteralValue(model, controlPoint, AFOUtil.AFX_INDEX, entry.getValue().get(ConceptProperty.INDEX.name()));
+				model = CmapUtil.createOrUpdateLiteralValue(model, controlPoint, AFOUtil.AFX_INDEX, entry.getValue().get(ConceptProperty.INDEX));
 			}
 			else
 			{
@@ -1106,12 +1107,12 @@ public class VisualizationInfoBuilder
 			}
 		}
 
-		for (Entry<String, Map<String, String>> entry : imageId2UiProperties.entrySet())
+		for (Entry<String, UiProperties> entry : imageId2UiProperties.entrySet())
 		{
 			String imageId = entry.getKey();
 
-			String originalId = entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE.name());
-			String bytes = entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_BYTES.name());
+			String originalId = entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE);
+			String bytes = entry.getValue().get(ConceptProperty.BACKGROUND_IMAGE_BYTES);
 
 			Resource imageResource = null;
 			StmtIterator stmtIterator = model.listStatements((Resource) null, VizUtil.AFV_HAS_IMAGE, (RDFNode) null);
@@ -1145,6 +1146,8 @@ public class VisualizationInfoBuilder
 
 		}
 
+		vizIdentifierIndex.unregister();
+
 		model = replaceVisualizationIdentifiersForIris(model);
 
 		model = determineClassHierarchyLevel(model);
@@ -1154,6 +1157,7 @@ public class VisualizationInfoBuilder
 
 	private static Model determineClassHierarchyLevel(Model model)
 	{
+		ClassHierarchyLevels classHierarchyLevels = new ClassHierarchyLevels(model);
 		StmtIterator stmtIterator = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, VizUtil.AFV_CONCEPT);
 		while (stmtIterator.hasNext())
 		{
@@ -1186,16 +1190,14 @@ public class VisualizationInfoBuilder
 			for (Iterator<Resource> iterator = classes.iterator(); iterator.hasNext();)
 			{
 				Resource resource = iterator.next();
-				if (!RdfUtil.isAFTNamespace(resource.getNameSpace()) && !resource.getURI().matches(CmapUtil.URN_UUID + AFOUtil.AFO_ID_PATTERN))
+				if (!ClassHierarchyLevels.isAfoClass(resource))
 				{
 					continue;
 				}
 
-				Set<Resource> parents = new HashSet<>();
-				parents = identifyParents(model, parents, resource);
-
-				model = CmapUtil.createOrUpdateLiteralValue(model, statement.getSubject(), VizUtil.AFV_CLASS_HIERARCHY_LEVEL, String.valueOf(parents.size()));
-				log.debug("Level " + parents.size() + " " + statement.getSubject().getURI());
+				int level = classHierarchyLevels.getLevel(resource);
+				model = CmapUtil.createOrUpdateLiteralValue(model, statement.getSubject(), VizUtil.AFV_CLASS_HIERARCHY_LEVEL, String.valueOf(level));
+				log.debug("Level " + level + " " + statement.getSubject().getURI());
 			}
 
 			if (RdfCmap.adjustLabels)
@@ -1278,33 +1280,12 @@ public class VisualizationInfoBuilder
 		return model;
 	}
 
-	private static Set<Resource> identifyParents(Model model, Set<Resource> parents, Resource resource)
-	{
-		StmtIterator parentsIterator = model.listStatements(resource, AFOUtil.RDFS_SUBCLASS_OF, (RDFNode) null);
-		while (parentsIterator.hasNext())
-		{
-			Statement parentStatement = parentsIterator.next();
-			Resource parent = parentStatement.getResource();
-			if (parent.isAnon())
-			{
-				continue;
-			}
-			if ((RdfUtil.isAFTNamespace(parent.getNameSpace()) || parent.getURI().matches(CmapUtil.URN_UUID + AFOUtil.AFO_ID_PATTERN))
-					&& !parents.contains(parent))
-			{
-				parents.add(parent);
-				parents = identifyParents(model, parents, parent);
-			}
-		}
-		return parents;
-	}
-
 	private static boolean belongsToAfoClassHierarchy(List<Resource> classes)
 	{
 		for (Iterator<Resource> iterator = classes.iterator(); iterator.hasNext();)
 		{
 			Resource resource = iterator.next();
-			if (RdfUtil.isAFTNamespace(resource.getNameSpace()) || (resource.getURI().matches(CmapUtil.URN_UUID + AFOUtil.AFO_ID_PATTERN)))
+			if (ClassHierarchyLevels.isAfoClass(resource))
 			{
 				return true;
 			}
@@ -1313,46 +1294,21 @@ public class VisualizationInfoBuilder
 		return false;
 	}
 
-	private static Resource findExistingUiResource(Model model, String key, Resource rdfType)
-	{
-		StmtIterator stmtIterator = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, rdfType);
-		while (stmtIterator.hasNext())
-		{
-			Statement statement = stmtIterator.next();
-
-			if (!statement.getSubject().isURIResource())
-			{
-				continue;
-			}
-
-			Resource subject = statement.getSubject();
-
-			String id = model.listStatements(subject, VizUtil.AFV_IDENTIFIER, (RDFNode) null).next().getString();
-			if (id != null && !id.isEmpty() && id.equals(key))
-			{
-				return subject;
-			}
-		}
-
-		return null;
-	}
-
 	private static Model replaceVisualizationIdentifiersForIris(Model model)
 	{
-		List<List<Statement>> statementsToReplace = new ArrayList<>();
-
-		StmtIterator stmtIterator = model.listStatements();
-		while (stmtIterator.hasNext())
+		// collect identifiers of the cmap file that are still used in place of IRIs, each subject once
+		Map<String, List<Resource>> vizId2subjects = new LinkedHashMap<>();
+		Set<Resource> subjects = new HashSet<>();
+		StmtIterator identifierIterator = model.listStatements((Resource) null, VizUtil.AFV_IDENTIFIER, (RDFNode) null);
+		while (identifierIterator.hasNext())
 		{
-			Statement statement = stmtIterator.next();
-			Resource subject = statement.getSubject();
-
-			if (!subject.toString().startsWith(CmapUtil.URN_UUID) && !subject.toString().startsWith(VizUtil.AFV_PREFIX))
+			Resource subject = identifierIterator.next().getSubject();
+			if (!subjects.add(subject))
 			{
 				continue;
 			}
 
-			if (!subject.hasProperty(VizUtil.AFV_IDENTIFIER))
+			if (!subject.toString().startsWith(CmapUtil.URN_UUID) && !subject.toString().startsWith(VizUtil.AFV_PREFIX))
 			{
 				continue;
 			}
@@ -1364,7 +1320,21 @@ public class VisualizationInfoBuilder
 				continue;
 			}
 
-			StmtIterator replaceStmtIterator = model.listStatements((Resource) null, (Property) null, ResourceFactory.createResource(vizId));
+			List<Resource> subjectsWithVizId = vizId2subjects.get(vizId);
+			if (subjectsWithVizId == null)
+			{
+				subjectsWithVizId = new ArrayList<>();
+				vizId2subjects.put(vizId, subjectsWithVizId);
+			}
+			subjectsWithVizId.add(subject);
+		}
+
+		List<Statement> parentIdStatements = model.listStatements((Resource) null, VizUtil.AFV_HAS_PARENT_ID, (RDFNode) null).toList();
+
+		StatementDelta delta = new StatementDelta();
+		for (Entry<String, List<Resource>> entry : vizId2subjects.entrySet())
+		{
+			StmtIterator replaceStmtIterator = model.listStatements((Resource) null, (Property) null, ResourceFactory.createResource(entry.getKey()));
 			while (replaceStmtIterator.hasNext())
 			{
 				Statement statementToReplace = replaceStmtIterator.next();
@@ -1374,49 +1344,43 @@ public class VisualizationInfoBuilder
 					continue;
 				}
 
-				List<Statement> pairOfStatementsToReplace = new ArrayList<>(2);
-				pairOfStatementsToReplace.add(statementToReplace);
-				pairOfStatementsToReplace.add(ResourceFactory.createStatement(statementToReplace.getSubject(), statementToReplace.getPredicate(), subject));
-				statementsToReplace.add(pairOfStatementsToReplace);
+				delta.remove(statementToReplace);
+				if (!parentIdStatements.isEmpty() && statementToReplace.getPredicate().equals(VizUtil.AFV_HAS_PARENT))
+				{
+					// parents are recreated from parent Ids below
+					continue;
+				}
+
+				for (Resource subject : entry.getValue())
+				{
+					delta.add(ResourceFactory.createStatement(statementToReplace.getSubject(), statementToReplace.getPredicate(), subject));
+				}
 			}
 		}
 
-		for (Iterator<List<Statement>> iterator = statementsToReplace.iterator(); iterator.hasNext();)
+		// replace parent Ids of nested nodes
+		if (!parentIdStatements.isEmpty())
 		{
-			List<Statement> statements = iterator.next();
-			model.remove(statements.get(0));
-			model.add(statements.get(1));
+			delta.removeAll(parentIdStatements);
+			delta.removeAll(model.listStatements((Resource) null, VizUtil.AFV_HAS_PARENT, (RDFNode) null).toList());
 		}
 
-		// replace parent Ids of nested nodes
-		List<Statement> statementsToRemove = new ArrayList<>();
-		List<Statement> statementsToAdd = new ArrayList<>();
-		StmtIterator parentStmtIterator = model.listStatements((Resource) null, VizUtil.AFV_HAS_PARENT_ID, (RDFNode) null);
-		while (parentStmtIterator.hasNext())
+		for (Statement parentStatement : parentIdStatements)
 		{
-			Statement parentStatement = parentStmtIterator.next();
-			statementsToRemove.add(parentStatement);
-			statementsToRemove.addAll(model.listStatements((Resource) null, VizUtil.AFV_HAS_PARENT, (RDFNode) null).toList());
-
 			String parentId = parentStatement.getObject().asLiteral().getString();
 			Resource parent = null;
 			if (parentId.contains(VizUtil.AFV_PREFIX) || parentId.contains(CmapUtil.URN_UUID))
 			{
-				parent = model.getResource(parentStatement.getObject().asLiteral().getString());
+				parent = model.getResource(parentId);
 			}
 			else
 			{
 				parent = model.listStatements((Resource) null, VizUtil.AFV_IDENTIFIER, ResourceFactory.createPlainLiteral(parentId)).next().getSubject();
 			}
-			statementsToAdd.add(ResourceFactory.createStatement(parentStatement.getSubject(), VizUtil.AFV_HAS_PARENT, parent));
+			delta.add(ResourceFactory.createStatement(parentStatement.getSubject(), VizUtil.AFV_HAS_PARENT, parent));
 		}
 
-		if (!statementsToRemove.isEmpty())
-		{
-			model.remove(statementsToRemove);
-			model.add(statementsToAdd);
-		}
-		return model;
+		return delta.apply(model);
 	}
 
 	/**
@@ -1427,28 +1391,28 @@ public class VisualizationInfoBuilder
 	 */
 	private static void removeAllControlPoints(Model model)
 	{
-		List<Statement> statementsToRemove = new ArrayList<>();
+		StatementDelta delta = new StatementDelta();
 		StmtIterator stmtIterator = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, VizUtil.AFV_POINT);
 		while (stmtIterator.hasNext())
 		{
 			Statement statement = stmtIterator.next();
-			statementsToRemove.add(statement);
+			delta.remove(statement);
 			Resource subject = statement.getSubject();
 			StmtIterator subjectStatementIterator = model.listStatements(subject, (Property) null, (RDFNode) null);
 			while (subjectStatementIterator.hasNext())
 			{
 				Statement statement2 = subjectStatementIterator.next();
-				statementsToRemove.add(statement2);
+				delta.remove(statement2);
 			}
 
 			StmtIterator objectStatementIterator = model.listStatements((Resource) null, (Property) null, subject);
 			while (objectStatementIterator.hasNext())
 			{
 				Statement statement2 = objectStatementIterator.next();
-				statementsToRemove.add(statement2);
+				delta.remove(statement2);
 			}
 		}
 
-		model.remove(statementsToRemove);
+		delta.apply(model);
 	}
 }
@@ -2,6 +2,7 @@ package com.osthus.rdfcmap.cmap.cardinality;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * CardinalityPattern
@@ -31,4 +32,21 @@ public class CardinalityPattern
 			put(CardinalityEnum.MIN_MAX.name(), "^(([0-9]+)[\\s\\,]+([0-9]+))$");
 		}
 	};
+
+	private static final Map<String, Pattern> cardinality2compiledPattern = new HashMap<String, Pattern>();
+
+	/**
+	 * @param cardinality
+	 * @return the case-insensitive pattern of the cardinality, compiled once
+	 */
+	public static synchronized Pattern getPattern(CardinalityEnum cardinality)
+	{
+		Pattern pattern = cardinality2compiledPattern.get(cardinality.name());
+		if (pattern == null)
+		{
+			pattern = Pattern.compile(cardinality2pattern.get(cardinality.name()), Pattern.CASE_INSENSITIVE);
+			cardinality2compiledPattern.put(cardinality.name(), pattern);
+		}
+		return pattern;
+	}
 }
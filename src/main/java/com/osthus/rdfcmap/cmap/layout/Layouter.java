@@ -18,8 +18,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.rdf.model.Statement;
-import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.gephi.graph.api.DirectedGraph;
@@ -43,11 +41,13 @@ import org.gephi.project.api.Workspace;
 import org.openide.util.Lookup;
 
 import com.osthus.rdfcmap.RdfCmap;
+import com.osthus.rdfcmap.cmap.scene.Scene;
+import com.osthus.rdfcmap.cmap.scene.SceneConcept;
+import com.osthus.rdfcmap.cmap.scene.SceneConnection;
+import com.osthus.rdfcmap.cmap.scene.SceneNode;
 import com.osthus.rdfcmap.helper.ConceptRelation;
 import com.osthus.rdfcmap.util.AFOUtil;
-import com.osthus.rdfcmap.util.CmapUtil;
 import com.osthus.rdfcmap.util.RdfUtil;
-import com.osthus.rdfcmap.util.VizUtil;
 
 /**
  * Layouter
@@ -63,7 +63,14 @@ public class Layouter
 	private static final Logger log = LogManager.getLogger("Logger");
 	private static Map<Resource, ConceptRelation> link2conceptRelations = new HashMap<Resource, ConceptRelation>();
 
-	public static Model optimizeLayout(Model model)
+	/**
+	 * Layout concepts (and links if requested) of the scene. New positions are kept in the scene.
+	 *
+	 * @param model
+	 * @param scene
+	 * @return
+	 */
+	public static Model optimizeLayout(Model model, Scene scene)
 	{
 		// Init a project - and therefore a workspace
 		ProjectController pc = Lookup.getDefault().lookup(ProjectController.class);
@@ -79,15 +86,15 @@ public class Layouter
 		GraphModel graphModel = Lookup.getDefault().lookup(GraphController.class).getGraphModel();
 		DirectedGraph directedGraph = graphModel.getDirectedGraph();
 
-		Map<Node, Resource> node2UiConcept = null;
+		Map<Node, SceneNode> node2SceneNode = null;
 
 		if (RdfCmap.layoutLinks)
 		{
-			node2UiConcept = createGraphFromModel(model, graphModel, directedGraph);
+			node2SceneNode = createGraphFromScene(model, scene, graphModel, directedGraph);
 		}
 		else
 		{
-			node2UiConcept = createGraphFromConceptsInModel(model, graphModel, directedGraph);
+			node2SceneNode = createGraphFromConceptsInScene(model, scene, graphModel, directedGraph);
 		}
 
 		log.info("Nodes: " + directedGraph.getNodeCount());
@@ -145,14 +152,12 @@ public class Layouter
 		for (Node n : directedGraph.getNodes())
 		{
 			log.debug(String.format(" X Y %14.6f %14.6f %14.6f %10s", n.x() - minX + 100, n.y() - minY + 100, n.size(), n.getLabel()));
-			Resource uiConcept = node2UiConcept.get(n);
-			model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_X_POSITION, String.format("%.0f", n.x() - minX + 100));
-			model = CmapUtil.createOrUpdateLiteralValue(model, uiConcept, VizUtil.AFV_Y_POSITION, String.format("%.0f", n.y() - minY + 100));
+			node2SceneNode.get(n).setPosition(Math.round(n.x() - minX + 100), Math.round(n.y() - minY + 100));
 		}
 
 		if (!RdfCmap.layoutLinks)
 		{
-			model = updateLinkLocations(model);
+			updateLinkLocations(model, scene);
 		}
 
 		log.info("Layout finished. Exporting snapshot to autolayout.pdf");
@@ -175,18 +180,16 @@ public class Layouter
 		return model;
 	}
 
-	private static Model updateLinkLocations(Model model)
+	private static void updateLinkLocations(Model model, Scene scene)
 	{
 		log.info("updating link locations.");
 		List<Integer> xcoord = new ArrayList<>();
 		List<Integer> ycoord = new ArrayList<>();
 
-		StmtIterator stmtIterator = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, VizUtil.AFV_CONCEPT);
-		while (stmtIterator.hasNext())
+		for (SceneConcept concept : scene.getConcepts())
 		{
-			Statement statement = stmtIterator.next();
-			xcoord.add(Integer.valueOf(model.listStatements(statement.getSubject(), VizUtil.AFV_X_POSITION, (RDFNode) null).next().getString()));
-			ycoord.add(Integer.valueOf(model.listStatements(statement.getSubject(), VizUtil.AFV_Y_POSITION, (RDFNode) null).next().getString()));
+			xcoord.add(concept.getX());
+			ycoord.add(concept.getY());
 		}
 
 		Collections.sort(xcoord);
@@ -197,13 +200,14 @@ public class Layouter
 		for (Entry<Resource, ConceptRelation> entry : link2conceptRelations.entrySet())
 		{
 			Resource link = entry.getKey();
-			Resource from = entry.getValue().from;
-			Resource to = entry.getValue().to;
-			int size = Integer.valueOf(model.listStatements(link, VizUtil.AFV_WIDTH, (RDFNode) null).next().getString());
-			int x1 = Integer.valueOf(model.listStatements(from, VizUtil.AFV_X_POSITION, (RDFNode) null).next().getString());
-			int y1 = Integer.valueOf(model.listStatements(from, VizUtil.AFV_Y_POSITION, (RDFNode) null).next().getString());
-			int x2 = Integer.valueOf(model.listStatements(to, VizUtil.AFV_X_POSITION, (RDFNode) null).next().getString());
-			int y2 = Integer.valueOf(model.listStatements(to, VizUtil.AFV_Y_POSITION, (RDFNode) null).next().getString());
+			SceneNode linkNode = scene.getNode(link);
+			SceneNode from = scene.getNode(entry.getValue().from);
+			SceneNode to = scene.getNode(entry.getValue().to);
+			int size = linkNode.getWidth();
+			int x1 = from.getX();
+			int y1 = from.getY();
+			int x2 = to.getX();
+			int y2 = to.getY();
 			int x = (int) (Math.round(0.5 * (x1 + x2)));
 			int y = (int) (Math.round(0.5 * (y1 + y2)));
 			log.debug(String.format(" X Y %14d %14d %14d %10s", x, y, size, determineNodeLabel(link.getURI(), model)));
@@ -212,8 +216,7 @@ public class Layouter
 			y = removeOverlap(ycoord, y);
 
 			log.debug(String.format(" X Y %14d %14d %14d %10s", x, y, size, determineNodeLabel(link.getURI(), model)));
-			model = CmapUtil.createOrUpdateLiteralValue(model, link, VizUtil.AFV_X_POSITION, String.valueOf(x));
-			model = CmapUtil.createOrUpdateLiteralValue(model, link, VizUtil.AFV_Y_POSITION, String.valueOf(y));
+			linkNode.setPosition(x, y);
 			linkPositions.add(new LinkPosition(link, x, y));
 		}
 
@@ -225,7 +228,8 @@ public class Layouter
 			for (LinkPosition linkPosition : linkPositions)
 			{
 				Resource link = linkPosition.getLink();
-				int size = Integer.valueOf(model.listStatements(link, VizUtil.AFV_WIDTH, (RDFNode) null).next().getString());
+				SceneNode linkNode = scene.getNode(link);
+				int size = linkNode.getWidth();
 				int x = linkPosition.getX();
 				int y = linkPosition.getY();
 
@@ -246,12 +250,10 @@ public class Layouter
 
 				log.debug(String.format(" X Y %14d %14d %14d %10s %6d/%d", x, y, size, determineNodeLabel(link.getURI(), model), counter++,
 						linkPositions.size()));
-				model = CmapUtil.createOrUpdateLiteralValue(model, link, VizUtil.AFV_X_POSITION, String.valueOf(x));
-				model = CmapUtil.createOrUpdateLiteralValue(model, link, VizUtil.AFV_Y_POSITION, String.valueOf(y));
+				linkNode.setPosition(x, y);
 				handledLinks.add(link);
 			}
 		}
-		return model;
 	}
 
 	private static int removeOverlap(List<Integer> coord, int pos)
@@ -295,178 +297,88 @@ public class Layouter
 		return pos;
 	}
 
-	private static Map<Node, Resource> createGraphFromModel(Model model, GraphModel graphModel, DirectedGraph directedGraph)
+	private static Map<Node, SceneNode> createGraphFromScene(Model model, Scene scene, GraphModel graphModel, DirectedGraph directedGraph)
 	{
-		Map<Resource, Node> uiConcept2Node = new HashMap<>();
-		Map<Node, Resource> node2UiConcept = new HashMap<>();
-		StmtIterator stmtIterator = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, VizUtil.AFV_CONNECTION);
-		while (stmtIterator.hasNext())
-		{
-			Statement statement = stmtIterator.next();
-			Resource connection = statement.getSubject();
-			Resource from = model.listStatements(connection, VizUtil.AFV_CONNECTS_FROM, (RDFNode) null).next().getResource();
-			Resource to = model.listStatements(connection, VizUtil.AFV_CONNECTS_TO, (RDFNode) null).next().getResource();
-
-			String fromX = model.listStatements(from, VizUtil.AFV_X_POSITION, (RDFNode) null).next().getString();
-			String fromY = model.listStatements(from, VizUtil.AFV_Y_POSITION, (RDFNode) null).next().getString();
-			String toX = model.listStatements(to, VizUtil.AFV_X_POSITION, (RDFNode) null).next().getString();
-			String toY = model.listStatements(to, VizUtil.AFV_Y_POSITION, (RDFNode) null).next().getString();
-
-			Float fromSize = 0.0f;
-			Float toSize = 0.0f;
-			if (model.listStatements(from, VizUtil.AFV_CLASS_HIERARCHY_LEVEL, (RDFNode) null).hasNext())
-			{
-				fromSize = Float.valueOf(model.listStatements(from, VizUtil.AFV_CLASS_HIERARCHY_LEVEL, (RDFNode) null).next().getString());
-			}
-			if (model.listStatements(to, VizUtil.AFV_CLASS_HIERARCHY_LEVEL, (RDFNode) null).hasNext())
+		Map<SceneNode, Node> sceneNode2Node = new HashMap<>();
+		Map<Node, SceneNode> node2SceneNode = new HashMap<>();
+		for (SceneConnection connection : scene.getConnections())
+		{
+			if (connection.getFrom() == null || connection.getTo() == null)
 			{
-				toSize = Float.valueOf(model.listStatements(to, VizUtil.AFV_CLASS_HIERARCHY_LEVEL, (RDFNode) null).next().getString());
+				throw new IllegalStateException("Incomplete connection: " + connection.getResource().getURI());
 			}
+			SceneNode from = scene.getNode(connection.getFrom());
+			SceneNode to = scene.getNode(connection.getTo());
 
-			Node fromNode = null;
-			if (!uiConcept2Node.containsKey(from))
-			{
-				fromNode = graphModel.factory().newNode(String.valueOf(uiConcept2Node.size()));
-				fromNode.setLabel(determineNodeLabel(from.getURI(), model));
-				if (fromSize > 0.0f && RdfCmap.isAutoLayout)
-				{
-					fromNode.setSize(Math.max(Math.min(500.0f / fromSize, 100.0f), 500.0f));
-				}
-				else
-				{
-					fromNode.setSize(RdfCmap.nodeSize);
-				}
-				fromNode.setX(Float.valueOf(fromX));
-				fromNode.setY(Float.valueOf(fromY));
-				fromNode.setZ(0.0f);
-				uiConcept2Node.put(from, fromNode);
-				node2UiConcept.put(fromNode, from);
-				directedGraph.addNode(fromNode);
-			}
-			else
-			{
-				fromNode = uiConcept2Node.get(from);
-			}
-
-			Node toNode = null;
-			if (!uiConcept2Node.containsKey(to))
-			{
-				toNode = graphModel.factory().newNode(String.valueOf(uiConcept2Node.size()));
-				toNode.setLabel(determineNodeLabel(to.getURI(), model));
-				if (toSize > 0.0f && RdfCmap.isAutoLayout)
-				{
-					toNode.setSize(Math.max(Math.min(500.0f / toSize, 100.0f), 500.0f));
-				}
-				else
-				{
-					toNode.setSize(RdfCmap.nodeSize);
-				}
-				toNode.setX(Float.valueOf(toX));
-				toNode.setY(Float.valueOf(toY));
-				toNode.setZ(0.0f);
-				uiConcept2Node.put(to, toNode);
-				node2UiConcept.put(toNode, to);
-				directedGraph.addNode(toNode);
-			}
-			else
-			{
-				toNode = uiConcept2Node.get(to);
-			}
+			Node fromNode = getOrCreateNode(model, from, graphModel, directedGraph, sceneNode2Node, node2SceneNode);
+			Node toNode = getOrCreateNode(model, to, graphModel, directedGraph, sceneNode2Node, node2SceneNode);
 
 			Edge edge = graphModel.factory().newEdge(fromNode, toNode, 0, true);
 			edge.setWeight(0.1);
-			edge.setLabel(from.getURI() + " --> " + to.getURI());
+			edge.setLabel(from.getResource().getURI() + " --> " + to.getResource().getURI());
 			directedGraph.addEdge(edge);
 		}
-		return node2UiConcept;
+		return node2SceneNode;
 	}
 
-	private static Map<Node, Resource> createGraphFromConceptsInModel(Model model, GraphModel graphModel, DirectedGraph directedGraph)
+	private static Map<Node, SceneNode> createGraphFromConceptsInScene(Model model, Scene scene, GraphModel graphModel, DirectedGraph directedGraph)
 	{
 		link2conceptRelations = RdfUtil.determineConceptRelations(model);
 
-		Map<Resource, Node> uiConcept2Node = new HashMap<>();
-		Map<Node, Resource> node2UiConcept = new HashMap<>();
+		Map<SceneNode, Node> sceneNode2Node = new HashMap<>();
+		Map<Node, SceneNode> node2SceneNode = new HashMap<>();
 
 		for (Entry<Resource, ConceptRelation> entry : link2conceptRelations.entrySet())
 		{
-			Resource from = entry.getValue().from;
-			Resource to = entry.getValue().to;
-			String fromX = model.listStatements(from, VizUtil.AFV_X_POSITION, (RDFNode) null).next().getString();
-			String fromY = model.listStatements(from, VizUtil.AFV_Y_POSITION, (RDFNode) null).next().getString();
-			String toX = model.listStatements(to, VizUtil.AFV_X_POSITION, (RDFNode) null).next().getString();
-			String toY = model.listStatements(to, VizUtil.AFV_Y_POSITION, (RDFNode) null).next().getString();
+			SceneNode from = scene.getNode(entry.getValue().from);
+			SceneNode to = scene.getNode(entry.getValue().to);
 
-			Float fromSize = 0.0f;
-			Float toSize = 0.0f;
-			if (model.listStatements(from, VizUtil.AFV_CLASS_HIERARCHY_LEVEL, (RDFNode) null).hasNext())
-			{
-				fromSize = Float.valueOf(model.listStatements(from, VizUtil.AFV_CLASS_HIERARCHY_LEVEL, (RDFNode) null).next().getString());
-			}
-			if (model.listStatements(to, VizUtil.AFV_CLASS_HIERARCHY_LEVEL, (RDFNode) null).hasNext())
-			{
-				toSize = Float.valueOf(model.listStatements(to, VizUtil.AFV_CLASS_HIERARCHY_LEVEL, (RDFNode) null).next().getString());
-			}
-
-			Node fromNode = null;
-			if (!uiConcept2Node.containsKey(from))
-			{
-				fromNode = graphModel.factory().newNode(String.valueOf(uiConcept2Node.size()));
-				fromNode.setLabel(determineNodeLabel(from.getURI(), model));
-				if (fromSize > 0.0f && RdfCmap.isAutoLayout)
-				{
-					fromNode.setSize(Math.max(Math.min(500.0f / fromSize, 100.0f), 500.0f));
-				}
-				else
-				{
-					fromNode.setSize(RdfCmap.nodeSize);
-				}
-				fromNode.setX(Float.valueOf(fromX));
-				fromNode.setY(Float.valueOf(fromY));
-				fromNode.setZ(0.0f);
-				uiConcept2Node.put(from, fromNode);
-				node2UiConcept.put(fromNode, from);
-				directedGraph.addNode(fromNode);
-			}
-			else
-			{
-				fromNode = uiConcept2Node.get(from);
-			}
-
-			Node toNode = null;
-			if (!uiConcept2Node.containsKey(to))
-			{
-				toNode = graphModel.factory().newNode(String.valueOf(uiConcept2Node.size()));
-				if (to.isURIResource())
-				{
-					toNode.setLabel(determineNodeLabel(to.getURI(), model));
-				}
-				if (toSize > 0.0f && RdfCmap.isAutoLayout)
-				{
-					toNode.setSize(Math.max(Math.min(500.0f / toSize, 100.0f), 500.0f));
-				}
-				else
-				{
-					toNode.setSize(RdfCmap.nodeSize);
-				}
-				toNode.setX(Float.valueOf(toX));
-				toNode.setY(Float.valueOf(toY));
-				toNode.setZ(0.0f);
-				uiConcept2Node.put(to, toNode);
-				node2UiConcept.put(toNode, to);
-				directedGraph.addNode(toNode);
-			}
-			else
-			{
-				toNode = uiConcept2Node.get(to);
-			}
+			Node fromNode = getOrCreateNode(model, from, graphModel, directedGraph, sceneNode2Node, node2SceneNode);
+			Node toNode = getOrCreateNode(model, to, graphModel, directedGraph, sceneNode2Node, node2SceneNode);
 
 			Edge edge = graphModel.factory().newEdge(fromNode, toNode, 0, true);
 			edge.setWeight(0.1);
-			edge.setLabel(from.getURI() + " --> " + to.getURI());
+			edge.setLabel(entry.getValue().from.getURI() + " --> " + entry.getValue().to.getURI());
 			directedGraph.addEdge(edge);
 		}
-		return node2UiConcept;
+		return node2SceneNode;
+	}
+
+	private static Node getOrCreateNode(Model model, SceneNode sceneNode, GraphModel graphModel, DirectedGraph directedGraph,
+			Map<SceneNode, Node> sceneNode2Node, Map<Node, SceneNode> node2SceneNode)
+	{
+		Node node = sceneNode2Node.get(sceneNode);
+		if (node != null)
+		{
+			return node;
+		}
+
+		float size = 0.0f;
+		if (sceneNode instanceof SceneConcept)
+		{
+			size = ((SceneConcept) sceneNode).getClassHierarchyLevel();
+		}
+
+		node = graphModel.factory().newNode(String.valueOf(sceneNode2Node.size()));
+		if (sceneNode.getResource().isURIResource())
+		{
+			node.setLabel(determineNodeLabel(sceneNode.getResource().getURI(), model));
+		}
+		if (size > 0.0f && RdfCmap.isAutoLayout)
+		{
+			node.setSize(Math.max(Math.min(500.0f / size, 100.0f), 500.0f));
+		}
+		else
+		{
+			node.setSize(RdfCmap.nodeSize);
+		}
+		node.setX(sceneNode.getX());
+		node.setY(sceneNode.getY());
+		node.setZ(0.0f);
+		sceneNode2Node.put(sceneNode, node);
+		node2SceneNode.put(node, sceneNode);
+		directedGraph.addNode(node);
+		return node;
 	}
 
 	private static String determineNodeLabel(String uri, Model model)
@@ -0,0 +1,352 @@
+package com.osthus.rdfcmap.cmap.scene;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+
+import com.osthus.rdfcmap.helper.Point;
+import com.osthus.rdfcmap.helper.StatementDelta;
+import com.osthus.rdfcmap.util.AFOUtil;
+import com.osthus.rdfcmap.util.VizUtil;
+
+/**
+ * Scene
+ *
+ * Typed scene graph of a visualization: concepts, linking phrases, connections and their fonts, borders and images. The scene is read from the afv:
+ * resources of the map in one pass, so layouting and writing cxl do not query the model per property. Changed positions are written back to the model by
+ * writePositions().
+ */
+public class Scene
+{
+	private final Resource map;
+
+	private final List<SceneConcept> concepts = new ArrayList<>();
+
+	private final List<SceneLinkingPhrase> linkingPhrases = new ArrayList<>();
+
+	private final List<SceneConnection> connections = new ArrayList<>();
+
+	private final List<SceneImage> images = new ArrayList<>();
+
+	private final Map<Resource, SceneNode> resource2node = new HashMap<>();
+
+	private final Map<Resource, SceneFont> resource2font = new HashMap<>();
+
+	private final Map<Resource, SceneBorder> resource2border = new HashMap<>();
+
+	private final Map<Resource, SceneImage> resource2image = new HashMap<>();
+
+	private Scene(Resource map)
+	{
+		this.map = map;
+	}
+
+	/**
+	 * Read scene of the single map of the model.
+	 *
+	 * @param model
+	 * @return
+	 */
+	public static Scene read(Model model)
+	{
+		List<Statement> mapStatements = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, VizUtil.AFV_MAP).toList();
+		if (mapStatements.size() != 1)
+		{
+			throw new IllegalStateException("There must be exactly 1 map for visualization, but found number of maps: " + mapStatements.size());
+		}
+
+		Scene scene = new Scene(mapStatements.get(0).getSubject());
+
+		StmtIterator stmtIterator = model.listStatements((Resource) null, VizUtil.AFV_HAS_MAP, scene.map);
+		while (stmtIterator.hasNext())
+		{
+			Resource resource = stmtIterator.next().getSubject();
+			List<Statement> statements = resource.listProperties().toList();
+
+			if (hasType(statements, VizUtil.AFV_CONCEPT))
+			{
+				SceneConcept concept = new SceneConcept(resource);
+				scene.readNode(concept, statements);
+				concept.expanded = getString(statements, VizUtil.AFV_EXPANDED);
+				String level = getString(statements, VizUtil.AFV_CLASS_HIERARCHY_LEVEL);
+				if (level != null)
+				{
+					concept.classHierarchyLevel = Float.valueOf(level);
+				}
+				scene.concepts.add(concept);
+				scene.resource2node.put(resource, concept);
+			}
+
+			if (hasType(statements, VizUtil.AFV_LINK))
+			{
+				SceneLinkingPhrase linkingPhrase = new SceneLinkingPhrase(resource);
+				scene.readNode(linkingPhrase, statements);
+				linkingPhrase.minimumWidth = getString(statements, VizUtil.AFV_MINIMUM_WIDTH);
+				linkingPhrase.minimumHeight = getString(statements, VizUtil.AFV_MINIMUM_HEIGHT);
+				linkingPhrase.shadowColor = getString(statements, VizUtil.AFV_SHADOW_COLOR);
+				scene.linkingPhrases.add(linkingPhrase);
+				scene.resource2node.put(resource, linkingPhrase);
+			}
+
+			if (hasType(statements, VizUtil.AFV_CONNECTION))
+			{
+				scene.connections.add(readConnection(resource, statements));
+			}
+		}
+
+		StmtIterator imageIterator = model.listStatements((Resource) null, VizUtil.AFV_HAS_IMAGE, (RDFNode) null);
+		while (imageIterator.hasNext())
+		{
+			scene.images.add(scene.getImage(imageIterator.next().getResource()));
+		}
+
+		return scene;
+	}
+
+	private void readNode(SceneNode node, List<Statement> statements)
+	{
+		node.id = getString(statements, AFOUtil.DCT_IDENTIFIER);
+		node.title = getString(statements, AFOUtil.DCT_TITLE);
+		node.parent = getResource(statements, VizUtil.AFV_HAS_PARENT);
+		node.shortComment = getString(statements, VizUtil.AFV_SHORT_COMMENT);
+		node.longComment = getString(statements, VizUtil.AFV_LONG_COMMENT);
+		node.x = getInt(node.resource, statements, VizUtil.AFV_X_POSITION);
+		node.y = getInt(node.resource, statements, VizUtil.AFV_Y_POSITION);
+		node.width = getInt(node.resource, statements, VizUtil.AFV_WIDTH);
+		node.height = getInt(node.resource, statements, VizUtil.AFV_HEIGHT);
+		node.backgroundColor = getString(statements, VizUtil.AFV_BACKGROUND_COLOR);
+
+		Resource fontResource = getResource(statements, VizUtil.AFV_HAS_FONT);
+		if (fontResource != null)
+		{
+			node.font = getFont(fontResource);
+		}
+
+		Resource borderResource = getResource(statements, VizUtil.AFV_HAS_BORDER);
+		if (borderResource != null)
+		{
+			node.border = getBorder(borderResource);
+		}
+
+		Resource imageResource = getResource(statements, VizUtil.AFV_HAS_IMAGE);
+		if (imageResource != null)
+		{
+			node.image = getImage(imageResource);
+		}
+	}
+
+	private static SceneConnection readConnection(Resource resource, List<Statement> statements)
+	{
+		SceneConnection connection = new SceneConnection(resource);
+		connection.id = getString(statements, AFOUtil.DCT_IDENTIFIER);
+		connection.from = getResource(statements, VizUtil.AFV_CONNECTS_FROM);
+		connection.to = getResource(statements, VizUtil.AFV_CONNECTS_TO);
+		connection.anchorFrom = getString(statements, VizUtil.AFV_ANCHOR_FROM);
+		connection.anchorTo = getString(statements, VizUtil.AFV_ANCHOR_TO);
+		connection.lineType = getString(statements, VizUtil.AFV_LINE_TYPE);
+		connection.arrowHead = getString(statements, VizUtil.AFV_ARROW_HEAD);
+
+		for (Statement statement : statements)
+		{
+			if (!statement.getPredicate().equals(VizUtil.AFV_HAS_CONTROL_POINT))
+			{
+				continue;
+			}
+
+			connection.hasControlPoints = true;
+			Resource controlPoint = statement.getResource();
+			List<Statement> controlPointStatements = controlPoint.listProperties().toList();
+			if (!hasType(controlPointStatements, VizUtil.AFV_POINT))
+			{
+				continue;
+			}
+
+			String x = getString(controlPointStatements, VizUtil.AFV_X_POSITION);
+			String y = getString(controlPointStatements, VizUtil.AFV_Y_POSITION);
+			Integer index = Integer.valueOf(getString(controlPointStatements, AFOUtil.AFX_INDEX));
+			connection.controlPoints.add(new Point(connection.id, x, y, index));
+		}
+		Collections.sort(connection.controlPoints);
+
+		return connection;
+	}
+
+	private SceneFont getFont(Resource resource)
+	{
+		SceneFont font = resource2font.get(resource);
+		if (font == null)
+		{
+			List<Statement> statements = resource.listProperties().toList();
+			font = new SceneFont(resource);
+			font.style = getString(statements, VizUtil.AFV_STYLE);
+			font.size = getString(statements, VizUtil.AFV_SIZE);
+			font.color = getString(statements, VizUtil.AFV_COLOR);
+			resource2font.put(resource, font);
+		}
+		return font;
+	}
+
+	private SceneBorder getBorder(Resource resource)
+	{
+		SceneBorder border = resource2border.get(resource);
+		if (border == null)
+		{
+			List<Statement> statements = resource.listProperties().toList();
+			border = new SceneBorder(resource);
+			border.shape = getString(statements, VizUtil.AFV_SHAPE);
+			border.color = getString(statements, VizUtil.AFV_COLOR);
+			resource2border.put(resource, border);
+		}
+		return border;
+	}
+
+	private SceneImage getImage(Resource resource)
+	{
+		SceneImage image = resource2image.get(resource);
+		if (image == null)
+		{
+			List<Statement> statements = resource.listProperties().toList();
+			image = new SceneImage(resource);
+			image.identifier = getString(statements, VizUtil.AFV_IDENTIFIER);
+			image.bytes = getString(statements, VizUtil.AFV_BYTES);
+			image.style = getString(statements, VizUtil.AFV_STYLE);
+			image.layout = getString(statements, VizUtil.AFV_LAYOUT);
+			resource2image.put(resource, image);
+		}
+		return image;
+	}
+
+	private static boolean hasType(List<Statement> statements, Resource type)
+	{
+		for (Statement statement : statements)
+		{
+			if (statement.getPredicate().equals(AFOUtil.RDF_TYPE) && statement.getObject().equals(type))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Statement getFirst(List<Statement> statements, Property property)
+	{
+		for (Statement statement : statements)
+		{
+			if (statement.getPredicate().equals(property))
+			{
+				return statement;
+			}
+		}
+		return null;
+	}
+
+	private static String getString(List<Statement> statements, Property property)
+	{
+		Statement statement = getFirst(statements, property);
+		return statement == null ? null : statement.getString();
+	}
+
+	private static Resource getResource(List<Statement> statements, Property property)
+	{
+		Statement statement = getFirst(statements, property);
+		return statement == null ? null : statement.getResource();
+	}
+
+	private static int getInt(Resource resource, List<Statement> statements, Property property)
+	{
+		String value = getString(statements, property);
+		if (value == null)
+		{
+			throw new IllegalStateException("Missing " + property.getLocalName() + " of visualization resource: " + resource.getURI());
+		}
+
+		String trimmed = value.trim();
+		try
+		{
+			return Integer.parseInt(trimmed);
+		}
+		catch (NumberFormatException e)
+		{
+			return (int) Math.round(Double.parseDouble(trimmed));
+		}
+	}
+
+	public Resource getMap()
+	{
+		return map;
+	}
+
+	public List<SceneConcept> getConcepts()
+	{
+		return concepts;
+	}
+
+	public List<SceneLinkingPhrase> getLinkingPhrases()
+	{
+		return linkingPhrases;
+	}
+
+	public List<SceneConnection> getConnections()
+	{
+		return connections;
+	}
+
+	/**
+	 * @return images referenced by any resource of the model, in order of reference
+	 */
+	public List<SceneImage> getImages()
+	{
+		return images;
+	}
+
+	/**
+	 * @param resource
+	 * @return concept or linking phrase of the afv: resource
+	 */
+	public SceneNode getNode(Resource resource)
+	{
+		SceneNode node = resource2node.get(resource);
+		if (node == null)
+		{
+			throw new IllegalStateException("Visualization resource is not part of the map: " + resource);
+		}
+		return node;
+	}
+
+	/**
+	 * Write positions changed since the scene was read to the afv: resources of the model. Old positions are replaced in one bulk change of the model.
+	 *
+	 * @param model
+	 * @return
+	 */
+	public Model writePositions(Model model)
+	{
+		StatementDelta delta = new StatementDelta();
+		for (SceneNode node : resource2node.values())
+		{
+			if (!node.isMoved)
+			{
+				continue;
+			}
+			replaceLiteralValue(model, delta, node.resource, VizUtil.AFV_X_POSITION, String.valueOf(node.x));
+			replaceLiteralValue(model, delta, node.resource, VizUtil.AFV_Y_POSITION, String.valueOf(node.y));
+			node.isMoved = false;
+		}
+		return delta.apply(model);
+	}
+
+	private static void replaceLiteralValue(Model model, StatementDelta delta, Resource resource, Property property, String value)
+	{
+		delta.removeAll(model.listStatements(resource, property, (RDFNode) null).toList());
+		delta.add(model.createStatement(resource, property, model.createTypedLiteral(value)));
+	}
+}
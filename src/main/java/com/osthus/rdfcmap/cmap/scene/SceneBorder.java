@@ -0,0 +1,37 @@
+package com.osthus.rdfcmap.cmap.scene;
+
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * SceneBorder
+ *
+ * Border of concepts and linking phrases, read from an afv:Border resource.
+ */
+public class SceneBorder
+{
+	final Resource resource;
+
+	String shape = null;
+
+	String color = null;
+
+	SceneBorder(Resource resource)
+	{
+		this.resource = resource;
+	}
+
+	public Resource getResource()
+	{
+		return resource;
+	}
+
+	public String getShape()
+	{
+		return shape;
+	}
+
+	public String getColor()
+	{
+		return color;
+	}
+}
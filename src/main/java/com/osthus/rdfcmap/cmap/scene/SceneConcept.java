@@ -0,0 +1,33 @@
+package com.osthus.rdfcmap.cmap.scene;
+
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * SceneConcept
+ *
+ * Concept of the visualization, read from an afv:Concept resource.
+ */
+public class SceneConcept extends SceneNode
+{
+	String expanded = null;
+
+	float classHierarchyLevel = 0.0f;
+
+	SceneConcept(Resource resource)
+	{
+		super(resource);
+	}
+
+	public String getExpanded()
+	{
+		return expanded;
+	}
+
+	/**
+	 * @return level of the class hierarchy, 0 if not determined
+	 */
+	public float getClassHierarchyLevel()
+	{
+		return classHierarchyLevel;
+	}
+}
@@ -0,0 +1,94 @@
+package com.osthus.rdfcmap.cmap.scene;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.rdf.model.Resource;
+
+import com.osthus.rdfcmap.helper.Point;
+
+/**
+ * SceneConnection
+ *
+ * Connection between a concept and a linking phrase, read from an afv:Connection resource. Control points are sorted by index.
+ */
+public class SceneConnection
+{
+	final Resource resource;
+
+	String id = null;
+
+	Resource from = null;
+
+	Resource to = null;
+
+	String anchorFrom = null;
+
+	String anchorTo = null;
+
+	String lineType = null;
+
+	String arrowHead = null;
+
+	boolean hasControlPoints = false;
+
+	final List<Point> controlPoints = new ArrayList<>();
+
+	SceneConnection(Resource resource)
+	{
+		this.resource = resource;
+	}
+
+	public Resource getResource()
+	{
+		return resource;
+	}
+
+	public String getId()
+	{
+		return id;
+	}
+
+	public Resource getFrom()
+	{
+		return from;
+	}
+
+	public Resource getTo()
+	{
+		return to;
+	}
+
+	public String getAnchorFrom()
+	{
+		return anchorFrom;
+	}
+
+	public String getAnchorTo()
+	{
+		return anchorTo;
+	}
+
+	public String getLineType()
+	{
+		return lineType;
+	}
+
+	public String getArrowHead()
+	{
+		return arrowHead;
+	}
+
+	/**
+	 * @return true if the connection references control points, even if none of them is a valid afv:Point
+	 */
+	public boolean hasControlPoints()
+	{
+		return hasControlPoints;
+	}
+
+	public List<Point> getControlPoints()
+	{
+		return controlPoints;
+	}
+}
@@ -0,0 +1,44 @@
+package com.osthus.rdfcmap.cmap.scene;
+
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * SceneFont
+ *
+ * Font of concepts and linking phrases, read from an afv:Font resource.
+ */
+public class SceneFont
+{
+	final Resource resource;
+
+	String style = null;
+
+	String size = null;
+
+	String color = null;
+
+	SceneFont(Resource resource)
+	{
+		this.resource = resource;
+	}
+
+	public Resource getResource()
+	{
+		return resource;
+	}
+
+	public String getStyle()
+	{
+		return style;
+	}
+
+	public String getSize()
+	{
+		return size;
+	}
+
+	public String getColor()
+	{
+		return color;
+	}
+}
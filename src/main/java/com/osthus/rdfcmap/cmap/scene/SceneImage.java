@@ -0,0 +1,61 @@
+package com.osthus.rdfcmap.cmap.scene;
+
+import org.apache.jena.rdf.model.Resource;
+
+import com.osthus.rdfcmap.util.CmapUtil;
+
+/**
+ * SceneImage
+ *
+ * Background image of concepts and linking phrases, read from an afv:Image resource.
+ */
+public class SceneImage
+{
+	final Resource resource;
+
+	String identifier = null;
+
+	String bytes = null;
+
+	String style = null;
+
+	String layout = null;
+
+	SceneImage(Resource resource)
+	{
+		this.resource = resource;
+	}
+
+	public Resource getResource()
+	{
+		return resource;
+	}
+
+	public String getIdentifier()
+	{
+		return identifier;
+	}
+
+	/**
+	 * @return true if the image is explicitly set to none
+	 */
+	public boolean isNoImage()
+	{
+		return identifier != null && identifier.toLowerCase().trim().equals(CmapUtil.NO_IMAGE);
+	}
+
+	public String getBytes()
+	{
+		return bytes;
+	}
+
+	public String getStyle()
+	{
+		return style;
+	}
+
+	public String getLayout()
+	{
+		return layout;
+	}
+}
@@ -0,0 +1,37 @@
+package com.osthus.rdfcmap.cmap.scene;
+
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * SceneLinkingPhrase
+ *
+ * Linking phrase of the visualization, read from an afv:Link resource.
+ */
+public class SceneLinkingPhrase extends SceneNode
+{
+	String minimumWidth = null;
+
+	String minimumHeight = null;
+
+	String shadowColor = null;
+
+	SceneLinkingPhrase(Resource resource)
+	{
+		super(resource);
+	}
+
+	public String getMinimumWidth()
+	{
+		return minimumWidth;
+	}
+
+	public String getMinimumHeight()
+	{
+		return minimumHeight;
+	}
+
+	public String getShadowColor()
+	{
+		return shadowColor;
+	}
+}
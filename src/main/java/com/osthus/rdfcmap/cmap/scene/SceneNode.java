@@ -0,0 +1,124 @@
+package com.osthus.rdfcmap.cmap.scene;
+
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * SceneNode
+ *
+ * Common visualization properties of concepts and linking phrases. Position and size are kept as int, positions changed by layouting are marked so that
+ * only these are written back to the model.
+ */
+public abstract class SceneNode
+{
+	final Resource resource;
+
+	String id = null;
+
+	String title = null;
+
+	Resource parent = null;
+
+	String shortComment = null;
+
+	String longComment = null;
+
+	int x = 0;
+
+	int y = 0;
+
+	int width = 0;
+
+	int height = 0;
+
+	boolean isMoved = false;
+
+	String backgroundColor = null;
+
+	SceneFont font = null;
+
+	SceneBorder border = null;
+
+	SceneImage image = null;
+
+	SceneNode(Resource resource)
+	{
+		this.resource = resource;
+	}
+
+	public Resource getResource()
+	{
+		return resource;
+	}
+
+	public String getId()
+	{
+		return id;
+	}
+
+	public String getTitle()
+	{
+		return title;
+	}
+
+	public Resource getParent()
+	{
+		return parent;
+	}
+
+	public String getShortComment()
+	{
+		return shortComment;
+	}
+
+	public String getLongComment()
+	{
+		return longComment;
+	}
+
+	public int getX()
+	{
+		return x;
+	}
+
+	public int getY()
+	{
+		return y;
+	}
+
+	public void setPosition(int x, int y)
+	{
+		this.x = x;
+		this.y = y;
+		isMoved = true;
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	public String getBackgroundColor()
+	{
+		return backgroundColor;
+	}
+
+	public SceneFont getFont()
+	{
+		return font;
+	}
+
+	public SceneBorder getBorder()
+	{
+		return border;
+	}
+
+	public SceneImage getImage()
+	{
+		return image;
+	}
+}
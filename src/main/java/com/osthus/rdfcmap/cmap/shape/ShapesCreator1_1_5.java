@@ -39,6 +39,7 @@ import com.osthus.rdfcmap.cmap.Cmap2TurtleConverter;
 import com.osthus.rdfcmap.cmap.Turtle2CmapConverter;
 import com.osthus.rdfcmap.enums.ConceptProperty;
 import com.osthus.rdfcmap.helper.ConceptRelation;
+import com.osthus.rdfcmap.helper.UiProperties;
 import com.osthus.rdfcmap.util.AFOUtil;
 import com.osthus.rdfcmap.util.CmapUtil;
 import com.osthus.rdfcmap.util.Prefixes;
@@ -616,9 +617,9 @@ public class ShapesCreator1_1_5
 
 	private String determineName(Model model, Resource resource)
 	{
-		Map<String, String> properties = new HashMap<>();
+		UiProperties properties = new UiProperties();
 		properties = turtle2CmapConverter.createTitle(model, resource, properties);
-		String propertyName = properties.get(ConceptProperty.TITLE.name());
+		String propertyName = properties.get(ConceptProperty.TITLE);
 		propertyName = cmap2TurtleConverter.unbreakString(propertyName);
 		return propertyName.trim();
 	}
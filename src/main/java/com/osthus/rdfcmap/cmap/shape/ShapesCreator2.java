@@ -43,6 +43,7 @@ import com.osthus.rdfcmap.helper.ConceptRelation;
 import com.osthus.rdfcmap.sparql.PathList;
 import com.osthus.rdfcmap.util.AFOUtil;
 import com.osthus.rdfcmap.util.CmapUtil;
+import com.osthus.rdfcmap.util.InstanceGraph;
 import com.osthus.rdfcmap.util.Prefixes;
 import com.osthus.rdfcmap.util.RdfUtil;
 import com.osthus.rdfcmap.util.VizUtil;
@@ -357,38 +358,35 @@ public class ShapesCreator2
 
 		Set<String> visited = pathAndModel.getPathList().getPathList();
 
-		StmtIterator nodeStmtIterator = model.listStatements(currentNode, (Property) null, (RDFNode) null);
-		while (nodeStmtIterator.hasNext())
+		InstanceGraph instanceGraph = InstanceGraph.get(model);
+		int currentId = instanceGraph.getId(currentNode);
+		int rdfTypeId = instanceGraph.getPredicateId(AFOUtil.RDF_TYPE);
+		int endEdge = currentId < 0 ? 0 : instanceGraph.getOutEnd(currentId);
+		for (int edge = currentId < 0 ? 0 : instanceGraph.getOutStart(currentId); edge < endEdge; edge++)
 		{
-			Statement statement = nodeStmtIterator.next();
-			if (statement.getObject().isLiteral())
+			if (instanceGraph.getOutPredicate(edge) == rdfTypeId)
 			{
 				continue;
 			}
 
-			if (statement.getPredicate().equals(AFOUtil.RDF_TYPE))
+			Property predicate = instanceGraph.getPredicate(instanceGraph.getOutPredicate(edge));
+			if (predicate.getURI().startsWith(VizUtil.AFV_PREFIX))
 			{
 				continue;
 			}
 
-			if (statement.getPredicate().getURI().startsWith(VizUtil.AFV_PREFIX))
+			Resource nextNode = instanceGraph.getNode(instanceGraph.getOutTarget(edge));
+			if (nextNode.isURIResource() && nextNode.getURI().startsWith(VizUtil.AFV_PREFIX))
 			{
 				continue;
 			}
 
-			if (statement.getObject().isURIResource() && statement.getObject().asResource().getURI().startsWith(VizUtil.AFV_PREFIX))
-			{
-				continue;
-			}
-
-			if (statement.getObject().isResource() && statement.getObject().asResource().hasProperty(VizUtil.AFV_IS_LITERAL_NODE)
-					&& statement.getObject().asResource().getProperty(VizUtil.AFV_IS_LITERAL_NODE).getBoolean())
+			if (nextNode.hasProperty(VizUtil.AFV_IS_LITERAL_NODE) && nextNode.getProperty(VizUtil.AFV_IS_LITERAL_NODE).getBoolean())
 			{
 				// skip literal nodes
 				continue;
 			}
 
-			Resource nextNode = statement.getResource();
 			String id;
 			if (nextNode.isAnon())
 			{
@@ -406,7 +404,7 @@ public class ShapesCreator2
 					continue;
 				}
 			}
-			else if (visited.contains(id) && link.getURI().equals(statement.getPredicate().getURI()))
+			else if (visited.contains(id) && link.getURI().equals(predicate.getURI()))
 			{
 				// current node is inversely linked and next node was already visited and iterated link of statement is equal to inverse link
 				// this is first node after inverse link, now add shape for backwards direction for one single step
@@ -415,9 +413,9 @@ public class ShapesCreator2
 
 				Resource propertyShape = shapesModel.createResource();
 				propertyShape.addProperty(AFOUtil.RDF_TYPE, AFOUtil.SHACL_PROPERTY_SHAPE);
-				propertyShape.addProperty(AFOUtil.SHACL_PATH, statement.getPredicate().asResource());
+				propertyShape.addProperty(AFOUtil.SHACL_PATH, predicate.asResource());
 
-				propertyShape = addShapeCardinality(propertyShape, currentNode, statement.getPredicate(), nextNode, model, false);
+				propertyShape = addShapeCardinality(propertyShape, currentNode, predicate, nextNode, model, false);
 
 				String shapeLabel = getShapesLabel(nextNode, model, false);
 				Resource shapeResource;
@@ -454,9 +452,9 @@ public class ShapesCreator2
 			// now update shapesmodel for currentnode linking to nextnode
 			Resource propertyShape = shapesModel.createResource();
 			propertyShape.addProperty(AFOUtil.RDF_TYPE, AFOUtil.SHACL_PROPERTY_SHAPE);
-			propertyShape.addProperty(AFOUtil.SHACL_PATH, statement.getPredicate().asResource()); // model.write(System.out,"TTL")
+			propertyShape.addProperty(AFOUtil.SHACL_PATH, predicate.asResource()); // model.write(System.out,"TTL")
 
-			propertyShape = addShapeCardinality(propertyShape, currentNode, statement.getPredicate(), nextNode, model, false);
+			propertyShape = addShapeCardinality(propertyShape, currentNode, predicate, nextNode, model, false);
 
 			String shapeLabel = getShapesLabel(nextNode, model, isForwardLinked);
 			Resource shapeResource;
@@ -477,7 +475,7 @@ public class ShapesCreator2
 			shapeResource.addProperty(AFOUtil.RDF_TYPE, AFOUtil.SHACL_NODE_SHAPE);
 
 			pathAndModel.setNodeShape(shapeResource);
-			pathAndModel = findNeighbour(model, nextNode, statement.getPredicate(), pathAndModel, true);
+			pathAndModel = findNeighbour(model, nextNode, predicate, pathAndModel, true);
 			Resource nextNodeShape = pathAndModel.getNodeShape();
 
 			propertyShape.addProperty(AFOUtil.SHACL_QUALIFIED_VALUE_SHAPE, nextNodeShape);
@@ -900,33 +898,34 @@ public class ShapesCreator2
 		Resource currentNodeShape = pathAndModel.getNodeShape();
 
 		Set<String> visited = pathAndModel.getPathList().getPathList();
-		StmtIterator reverseNodeStmtIterator = model.listStatements((Resource) null, (Property) null, currentNode);
-		while (reverseNodeStmtIterator.hasNext())
+		InstanceGraph instanceGraph = InstanceGraph.get(model);
+		int currentId = instanceGraph.getId(currentNode);
+		int rdfTypeId = instanceGraph.getPredicateId(AFOUtil.RDF_TYPE);
+		int endEdge = currentId < 0 ? 0 : instanceGraph.getInEnd(currentId);
+		for (int edge = currentId < 0 ? 0 : instanceGraph.getInStart(currentId); edge < endEdge; edge++)
 		{
-			Statement statement = reverseNodeStmtIterator.next();
-
-			if (statement.getPredicate().equals(AFOUtil.RDF_TYPE))
+			if (instanceGraph.getInPredicate(edge) == rdfTypeId)
 			{
 				continue;
 			}
 
-			if (statement.getPredicate().getURI().startsWith(VizUtil.AFV_PREFIX))
+			Property predicate = instanceGraph.getPredicate(instanceGraph.getInPredicate(edge));
+			if (predicate.getURI().startsWith(VizUtil.AFV_PREFIX))
 			{
 				continue;
 			}
 
-			if (statement.getSubject().isURIResource() && statement.getSubject().asResource().getURI().startsWith(VizUtil.AFV_PREFIX))
+			Resource nextNode = instanceGraph.getNode(instanceGraph.getInSource(edge));
+			if (nextNode.isURIResource() && nextNode.getURI().startsWith(VizUtil.AFV_PREFIX))
 			{
 				continue;
 			}
 
-			if (statement.getSubject().hasProperty(VizUtil.AFV_IS_LITERAL_NODE) && statement.getSubject().getProperty(VizUtil.AFV_IS_LITERAL_NODE).getBoolean())
+			if (nextNode.hasProperty(VizUtil.AFV_IS_LITERAL_NODE) && nextNode.getProperty(VizUtil.AFV_IS_LITERAL_NODE).getBoolean())
 			{
 				continue;
 			}
 
-			Resource nextNode = statement.getSubject();
-
 			String id;
 			if (nextNode.isAnon())
 			{
@@ -955,10 +954,10 @@ public class ShapesCreator2
 
 			// inversepath is modeled like: ex:propertyshape sh:path [ sh:inversePath ex:property ] .
 			Resource inversePathResource = shapesModel.createResource();
-			inversePathResource.addProperty(AFOUtil.SHACL_INVERSE_PATH, statement.getPredicate());
+			inversePathResource.addProperty(AFOUtil.SHACL_INVERSE_PATH, predicate);
 			propertyShape.addProperty(AFOUtil.SHACL_PATH, inversePathResource);
 
-			propertyShape = addShapeCardinality(propertyShape, currentNode, statement.getPredicate(), nextNode, model, true);
+			propertyShape = addShapeCardinality(propertyShape, currentNode, predicate, nextNode, model, true);
 
 			String shapeLabel = getShapesLabel(nextNode, model, false);
 			Resource shapeResource;
@@ -979,7 +978,7 @@ public class ShapesCreator2
 			shapeResource.addProperty(AFOUtil.RDF_TYPE, AFOUtil.SHACL_NODE_SHAPE);
 
 			pathAndModel.setNodeShape(shapeResource);
-			pathAndModel = findNeighbour(model, nextNode, statement.getPredicate(), pathAndModel, false);
+			pathAndModel = findNeighbour(model, nextNode, predicate, pathAndModel, false);
 			Resource nextNodeShape = pathAndModel.getNodeShape();
 
 			propertyShape.addProperty(AFOUtil.SHACL_QUALIFIED_VALUE_SHAPE, nextNodeShape);
@@ -0,0 +1,17 @@
+package com.osthus.rdfcmap.enums;
+
+/**
+ * Sections of cxl that can be selected for loading.
+ */
+public enum CxlSection
+{
+	CONCEPTS, // concept-list
+	LINKING_PHRASES, // linking-phrase-list
+	CONNECTIONS, // connection-list
+	CONCEPT_APPEARANCES, // concept-appearance-list
+	LINKING_PHRASE_APPEARANCES, // linking-phrase-appearance-list
+	CONNECTION_APPEARANCES, // connection-appearance-list
+	CONTROL_POINTS, // control-point of connection-appearance
+	IMAGES, // image-list
+	RDF_MODEL // rdf-model
+}
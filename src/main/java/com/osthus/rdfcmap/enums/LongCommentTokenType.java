@@ -0,0 +1,15 @@
+package com.osthus.rdfcmap.enums;
+
+/**
+ * Token types of turtle fragments in long comments.
+ */
+public enum LongCommentTokenType
+{
+	TEXT, // anything not covered by other token types
+	IRI, // <http://...>
+	IDENTIFIER, // human readable identifier <<prefix:label>> or «prefix:label»
+	PREFIXED_NAME, // prefix:localName
+	PLACEHOLDER, // ?variable-placeholder-name
+	STRING, // quoted literal
+	COMMENT // # until end of line
+}
@@ -0,0 +1,41 @@
+package com.osthus.rdfcmap.helper;
+
+import org.apache.jena.rdf.model.Model;
+
+import com.osthus.rdfcmap.cmap.xml.CMap;
+
+/**
+ * Result of reading a cxl file: the parsed map and its embedded RDF model.
+ */
+public class CxlReaderResult
+{
+	private CMap cmap;
+	private Model model;
+
+	public CxlReaderResult(CMap cmap, Model model)
+	{
+		super();
+		this.cmap = cmap;
+		this.model = model;
+	}
+
+	public CMap getCmap()
+	{
+		return cmap;
+	}
+
+	public void setCmap(CMap cmap)
+	{
+		this.cmap = cmap;
+	}
+
+	public Model getModel()
+	{
+		return model;
+	}
+
+	public void setModel(Model model)
+	{
+		this.model = model;
+	}
+}
@@ -0,0 +1,61 @@
+package com.osthus.rdfcmap.helper;
+
+import com.osthus.rdfcmap.enums.LongCommentTokenType;
+
+/**
+ * LongCommentToken
+ *
+ * Token of a turtle fragment in a long comment. The text is the token as written, the content is the text without delimiters (IRI, identifier).
+ */
+public class LongCommentToken
+{
+	private final LongCommentTokenType type;
+
+	private final String text;
+
+	private final String content;
+
+	public LongCommentToken(LongCommentTokenType type, String text, String content)
+	{
+		this.type = type;
+		this.text = text;
+		this.content = content;
+	}
+
+	public LongCommentTokenType getType()
+	{
+		return type;
+	}
+
+	public String getText()
+	{
+		return text;
+	}
+
+	public String getContent()
+	{
+		return content;
+	}
+
+	/**
+	 * @return prefix of a prefixed name
+	 */
+	public String getPrefix()
+	{
+		return content.substring(0, content.indexOf(':'));
+	}
+
+	/**
+	 * @return local name of a prefixed name
+	 */
+	public String getLocalName()
+	{
+		return content.substring(content.indexOf(':') + 1);
+	}
+
+	@Override
+	public String toString()
+	{
+		return type.name() + ": " + text;
+	}
+}
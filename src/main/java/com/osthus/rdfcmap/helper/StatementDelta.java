@@ -1,42 +1,92 @@
 package com.osthus.rdfcmap.helper;
 
-import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Statement;
 
 /**
+ * StatementDelta
+ *
+ * Buffer of pending changes of a model. Changes are kept as triples, duplicates are dropped and adding a triple cancels its pending removal and vice
+ * versa, so that the last change of a triple wins. The buffer is applied to the graph of a model by one bulk removal and one bulk addition.
+ *
  * @author Helge Krieg, OSTHUS GmbH
  */
 public class StatementDelta
 {
-	private List<Statement> statementsToAdd;
-	private List<Statement> statementsToRemove;
+	private final Set<Triple> triplesToAdd = new LinkedHashSet<Triple>();
 
-	StatementDelta(List<Statement> statementsToAdd, List<Statement> statementsToRemove)
+	private final Set<Triple> triplesToRemove = new LinkedHashSet<Triple>();
+
+	public void add(Statement statement)
 	{
-		super();
-		this.statementsToAdd = statementsToAdd;
-		this.statementsToRemove = statementsToRemove;
+		add(statement.asTriple());
 	}
 
-	public List<Statement> getStatementsToAdd()
+	public void add(Triple triple)
 	{
-		return statementsToAdd;
+		triplesToRemove.remove(triple);
+		triplesToAdd.add(triple);
 	}
 
-	public void setStatementsToAdd(List<Statement> statementsToAdd)
+	public void addAll(Collection<Statement> statements)
 	{
-		this.statementsToAdd = statementsToAdd;
+		for (Statement statement : statements)
+		{
+			add(statement.asTriple());
+		}
 	}
 
-	public List<Statement> getStatementsToRemove()
+	public void remove(Statement statement)
 	{
-		return statementsToRemove;
+		remove(statement.asTriple());
 	}
 
-	public void setStatementsToRemove(List<Statement> statementsToRemove)
+	public void remove(Triple triple)
 	{
-		this.statementsToRemove = statementsToRemove;
+		triplesToAdd.remove(triple);
+		triplesToRemove.add(triple);
 	}
 
+	public void removeAll(Collection<Statement> statements)
+	{
+		for (Statement statement : statements)
+		{
+			remove(statement.asTriple());
+		}
+	}
+
+	public boolean isEmpty()
+	{
+		return triplesToAdd.isEmpty() && triplesToRemove.isEmpty();
+	}
+
+	/**
+	 * Apply pending changes to the graph of the model and clear the buffer. Listeners of the model are notified once per bulk operation.
+	 *
+	 * @param model
+	 * @return
+	 */
+	public Model apply(Model model)
+	{
+		Graph graph = model.getGraph();
+		if (!triplesToRemove.isEmpty())
+		{
+			GraphUtil.delete(graph, new ArrayList<Triple>(triplesToRemove));
+		}
+		if (!triplesToAdd.isEmpty())
+		{
+			GraphUtil.add(graph, new ArrayList<Triple>(triplesToAdd));
+		}
+		triplesToRemove.clear();
+		triplesToAdd.clear();
+		return model;
+	}
 }
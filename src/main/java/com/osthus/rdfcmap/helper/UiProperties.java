@@ -0,0 +1,147 @@
+package com.osthus.rdfcmap.helper;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.osthus.rdfcmap.enums.ConceptProperty;
+
+/**
+ * UiProperties
+ *
+ * Visualization properties of a single concept, link, connection, control point or image. Position and size are kept as primitive int, all other
+ * properties as text keyed by ConceptProperty. Records are merged into the afv: resources of the model by VisualizationInfoBuilder, cxl is written from the
+ * Scene that is read from these resources.
+ */
+public class UiProperties
+{
+	private final Map<ConceptProperty, String> values = new EnumMap<ConceptProperty, String>(ConceptProperty.class);
+
+	private int x;
+
+	private int y;
+
+	private int width;
+
+	private int height;
+
+	private boolean hasX = false;
+
+	private boolean hasY = false;
+
+	private boolean hasWidth = false;
+
+	private boolean hasHeight = false;
+
+	public String get(ConceptProperty property)
+	{
+		switch (property)
+		{
+			case X:
+				return hasX ? String.valueOf(x) : null;
+			case Y:
+				return hasY ? String.valueOf(y) : null;
+			case WIDTH:
+				return hasWidth ? String.valueOf(width) : null;
+			case HEIGHT:
+				return hasHeight ? String.valueOf(height) : null;
+			default:
+				return values.get(property);
+		}
+	}
+
+	public void put(ConceptProperty property, String value)
+	{
+		switch (property)
+		{
+			case X:
+				setX(parseInt(value));
+				break;
+			case Y:
+				setY(parseInt(value));
+				break;
+			case WIDTH:
+				setWidth(parseInt(value));
+				break;
+			case HEIGHT:
+				setHeight(parseInt(value));
+				break;
+			default:
+				values.put(property, value);
+		}
+	}
+
+	public boolean containsKey(ConceptProperty property)
+	{
+		switch (property)
+		{
+			case X:
+				return hasX;
+			case Y:
+				return hasY;
+			case WIDTH:
+				return hasWidth;
+			case HEIGHT:
+				return hasHeight;
+			default:
+				return values.containsKey(property);
+		}
+	}
+
+	public int getX()
+	{
+		return x;
+	}
+
+	public void setX(int x)
+	{
+		this.x = x;
+		hasX = true;
+	}
+
+	public int getY()
+	{
+		return y;
+	}
+
+	public void setY(int y)
+	{
+		this.y = y;
+		hasY = true;
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public void setWidth(int width)
+	{
+		this.width = width;
+		hasWidth = true;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	public void setHeight(int height)
+	{
+		this.height = height;
+		hasHeight = true;
+	}
+
+	private static int parseInt(String value)
+	{
+		String trimmed = value.trim();
+		try
+		{
+			return Integer.parseInt(trimmed);
+		}
+		catch (NumberFormatException e)
+		{
+			// cmap tools writes integers, tolerate decimals of edited files
+			return (int) Math.round(Double.parseDouble(trimmed));
+		}
+	}
+}
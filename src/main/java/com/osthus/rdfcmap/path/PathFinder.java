@@ -26,15 +26,17 @@ import org.apache.jena.rdf.model.ResourceFactory;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.util.iterator.ExtendedIterator;
-import org.apache.jena.util.iterator.Filter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.xml.sax.SAXException;
 
 import com.osthus.rdfcmap.cmap.Cmap2TurtleConverter;
+import com.osthus.rdfcmap.cmap.CxlReader;
 import com.osthus.rdfcmap.cmap.Turtle2CmapConverter;
+import com.osthus.rdfcmap.helper.CxlReaderResult;
 import com.osthus.rdfcmap.util.AFOUtil;
 import com.osthus.rdfcmap.util.CmapUtil;
+import com.osthus.rdfcmap.util.InstanceGraph;
 import com.osthus.rdfcmap.util.Prefixes;
 import com.osthus.rdfcmap.util.RdfUtil;
 import com.osthus.rdfcmap.util.VizUtil;
@@ -54,7 +56,8 @@ public class PathFinder
 		log.info("Listing graphs from cxl: " + pathToInputFile.toString()
 				+ ((additionalFiles != null && additionalFiles.length > 0) ? " using additional files: " + StringUtils.join(additionalFiles, ", ") : ""));
 
-		Model model = CmapUtil.extractStoredModelFromCxl(pathToInputFile);
+		CxlReaderResult cxlReaderResult = CxlReader.read(pathToInputFile, CxlReader.STRUCTURE_SECTIONS);
+		Model model = cxlReaderResult.getModel();
 		CmapUtil.addTriples(additionalFiles, model);
 		if (model.isEmpty())
 		{
@@ -68,7 +71,7 @@ public class PathFinder
 		cmap2TurtleConverter = new Cmap2TurtleConverter();
 		turtle2CmapConverter = new Turtle2CmapConverter();
 
-		model = cmap2TurtleConverter.createOrUpdateVisualizationModel(pathToInputFile, model);
+		model = cmap2TurtleConverter.createOrUpdateVisualizationModel(cxlReaderResult.getCmap(), pathToInputFile, model);
 		model = cmap2TurtleConverter.updateModel(model);
 		model = cmap2TurtleConverter.cleanModel(model);
 
@@ -86,12 +89,17 @@ public class PathFinder
 		Set<Resource> instances = extractInstances(model, rootNode);
 		log.info("Finding shortest paths to " + instances.size() + " target nodes.");
 
+		// one breadth-first search from root yields the shortest paths to all instances
+		InstanceGraph instanceGraph = InstanceGraph.get(model);
+		int rootId = instanceGraph.getId(rootNode);
+		int[] predecessorEdges = rootId < 0 ? null : instanceGraph.findShortestPathTree(rootId);
+
 		List<ShortestPath> paths = new ArrayList<>();
 		for (Iterator<Resource> iterator = instances.iterator(); iterator.hasNext();)
 		{
 			Resource instance = iterator.next();
 			log.debug("Finding path from root node to \"" + getResourceLabel(instance) + "\" <" + instance.getURI() + ">");
-			OntTools.Path path = OntTools.findShortestPath(model, rootNode, instance, Filter.any);
+			OntTools.Path path = createPath(instanceGraph, predecessorEdges, instanceGraph.getId(instance));
 
 			int hops = 0;
 			if (path != null)
@@ -113,6 +121,25 @@ public class PathFinder
 		return sb.toString();
 	}
 
+	private OntTools.Path createPath(InstanceGraph instanceGraph, int[] predecessorEdges, int targetId)
+	{
+		if (predecessorEdges == null || targetId < 0 || predecessorEdges[targetId] < 0)
+		{
+			return null;
+		}
+
+		List<Statement> statements = new ArrayList<>();
+		for (int edge = predecessorEdges[targetId]; edge >= 0; edge = predecessorEdges[instanceGraph.getOutSource(edge)])
+		{
+			statements.add(instanceGraph.createStatement(instanceGraph.getOutSource(edge), instanceGraph.getOutPredicate(edge), instanceGraph.getOutTarget(edge)));
+		}
+		Collections.reverse(statements);
+
+		OntTools.Path path = new OntTools.Path();
+		path.addAll(statements);
+		return path;
+	}
+
 	private String createTypeGraphs(List<ShortestPath> paths, Model model)
 	{
 		List<String> graphs = new ArrayList<>();
@@ -31,9 +31,12 @@ import org.xml.sax.SAXException;
 
 import com.osthus.rdfcmap.RdfCmap;
 import com.osthus.rdfcmap.cmap.Cmap2TurtleConverter;
+import com.osthus.rdfcmap.cmap.CxlReader;
+import com.osthus.rdfcmap.helper.CxlReaderResult;
 import com.osthus.rdfcmap.helper.PreparedModels;
 import com.osthus.rdfcmap.util.AFOUtil;
 import com.osthus.rdfcmap.util.CmapUtil;
+import com.osthus.rdfcmap.util.InstanceGraph;
 import com.osthus.rdfcmap.util.Prefixes;
 import com.osthus.rdfcmap.util.VizUtil;
 
@@ -60,7 +63,8 @@ public class SparqlCreator
 		log.info("Creating sparql from cxl: " + pathToInputFile.toString()
 				+ ((additionalFiles != null && additionalFiles.length > 0) ? " using additional files: " + StringUtils.join(additionalFiles, ", ") : ""));
 
-		Model model = CmapUtil.extractStoredModelFromCxl(pathToInputFile);
+		CxlReaderResult cxlReaderResult = CxlReader.read(pathToInputFile, CxlReader.STRUCTURE_SECTIONS);
+		Model model = cxlReaderResult.getModel();
 		model = CmapUtil.addTriples(additionalFiles, model);
 		if (model.isEmpty())
 		{
@@ -73,7 +77,7 @@ public class SparqlCreator
 
 		cmap2TurtleConverter = new Cmap2TurtleConverter();
 
-		model = cmap2TurtleConverter.createOrUpdateVisualizationModel(pathToInputFile, model);
+		model = cmap2TurtleConverter.createOrUpdateVisualizationModel(cxlReaderResult.getCmap(), pathToInputFile, model);
 		model = cmap2TurtleConverter.updateModel(model);
 		model = cmap2TurtleConverter.cleanModel(model);
 		PreparedModels preparedModels = cmap2TurtleConverter.prepareSeparatedModels(model);
@@ -181,7 +185,12 @@ public class SparqlCreator
 		Set<String> visited = new LinkedHashSet<String>();
 		visited.add(startNode.getURI());
 		PathList pathList = new PathList(visited, false);
-		pathList = findNeighbour(model, startNode, targetNode, pathList);
+		InstanceGraph instanceGraph = InstanceGraph.get(model);
+		int startId = instanceGraph.getId(startNode);
+		if (startId >= 0)
+		{
+			pathList = findNeighbour(instanceGraph, startId, instanceGraph.getId(targetNode), pathList);
+		}
 
 		if (!pathList.isFoundTarget())
 		{
@@ -534,7 +543,7 @@ public class SparqlCreator
 		return "_:" + typeLabel + id;
 	}
 
-	private PathList findNeighbour(Model model, Resource currentNode, Resource targetNode, PathList pathList)
+	private PathList findNeighbour(InstanceGraph instanceGraph, int currentId, int targetId, PathList pathList)
 	{
 		// start at node
 		// --iterate over all object properties
@@ -551,50 +560,36 @@ public class SparqlCreator
 		// include all other unvisited nodes and object properties (second version)
 
 		Set<String> visited = pathList.getPathList();
-		StmtIterator nodeStmtIterator = model.listStatements(currentNode, (Property) null, (RDFNode) null);
-		while (nodeStmtIterator.hasNext())
+		int rdfTypeId = instanceGraph.getPredicateId(AFOUtil.RDF_TYPE);
+		for (int edge = instanceGraph.getOutStart(currentId); edge < instanceGraph.getOutEnd(currentId); edge++)
 		{
-			Statement statement = nodeStmtIterator.next();
-			if (statement.getObject().isLiteral())
-			{
-				continue;
-			}
-
-			if (statement.getPredicate().equals(AFOUtil.RDF_TYPE))
+			if (instanceGraph.getOutPredicate(edge) == rdfTypeId)
 			{
 				continue;
 			}
 
-			Resource nextNode = statement.getResource();
-			String id;
-			if (nextNode.isAnon())
-			{
-				id = nextNode.asNode().getBlankNodeId().getLabelString();
-			}
-			else
-			{
-				id = nextNode.getURI();
-			}
+			int nextId = instanceGraph.getOutTarget(edge);
+			String id = getNodeId(instanceGraph.getNode(nextId));
 			if (visited.contains(id))
 			{
 				continue;
 			}
 
-			if (nextNode.equals(targetNode))
+			if (nextId == targetId)
 			{
 				// DONE!!
 				visited.add(id);
 				pathList.setPathList(visited);
 				pathList.setFoundTarget(true);
-				graphStatements.add(statement);
+				graphStatements.add(instanceGraph.createStatement(currentId, instanceGraph.getOutPredicate(edge), nextId));
 				return pathList;
 			}
 
 			visited.add(id);
 			pathList.setPathList(visited);
-			graphStatements.add(statement);
+			graphStatements.add(instanceGraph.createStatement(currentId, instanceGraph.getOutPredicate(edge), nextId));
 
-			if (findNeighbour(model, nextNode, targetNode, pathList).isFoundTarget())
+			if (findNeighbour(instanceGraph, nextId, targetId, pathList).isFoundTarget())
 			{
 				pathList.setFoundTarget(true);
 				return pathList;
@@ -602,7 +597,7 @@ public class SparqlCreator
 		}
 
 		// no forward link leads to target now check inverse links
-		if (findNeighbourInverse(model, currentNode, targetNode, pathList).isFoundTarget())
+		if (findNeighbourInverse(instanceGraph, currentId, targetId, pathList).isFoundTarget())
 		{
 			pathList.setFoundTarget(true);
 			return pathList;
@@ -611,50 +606,38 @@ public class SparqlCreator
 		return pathList;
 	}
 
-	private PathList findNeighbourInverse(Model model, Resource currentNode, Resource targetNode, PathList pathList)
+	private PathList findNeighbourInverse(InstanceGraph instanceGraph, int currentId, int targetId, PathList pathList)
 	{
 		Set<String> visited = pathList.getPathList();
-		StmtIterator reverseNodeStmtIterator = model.listStatements((Resource) null, (Property) null, currentNode);
-		while (reverseNodeStmtIterator.hasNext())
+		int rdfTypeId = instanceGraph.getPredicateId(AFOUtil.RDF_TYPE);
+		for (int edge = instanceGraph.getInStart(currentId); edge < instanceGraph.getInEnd(currentId); edge++)
 		{
-			Statement statement = reverseNodeStmtIterator.next();
-
-			if (statement.getPredicate().equals(AFOUtil.RDF_TYPE))
+			if (instanceGraph.getInPredicate(edge) == rdfTypeId)
 			{
 				continue;
 			}
 
-			Resource nextNode = statement.getSubject();
-
-			String id;
-			if (nextNode.isAnon())
-			{
-				id = nextNode.asNode().getBlankNodeId().getLabelString();
-			}
-			else
-			{
-				id = nextNode.getURI();
-			}
-
+			int nextId = instanceGraph.getInSource(edge);
+			String id = getNodeId(instanceGraph.getNode(nextId));
 			if (visited.contains(id))
 			{
 				continue;
 			}
 
-			if (nextNode.equals(targetNode))
+			if (nextId == targetId)
 			{
 				visited.add(id);
 				pathList.setPathList(visited);
 				pathList.setFoundTarget(true);
-				graphStatements.add(statement);
+				graphStatements.add(instanceGraph.createStatement(nextId, instanceGraph.getInPredicate(edge), currentId));
 				return pathList;
 			}
 
 			visited.add(id);
 			pathList.setPathList(visited);
-			graphStatements.add(statement);
+			graphStatements.add(instanceGraph.createStatement(nextId, instanceGraph.getInPredicate(edge), currentId));
 
-			if (findNeighbour(model, nextNode, targetNode, pathList).isFoundTarget())
+			if (findNeighbour(instanceGraph, nextId, targetId, pathList).isFoundTarget())
 			{
 				pathList.setFoundTarget(true);
 				return pathList;
@@ -663,6 +646,15 @@ public class SparqlCreator
 		return pathList;
 	}
 
+	private static String getNodeId(Resource node)
+	{
+		if (node.isAnon())
+		{
+			return node.asNode().getBlankNodeId().getLabelString();
+		}
+		return node.getURI();
+	}
+
 	private String getPropertyLabel(Property property, Model model)
 	{
 		String propertyLabel = StringUtils.EMPTY;
@@ -0,0 +1,97 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * BlankNodeSkolemizer
+ *
+ * Stream filter for --removebnodes that replaces blank nodes by urn:uuid:bnode: resources while triples are parsed. Same as
+ * RdfUtil.convertBlankNodesToNamedResources only blank nodes used as subject are named, blank nodes that only occur as object are restored by
+ * restoreObjectOnlyBlankNodes after parsing.
+ */
+public class BlankNodeSkolemizer extends StreamRDFWrapper
+{
+	public static final String BNODE_PREFIX = CmapUtil.URN_UUID + "bnode:";
+
+	private final Map<Node, Node> blankNode2namedNode = new HashMap<>();
+
+	private final Set<Node> subjectBlankNodes = new HashSet<>();
+
+	public BlankNodeSkolemizer(StreamRDF other)
+	{
+		super(other);
+	}
+
+	private Node skolemize(Node node, boolean isSubject)
+	{
+		if (node == null || !node.isBlank())
+		{
+			return node;
+		}
+
+		if (isSubject)
+		{
+			subjectBlankNodes.add(node);
+		}
+
+		Node namedNode = blankNode2namedNode.get(node);
+		if (namedNode == null)
+		{
+			namedNode = NodeFactory.createURI(BNODE_PREFIX + UUID.randomUUID());
+			blankNode2namedNode.put(node, namedNode);
+		}
+		return namedNode;
+	}
+
+	@Override
+	public void triple(Triple triple)
+	{
+		super.triple(Triple.create(skolemize(triple.getSubject(), true), triple.getPredicate(), skolemize(triple.getObject(), false)));
+	}
+
+	@Override
+	public void quad(Quad quad)
+	{
+		super.quad(Quad.create(quad.getGraph(), skolemize(quad.getSubject(), true), quad.getPredicate(), skolemize(quad.getObject(), false)));
+	}
+
+	/**
+	 * Blank nodes that never occurred as subject are not named by the post-processing either, so they are turned back into blank nodes.
+	 *
+	 * @param graph
+	 *            the graph that received the triples of this stream
+	 */
+	public void restoreObjectOnlyBlankNodes(Graph graph)
+	{
+		for (Entry<Node, Node> entry : blankNode2namedNode.entrySet())
+		{
+			if (subjectBlankNodes.contains(entry.getKey()))
+			{
+				continue;
+			}
+
+			Node blankNode = NodeFactory.createBlankNode();
+			List<Triple> triples = new ArrayList<>(graph.find(Node.ANY, Node.ANY, entry.getValue()).toList());
+			for (Triple triple : triples)
+			{
+				graph.delete(triple);
+				graph.add(Triple.create(triple.getSubject(), triple.getPredicate(), blankNode));
+			}
+		}
+	}
+}
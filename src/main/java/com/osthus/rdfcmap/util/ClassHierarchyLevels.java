@@ -0,0 +1,183 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.StmtIterator;
+
+/**
+ * ClassHierarchyLevels
+ *
+ * Level of classes in the Allotrope class hierarchy, i.e. the number of Allotrope superclasses (or classes disguised as urn:uuid: instances) reachable
+ * via rdfs:subClassOf. Superclasses are collected once per strongly connected component of the hierarchy in topological order, so shared ancestors are
+ * traversed once for all classes. A class on a cycle counts itself as superclass.
+ */
+public class ClassHierarchyLevels
+{
+	private static final Pattern DISGUISED_CLASS_PATTERN = Pattern.compile(CmapUtil.URN_UUID + AFOUtil.AFO_ID_PATTERN);
+
+	private final Model model;
+
+	private final Map<Resource, Integer> class2id = new HashMap<Resource, Integer>();
+
+	private final List<Resource> id2class = new ArrayList<Resource>();
+
+	private final List<int[]> id2parents = new ArrayList<int[]>();
+
+	private final List<BitSet> id2ancestors = new ArrayList<BitSet>();
+
+	// state of Tarjan's algorithm, kept across calls so that completed components are reused
+	private final List<Integer> id2index = new ArrayList<Integer>();
+
+	private final List<Integer> id2lowlink = new ArrayList<Integer>();
+
+	private final BitSet onStack = new BitSet();
+
+	private final Deque<Integer> stack = new ArrayDeque<Integer>();
+
+	private int index = 0;
+
+	public ClassHierarchyLevels(Model model)
+	{
+		this.model = model;
+	}
+
+	public static boolean isAfoClass(Resource resource)
+	{
+		return RdfUtil.isAFTNamespace(resource.getNameSpace()) || DISGUISED_CLASS_PATTERN.matcher(resource.getURI()).matches();
+	}
+
+	public int getLevel(Resource resource)
+	{
+		int id = getId(resource);
+		if (id2index.get(id) == null)
+		{
+			strongConnect(id);
+		}
+		return id2ancestors.get(id).cardinality();
+	}
+
+	private int getId(Resource resource)
+	{
+		Integer id = class2id.get(resource);
+		if (id != null)
+		{
+			return id;
+		}
+
+		id = id2class.size();
+		class2id.put(resource, id);
+		id2class.add(resource);
+		id2parents.add(null);
+		id2ancestors.add(null);
+		id2index.add(null);
+		id2lowlink.add(null);
+		return id;
+	}
+
+	private int[] getParents(int id)
+	{
+		int[] parents = id2parents.get(id);
+		if (parents != null)
+		{
+			return parents;
+		}
+
+		List<Integer> parentIds = new ArrayList<Integer>();
+		StmtIterator parentsIterator = model.listStatements(id2class.get(id), AFOUtil.RDFS_SUBCLASS_OF, (RDFNode) null);
+		while (parentsIterator.hasNext())
+		{
+			RDFNode parent = parentsIterator.next().getObject();
+			if (!parent.isURIResource() || !isAfoClass(parent.asResource()))
+			{
+				continue;
+			}
+			parentIds.add(getId(parent.asResource()));
+		}
+
+		parents = new int[parentIds.size()];
+		for (int i = 0; i < parents.length; i++)
+		{
+			parents[i] = parentIds.get(i);
+		}
+		id2parents.set(id, parents);
+		return parents;
+	}
+
+	/**
+	 * Tarjan's algorithm, components are completed with all superclasses completed before.
+	 */
+	private void strongConnect(int id)
+	{
+		id2index.set(id, index);
+		id2lowlink.set(id, index);
+		index++;
+		stack.push(id);
+		onStack.set(id);
+
+		for (int parentId : getParents(id))
+		{
+			if (id2index.get(parentId) == null)
+			{
+				strongConnect(parentId);
+				id2lowlink.set(id, Math.min(id2lowlink.get(id), id2lowlink.get(parentId)));
+			}
+			else if (onStack.get(parentId))
+			{
+				id2lowlink.set(id, Math.min(id2lowlink.get(id), id2index.get(parentId)));
+			}
+		}
+
+		if (!id2lowlink.get(id).equals(id2index.get(id)))
+		{
+			return;
+		}
+
+		List<Integer> component = new ArrayList<Integer>();
+		BitSet members = new BitSet();
+		int memberId;
+		do
+		{
+			memberId = stack.pop();
+			onStack.clear(memberId);
+			component.add(memberId);
+			members.set(memberId);
+		}
+		while (memberId != id);
+
+		BitSet ancestors = new BitSet();
+		boolean isCycle = component.size() > 1;
+		for (int member : component)
+		{
+			for (int parentId : getParents(member))
+			{
+				if (members.get(parentId))
+				{
+					isCycle = true;
+					continue;
+				}
+				ancestors.set(parentId);
+				ancestors.or(id2ancestors.get(parentId));
+			}
+		}
+
+		if (isCycle)
+		{
+			ancestors.or(members);
+		}
+
+		for (int member : component)
+		{
+			id2ancestors.set(member, ancestors);
+		}
+	}
+}
@@ -1,36 +1,41 @@
 package com.osthus.rdfcmap.util;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
@@ -39,19 +44,28 @@ import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 
 import com.osthus.adf.AdfCreator;
 import com.osthus.rdfcmap.RdfCmap;
+import com.osthus.rdfcmap.cmap.CxlReader;
 import com.osthus.rdfcmap.cmap.cardinality.Cardinality;
 import com.osthus.rdfcmap.cmap.cardinality.CardinalityEnum;
 import com.osthus.rdfcmap.cmap.cardinality.CardinalityPattern;
 import com.osthus.rdfcmap.enums.ColorScheme;
+import com.osthus.rdfcmap.enums.CxlSection;
 import com.osthus.rdfcmap.enums.DomainEnum;
+import com.osthus.rdfcmap.enums.LongCommentTokenType;
+import com.osthus.rdfcmap.helper.LongCommentToken;
+import com.osthus.rdfcmap.helper.StatementDelta;
+import com.osthus.rdfcmap.helper.UiProperties;
 
 import de.osthus.ambeth.exception.RuntimeExceptionUtil;
 
@@ -74,16 +88,16 @@ public class CmapUtil
 
 	public static final String MIN_ZERO = ">0";
 
-	public static Map<String, String> createOrRetrieveMapOfUiProperties(Map<String, Map<String, String>> mapOfId2Properties, String key)
+	public static UiProperties createOrRetrieveUiProperties(Map<String, UiProperties> id2UiProperties, String key)
 	{
-		Map<String, String> mapOfUiProperties = mapOfId2Properties.get(key);
+		UiProperties uiProperties = id2UiProperties.get(key);
 
-		if (mapOfUiProperties != null)
+		if (uiProperties != null)
 		{
-			return mapOfUiProperties;
+			return uiProperties;
 		}
 
-		return new java.util.HashMap<>();
+		return new UiProperties();
 	}
 
 	public static void writeVisualizationModel(Path path, Model model) throws IOException
@@ -299,6 +313,13 @@ public class CmapUtil
 	public static Model createOrUpdateLiteralValueOfRelatedResource(Model model, Resource resource, Property objectProperty, Resource objectType,
 			Property datatypeProperty, String newLiteralValue)
 	{
+		if (StyleIndex.isStyleType(objectType))
+		{
+			Map<Property, String> newValues = new HashMap<Property, String>();
+			newValues.put(datatypeProperty, newLiteralValue);
+			return createOrUpdateStyle(model, resource, objectProperty, objectType, newValues);
+		}
+
 		Resource relatedResource;
 		if (model.contains(resource, objectProperty, (RDFNode) null))
 		{
@@ -334,6 +355,80 @@ public class CmapUtil
 		return model;
 	}
 
+	/**
+	 * Set values of the font or border of the resource. Styles are interned and shared between resources, so the resource is linked to the style with the
+	 * merged values instead of changing its style in place. The previous style is removed if it is no longer referenced.
+	 *
+	 * @param model
+	 * @param resource
+	 * @param objectProperty
+	 * @param objectType
+	 * @param newValues
+	 * @return
+	 */
+	public static Model createOrUpdateStyle(Model model, Resource resource, Property objectProperty, Resource objectType, Map<Property, String> newValues)
+	{
+		List<Resource> oldStyles = new ArrayList<Resource>();
+		StmtIterator objectIterator = model.listStatements(resource, objectProperty, (RDFNode) null);
+		while (objectIterator.hasNext())
+		{
+			oldStyles.add(objectIterator.next().getResource());
+		}
+
+		Map<Property, String> values = new HashMap<Property, String>();
+		if (oldStyles.size() == 1)
+		{
+			values.putAll(StyleIndex.getValues(oldStyles.get(0)));
+		}
+		else if (oldStyles.size() > 1)
+		{
+			log.warn("Concept " + resource.getURI() + " has multiple related resources via property of " + objectProperty.getLocalName()
+					+ " ? Resetting related resources.");
+		}
+
+		for (Entry<Property, String> entry : newValues.entrySet())
+		{
+			if (entry.getValue() != null)
+			{
+				values.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		Resource style = StyleIndex.get(model).intern(model, objectType, values);
+		if (oldStyles.size() == 1 && oldStyles.get(0).equals(style))
+		{
+			return model;
+		}
+
+		StatementDelta delta = new StatementDelta();
+		delta.removeAll(model.listStatements(resource, objectProperty, (RDFNode) null).toList());
+		delta.add(model.createStatement(resource, objectProperty, style));
+
+		for (Resource oldStyle : oldStyles)
+		{
+			if (!oldStyle.equals(style) && !isReferencedByOtherThan(model, oldStyle, resource, objectProperty))
+			{
+				delta.removeAll(model.listStatements(oldStyle, (Property) null, (RDFNode) null).toList());
+			}
+		}
+
+		return delta.apply(model);
+	}
+
+	private static boolean isReferencedByOtherThan(Model model, Resource object, Resource subject, Property property)
+	{
+		StmtIterator stmtIterator = model.listStatements((Resource) null, (Property) null, object);
+		while (stmtIterator.hasNext())
+		{
+			Statement statement = stmtIterator.next();
+			if (!statement.getSubject().equals(subject) || !statement.getPredicate().equals(property))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public static Set<Statement> addStatementsWithBlankNodes(Model model, Statement statement, Set<Statement> statements)
 	{
 		if (statement.getObject().isAnon())
@@ -355,53 +450,20 @@ public class CmapUtil
 
 	/**
 	 * Extract RDf model from additional &lt;rdf-model&gt;-tag within CXL. The visualization may contain changes that are not yet synchronized to the stored
-	 * model. So, we first extract the stored model.
+	 * model. So, we first extract the stored model. The cxl is streamed once, the stored model is parsed without intermediate temp file.
 	 *
 	 * @param path
 	 * @return
-	 * @throws ParserConfigurationException
-	 * @throws SAXException
 	 * @throws IOException
-	 * @throws FileNotFoundException
 	 */
-	public static Model extractStoredModelFromCxl(Path path) throws ParserConfigurationException, SAXException, IOException, FileNotFoundException
+	public static Model extractStoredModelFromCxl(Path path) throws IOException
 	{
-		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-		Document document = documentBuilder.parse(new FileInputStream(path.toFile()));
-
-		Model model = ModelFactory.createDefaultModel();
-
-		Node rdfModelNode = document.getElementsByTagName("rdf-model").item(0);
-		String rdfModelString = StringUtils.EMPTY;
-		if (rdfModelNode != null && !rdfModelNode.getTextContent().isEmpty())
-		{
-			rdfModelString = rdfModelNode.getTextContent();
-			String inputPath = StringUtils.EMPTY;
-			String tempFileName = StringUtils.EMPTY;
-			if (path.getParent() != null)
-			{
-				inputPath = path.getParent().toString();
-				tempFileName = inputPath + "/temp.ttl";
-			}
-			else
-			{
-				tempFileName = "temp.ttl";
-			}
-
-			Path tempInput = Paths.get(tempFileName);
-			Files.deleteIfExists(tempInput);
-			tempInput = Files.createFile(tempInput);
-			FileUtils.writeStringToFile(tempInput.toFile(), rdfModelString);
-
-			model.read(tempInput.toUri().toString(), null, "TTL");
-			Files.deleteIfExists(tempInput);
-		}
-		return model;
+		return CxlReader.read(path, EnumSet.of(CxlSection.RDF_MODEL)).getModel();
 	}
 
 	/**
-	 * Add triples from the files in the given array of filenames to the given model.
+	 * Add triples from the files in the given array of filenames to the given model. The files are parsed concurrently into independent models which are
+	 * merged in the given order afterwards.
 	 *
 	 * @param additionalFiles
 	 * @param model
@@ -414,44 +476,34 @@ public class CmapUtil
 	{
 		if (additionalFiles != null && additionalFiles.length > 0)
 		{
+			Model visualizationModel = extractVisualizationModel(model);
+			long numTriplesBeforeAddingOtherModels = model.size();
 			Model tempModel = ModelFactory.createDefaultModel();
-			tempModel.add(model);
-
-			Model visualizationModel = extractVisualizationModel(tempModel);
-			int numTriplesBeforeAddingOtherModels = tempModel.listStatements().toList().size();
-			tempModel.removeAll();
 
+			List<Path> pathsToAdditionalFiles = new ArrayList<>();
 			for (int i = 0; i < additionalFiles.length; i++)
 			{
 				Path pathToAdditionalFile = Paths.get(additionalFiles[i]);
-				log.info("Reading triples from file: " + pathToAdditionalFile.toString());
-				Model additionalModel = null;
-				if (pathToAdditionalFile.toString().toUpperCase().endsWith("TTL"))
-				{
-					additionalModel = ModelFactory.createDefaultModel();
-					additionalModel.read(new FileInputStream(pathToAdditionalFile.toFile()), null, "TTL");
-				}
-				else if (pathToAdditionalFile.toString().toUpperCase().endsWith("CXL"))
-				{
-					additionalModel = CmapUtil.extractStoredModelFromCxl(pathToAdditionalFile);
-				}
-				else if (pathToAdditionalFile.toString().toUpperCase().endsWith("OWL"))
-				{
-					additionalModel = ModelFactory.createDefaultModel();
-					additionalModel.read(new FileInputStream(pathToAdditionalFile.toFile()), null, "RDF/XML");
-				}
-				else
+				if (!isSupportedAdditionalFile(pathToAdditionalFile))
 				{
 					throw new IllegalStateException("Unsupported input file: " + pathToAdditionalFile.toString());
 				}
+				pathsToAdditionalFiles.add(pathToAdditionalFile);
+			}
 
+			List<Model> additionalModels = readAdditionalFiles(pathsToAdditionalFiles);
+
+			for (int i = 0; i < pathsToAdditionalFiles.size(); i++)
+			{
+				Path pathToAdditionalFile = pathsToAdditionalFiles.get(i);
+				Model additionalModel = additionalModels.get(i);
 				if (additionalModel != null && !additionalModel.isEmpty())
 				{
-					int numTriplesToAdd = additionalModel.listStatements().toList().size();
-					int numTriples = tempModel.listStatements().toList().size();
-					tempModel = tempModel.add(additionalModel);
-					int numTriplesNew = tempModel.listStatements().toList().size();
-					log.info(numTriplesToAdd + " triples found. " + (numTriplesNew - numTriples) + " triples added.");
+					long numTriplesToAdd = additionalModel.size();
+					long numTriples = tempModel.size();
+					tempModel.add(additionalModel);
+					long numTriplesNew = tempModel.size();
+					log.info(pathToAdditionalFile.toString() + ": " + numTriplesToAdd + " triples found. " + (numTriplesNew - numTriples) + " triples added.");
 				}
 				else
 				{
@@ -461,14 +513,90 @@ public class CmapUtil
 
 			tempModel.add(visualizationModel);
 			model.add(tempModel);
-			int numTriplesAfterAddingOtherModels = model.listStatements().toList().size();
-			int change = numTriplesAfterAddingOtherModels - numTriplesBeforeAddingOtherModels;
+			long numTriplesAfterAddingOtherModels = model.size();
+			long change = numTriplesAfterAddingOtherModels - numTriplesBeforeAddingOtherModels;
 			log.info("Model " + (change > 0 ? "increased " : (change == 0 ? "changed " : "reduced ")) + "by " + change + " triples. ");
 		}
 
 		return model;
 	}
 
+	private static boolean isSupportedAdditionalFile(Path path)
+	{
+		String fileName = path.toString().toUpperCase();
+		return fileName.endsWith("TTL") || fileName.endsWith("CXL") || fileName.endsWith("OWL");
+	}
+
+	/**
+	 * Parse each file into its own model, using one task per file. The returned list has the same order as the given paths.
+	 */
+	private static List<Model> readAdditionalFiles(List<Path> paths) throws IOException
+	{
+		int numThreads = Math.max(1, Math.min(paths.size(), Runtime.getRuntime().availableProcessors()));
+		ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+		try
+		{
+			List<Future<Model>> futures = new ArrayList<>();
+			for (Path path : paths)
+			{
+				futures.add(executorService.submit(() -> readAdditionalFile(path)));
+			}
+
+			List<Model> models = new ArrayList<>();
+			for (Future<Model> future : futures)
+			{
+				try
+				{
+					models.add(future.get());
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while reading additional files.", e);
+				}
+				catch (ExecutionException e)
+				{
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException)
+					{
+						throw (IOException) cause;
+					}
+					if (cause instanceof RuntimeException)
+					{
+						throw (RuntimeException) cause;
+					}
+					throw new IllegalStateException("Error while reading additional files.", cause);
+				}
+			}
+			return models;
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+	}
+
+	private static Model readAdditionalFile(Path path) throws IOException
+	{
+		log.info("Reading triples from file: " + path.toString());
+		String fileName = path.toString().toUpperCase();
+		if (fileName.endsWith("CXL"))
+		{
+			return CmapUtil.extractStoredModelFromCxl(path);
+		}
+
+		if (fileName.endsWith("TTL"))
+		{
+			return SnapshotCache.read(path, "TTL");
+		}
+		else if (fileName.endsWith("OWL"))
+		{
+			return SnapshotCache.read(path, "RDF/XML");
+		}
+
+		throw new IllegalStateException("Unsupported input file: " + path.toString());
+	}
+
 	public static Model addTriples(List<String> additionalFileNames, Model model)
 			throws FileNotFoundException, ParserConfigurationException, SAXException, IOException
 	{
@@ -555,7 +683,7 @@ public class CmapUtil
 				else if (rdfType.getURI().contains(AFOUtil.AFRL_PREFIX)
 						|| (resource.getURI().startsWith(CmapUtil.URN_UUID) && resource.getURI().contains("AFRL_")))
 				{
-					if (isSubClassOf(rdfType, AFOUtil.AFRL_CONTEXTUAL_ROLE, model, null))
+					if (isSubClassOf(rdfType, AFOUtil.AFRL_CONTEXTUAL_ROLE, model))
 					{
 						domain = DomainEnum.CONTEXTUAL_ROLE;
 					}
@@ -573,8 +701,8 @@ public class CmapUtil
 						|| rdfType.getURI().contains(AFOUtil.QUDT_SCHEMA_PREFIX) || rdfType.getURI().contains(AFOUtil.QUDT_UNIT_PREFIX)
 						|| rdfType.getURI().contains(AFOUtil.QUDT_UNIT_EXT_PREFIX))
 				{
-					if (isSubClassOf(rdfType, AFOUtil.OWL_OBJECT_PROPERTY, model, null) || isSubClassOf(rdfType, AFOUtil.OWL_DATATYPE_PROPERTY, model, null)
-							|| isSubClassOf(rdfType, AFOUtil.OWL_ANNOTATION_PROPERTY, model, null))
+					if (isSubClassOf(rdfType, AFOUtil.OWL_OBJECT_PROPERTY, model) || isSubClassOf(rdfType, AFOUtil.OWL_DATATYPE_PROPERTY, model)
+							|| isSubClassOf(rdfType, AFOUtil.OWL_ANNOTATION_PROPERTY, model))
 					{
 						domain = DomainEnum.PROPERTY;
 					}
@@ -585,8 +713,8 @@ public class CmapUtil
 				}
 				else if (rdfType.getURI().contains(AFOUtil.IAO_PREFIX))
 				{
-					if (isSubClassOf(rdfType, AFOUtil.OWL_OBJECT_PROPERTY, model, null) || isSubClassOf(rdfType, AFOUtil.OWL_DATATYPE_PROPERTY, model, null)
-							|| isSubClassOf(rdfType, AFOUtil.OWL_ANNOTATION_PROPERTY, model, null))
+					if (isSubClassOf(rdfType, AFOUtil.OWL_OBJECT_PROPERTY, model) || isSubClassOf(rdfType, AFOUtil.OWL_DATATYPE_PROPERTY, model)
+							|| isSubClassOf(rdfType, AFOUtil.OWL_ANNOTATION_PROPERTY, model))
 					{
 						domain = DomainEnum.PROPERTY;
 					}
@@ -608,38 +736,10 @@ public class CmapUtil
 				}
 				else
 				{
-					if (isSubClassOf(rdfType, AFOUtil.OWL_OBJECT_PROPERTY, model, null) || isSubClassOf(rdfType, AFOUtil.OWL_DATATYPE_PROPERTY, model, null)
-							|| isSubClassOf(rdfType, AFOUtil.OWL_ANNOTATION_PROPERTY, model, null))
-					{
-						domain = DomainEnum.PROPERTY;
-					}
-					else if (isSubClassOf(rdfType, AFOUtil.BFO_OCCURRENT, model, null))
-					{
-						domain = DomainEnum.PROCESS;
-					}
-					else if (isSubClassOf(rdfType, AFOUtil.AFE_DEVICE, model, null) || isSubClassOf(rdfType, AFOUtil.OBI_DEVICE, model, null))
+					DomainEnum domainOfClass = determineDomainOfClass(rdfType, model);
+					if (domainOfClass != null)
 					{
-						domain = DomainEnum.PROCESS;
-					}
-					else if (isSubClassOf(rdfType, AFOUtil.BFO_MATERIAL, model, null) && !isSubClassOf(rdfType, AFOUtil.OBI_DEVICE, model, null))
-					{
-						domain = DomainEnum.MATERIAL;
-					}
-					else if (isSubClassOf(rdfType, AFOUtil.BFO_QUALITY, model, null))
-					{
-						domain = DomainEnum.QUALITY;
-					}
-					else if (isSubClassOf(rdfType, AFOUtil.BFO_ROLE, model, null) && !isSubClassOf(rdfType, AFOUtil.AFRL_CONTEXTUAL_ROLE, model, null))
-					{
-						domain = DomainEnum.ROLE;
-					}
-					else if (isSubClassOf(rdfType, AFOUtil.BFO_FUNCTION, model, null))
-					{
-						domain = DomainEnum.ROLE;
-					}
-					else if (isSubClassOf(rdfType, AFOUtil.IAO_INFORMATION_CONTENT_ENTITY, model, null))
-					{
-						domain = DomainEnum.INFORMATION;
+						domain = domainOfClass;
 					}
 				}
 
@@ -654,42 +754,61 @@ public class CmapUtil
 		return bgColor;
 	}
 
-	private static boolean isSubClassOf(Resource resource, Resource classType, Model model, List<Resource> visited)
+	/**
+	 * Domain of a class based on its superclasses, cached per class.
+	 *
+	 * @return the domain or null if none applies
+	 */
+	private static DomainEnum determineDomainOfClass(Resource rdfType, Model model)
 	{
-		StmtIterator stmtIterator = model.listStatements(resource, AFOUtil.RDFS_SUBCLASS_OF, (RDFNode) null);
-		while (stmtIterator.hasNext())
+		SubClassClosure subClassClosure = SubClassClosure.get(model);
+		if (subClassClosure.hasCachedDomain(rdfType))
 		{
-			Statement statement = stmtIterator.next();
-			RDFNode parentClass = statement.getObject();
-			if (parentClass.isAnon())
-			{
-				continue;
-			}
-
-			if (visited == null)
-			{
-				visited = new ArrayList<Resource>();
-				visited.add(resource);
-			}
-
-			if (visited.contains(parentClass.asResource()))
-			{
-				continue;
-			}
+			return subClassClosure.getCachedDomain(rdfType);
+		}
 
-			visited.add(parentClass.asResource());
+		DomainEnum domain = null;
+		if (isSubClassOf(rdfType, AFOUtil.OWL_OBJECT_PROPERTY, model) || isSubClassOf(rdfType, AFOUtil.OWL_DATATYPE_PROPERTY, model)
+				|| isSubClassOf(rdfType, AFOUtil.OWL_ANNOTATION_PROPERTY, model))
+		{
+			domain = DomainEnum.PROPERTY;
+		}
+		else if (isSubClassOf(rdfType, AFOUtil.BFO_OCCURRENT, model))
+		{
+			domain = DomainEnum.PROCESS;
+		}
+		else if (isSubClassOf(rdfType, AFOUtil.AFE_DEVICE, model) || isSubClassOf(rdfType, AFOUtil.OBI_DEVICE, model))
+		{
+			domain = DomainEnum.PROCESS;
+		}
+		else if (isSubClassOf(rdfType, AFOUtil.BFO_MATERIAL, model) && !isSubClassOf(rdfType, AFOUtil.OBI_DEVICE, model))
+		{
+			domain = DomainEnum.MATERIAL;
+		}
+		else if (isSubClassOf(rdfType, AFOUtil.BFO_QUALITY, model))
+		{
+			domain = DomainEnum.QUALITY;
+		}
+		else if (isSubClassOf(rdfType, AFOUtil.BFO_ROLE, model) && !isSubClassOf(rdfType, AFOUtil.AFRL_CONTEXTUAL_ROLE, model))
+		{
+			domain = DomainEnum.ROLE;
+		}
+		else if (isSubClassOf(rdfType, AFOUtil.BFO_FUNCTION, model))
+		{
+			domain = DomainEnum.ROLE;
+		}
+		else if (isSubClassOf(rdfType, AFOUtil.IAO_INFORMATION_CONTENT_ENTITY, model))
+		{
+			domain = DomainEnum.INFORMATION;
+		}
 
-			if (classType.getURI().equals(parentClass.asResource().getURI()))
-			{
-				return true;
-			}
+		subClassClosure.cacheDomain(rdfType, domain);
+		return domain;
+	}
 
-			if (isSubClassOf(parentClass.asResource(), classType, model, visited))
-			{
-				return true;
-			}
-		}
-		return false;
+	private static boolean isSubClassOf(Resource resource, Resource classType, Model model)
+	{
+		return SubClassClosure.get(model).isSubClassOf(resource, classType, model);
 	}
 
 	public static String determineFontColor(Model model, Resource uiResource)
@@ -826,7 +945,7 @@ public class CmapUtil
 		else if (cardinalityString.contains(">"))
 		{
 			// min cardinality
-			Pattern p = Pattern.compile(CardinalityPattern.cardinality2pattern.get(CardinalityEnum.MIN.name()), Pattern.CASE_INSENSITIVE);
+			Pattern p = CardinalityPattern.getPattern(CardinalityEnum.MIN);
 			Matcher m = p.matcher(cardinalityString);
 			if (m.find())
 			{
@@ -837,7 +956,7 @@ public class CmapUtil
 		else if (cardinalityString.contains("<"))
 		{
 			// max cardinality
-			Pattern p = Pattern.compile(CardinalityPattern.cardinality2pattern.get(CardinalityEnum.MAX.name()), Pattern.CASE_INSENSITIVE);
+			Pattern p = CardinalityPattern.getPattern(CardinalityEnum.MAX);
 			Matcher m = p.matcher(cardinalityString);
 			if (m.find())
 			{
@@ -848,7 +967,7 @@ public class CmapUtil
 		else
 		{
 			// exact or interval
-			Pattern p = Pattern.compile(CardinalityPattern.cardinality2pattern.get(CardinalityEnum.EXACTLY.name()), Pattern.CASE_INSENSITIVE);
+			Pattern p = CardinalityPattern.getPattern(CardinalityEnum.EXACTLY);
 			Matcher m = p.matcher(cardinalityString);
 			if (m.find())
 			{
@@ -860,7 +979,7 @@ public class CmapUtil
 			else
 			{
 				// interval
-				p = Pattern.compile(CardinalityPattern.cardinality2pattern.get(CardinalityEnum.MIN_MAX.name()), Pattern.CASE_INSENSITIVE);
+				p = CardinalityPattern.getPattern(CardinalityEnum.MIN_MAX);
 				m = p.matcher(cardinalityString);
 				if (m.find())
 				{
@@ -892,83 +1011,94 @@ public class CmapUtil
 	public static List<String> replacePrefixesWithNamespaces(Model model, List<String> lines)
 	{
 		List<String> processedLines = new ArrayList<String>(lines.size());
-		String regex = "(^|[\\s]+|\\^\\^)([a-z\\-]+):([a-zA-Z_\\-0-9#]+)";
-		String commentRegex = ".*#(?![\\w]*>.*)";
-		Pattern p = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-		Pattern commentPattern = Pattern.compile(commentRegex, Pattern.CASE_INSENSITIVE);
 		for (Iterator<String> iterator = lines.iterator(); iterator.hasNext();)
 		{
 			String line = iterator.next();
 			log.debug("<-- " + line);
-			Matcher m = p.matcher(line);
-			Matcher commentMatcher = commentPattern.matcher(line);
-			boolean foundUri = false;
-			boolean commentedOut = false;
-			while (m.find())
+			StringBuilder sb = new StringBuilder(line.length() + 64);
+			for (LongCommentToken token : LongCommentLexer.tokenize(line))
 			{
-				foundUri = true;
-				if (line.contains("#") && line.indexOf("#") < m.start(2))
+				if (token.getType() == LongCommentTokenType.PREFIXED_NAME)
 				{
-					if (commentMatcher.matches() && commentMatcher.end(1) < m.end(3))
-					{
-						commentedOut = true;
-						processedLines.add(line);
-						continue;
-					}
+					sb.append(expandPrefixedName(token));
 				}
-
-				String foundPrefix = m.group(2);
-				String label = m.group(3).trim();
-
-				String namespace = Prefixes.nsPrefixMap.get(foundPrefix);
-				if (namespace == null || namespace.isEmpty())
+				else
 				{
-					log.info("Found URI with unknown prefix: " + m.group(2) + ":" + m.group(3));
-					continue;
+					sb.append(token.getText());
 				}
-
-				line = line.replaceAll(m.group(2) + ":" + m.group(3), "<" + namespace + label + ">");
-
-			}
-
-			if (!(foundUri && commentedOut))
-			{
-				processedLines.add(line);
 			}
+			line = sb.toString();
+			processedLines.add(line);
 			log.debug("--> " + line);
 		}
 		return processedLines;
 	}
 
+	/**
+	 * @param token
+	 *            prefixed name token
+	 * @return the full IRI in angle brackets or the prefixed name if the prefix is unknown
+	 */
+	public static String expandPrefixedName(LongCommentToken token)
+	{
+		String iri = Prefixes.expandPrefixedName(token.getText());
+		if (iri == null)
+		{
+			log.info("Found URI with unknown prefix: " + token.getText());
+			return token.getText();
+		}
+
+		return "<" + iri + ">";
+	}
+
 	public static Model extractModelFromAdf(Path pathToInputFile, Model model)
 	{
 		model = AdfCreator.read(pathToInputFile, model, log);
 
-		if (RdfCmap.removeBnodes)
+		boolean isDisguisingInstances = RdfCmap.userSpecifiedInstanceNamespaces != null && !RdfCmap.userSpecifiedInstanceNamespaces.isEmpty();
+		if (RdfCmap.removeBnodes || isDisguisingInstances)
 		{
-			model = RdfUtil.convertBlankNodesToNamedResources(model);
-		}
+			if (RdfCmap.removeBnodes)
+			{
+				log.info("removing blank nodes from data description");
+			}
 
-		if (RdfCmap.userSpecifiedInstanceNamespaces != null && !RdfCmap.userSpecifiedInstanceNamespaces.isEmpty())
-		{
-			String dataDescriptionAsString = StringUtils.EMPTY;
-			ByteArrayOutputStream output = new ByteArrayOutputStream()
+			Model processedModel = ModelFactory.createDefaultModel();
+			processedModel.setNsPrefixes(model.getNsPrefixMap());
+			StreamRDF sink = StreamRDFLib.graph(processedModel.getGraph());
+			if (isDisguisingInstances)
 			{
-				private StringBuilder string = new StringBuilder();
+				sink = new InstanceNamespaceRewriter(sink, InstanceNamespaceRewriter.createReplacements(RdfCmap.userSpecifiedInstanceNamespaces));
+			}
+			BlankNodeSkolemizer blankNodeSkolemizer = null;
+			if (RdfCmap.removeBnodes)
+			{
+				blankNodeSkolemizer = new BlankNodeSkolemizer(sink);
+				sink = blankNodeSkolemizer;
+			}
 
-				@Override
-				public void write(int b)
+			sink.start();
+			ExtendedIterator<Triple> tripleIterator = model.getGraph().find(Node.ANY, Node.ANY, Node.ANY);
+			try
+			{
+				while (tripleIterator.hasNext())
 				{
-					string.append((char) b);
+					sink.triple(tripleIterator.next());
 				}
-			};
+			}
+			finally
+			{
+				tripleIterator.close();
+			}
+			sink.finish();
+
+			if (blankNodeSkolemizer != null)
+			{
+				blankNodeSkolemizer.restoreObjectOnlyBlankNodes(processedModel.getGraph());
+			}
 
-			model.write(output, "NTriples");
-			dataDescriptionAsString = output.toString(StandardCharsets.UTF_8);
-			dataDescriptionAsString = disguiseConceptsForVisualizationAsInstancesWithUrnUuid(dataDescriptionAsString);
-			ByteArrayInputStream is = new ByteArrayInputStream(dataDescriptionAsString.getBytes(StandardCharsets.UTF_8));
 			model.removeAll();
-			model.read(is, "NTriples");
+			model.add(processedModel);
 		}
 
 		return model;
@@ -976,40 +1106,30 @@ public class CmapUtil
 
 	public static Model extractModelFromOntologyFile(Path pathToInputFile, Model model, String serialization) throws IOException
 	{
-		String modelAsString = StringUtils.EMPTY;
+		StreamRDF sink = StreamRDFLib.graph(model.getGraph());
+		if (RdfCmap.userSpecifiedInstanceNamespaces != null && !RdfCmap.userSpecifiedInstanceNamespaces.isEmpty())
+		{
+			sink = new InstanceNamespaceRewriter(sink, InstanceNamespaceRewriter.createReplacements(RdfCmap.userSpecifiedInstanceNamespaces));
+		}
 
+		BlankNodeSkolemizer blankNodeSkolemizer = null;
 		if (RdfCmap.removeBnodes)
 		{
-			Model tempModel = ModelFactory.createDefaultModel();
-
 			log.info("removing blank nodes from file: " + pathToInputFile.toString());
-			tempModel.read(new FileInputStream(pathToInputFile.toFile()), null, serialization);
-			tempModel = RdfUtil.convertBlankNodesToNamedResources(tempModel);
-
-			ByteArrayOutputStream output = new ByteArrayOutputStream()
-			{
-				private StringBuilder string = new StringBuilder();
-
-				@Override
-				public void write(int b)
-				{
-					string.append((char) b);
-				}
-			};
-
-			tempModel.write(output, serialization);
-			modelAsString = output.toString(StandardCharsets.UTF_8);
+			blankNodeSkolemizer = new BlankNodeSkolemizer(sink);
+			sink = blankNodeSkolemizer;
 		}
-		else
+
+		try (InputStream inputStream = new BufferedInputStream(new FileInputStream(pathToInputFile.toFile())))
 		{
-			List<String> lines = Files.readAllLines(pathToInputFile);
-			modelAsString = StringUtils.join(lines, "\n");
+			RDFDataMgr.parse(sink, inputStream, null, RDFLanguages.nameToLang(serialization));
 		}
 
-		modelAsString = disguiseConceptsForVisualizationAsInstancesWithUrnUuid(modelAsString);
+		if (blankNodeSkolemizer != null)
+		{
+			blankNodeSkolemizer.restoreObjectOnlyBlankNodes(model.getGraph());
+		}
 
-		ByteArrayInputStream is = new ByteArrayInputStream(modelAsString.getBytes(StandardCharsets.UTF_8));
-		model.read(is, null, serialization);
 		return model;
 	}
 
@@ -1028,30 +1148,4 @@ public class CmapUtil
 		}
 		;
 	}
-
-	private static String disguiseConceptsForVisualizationAsInstancesWithUrnUuid(String modelAsString)
-	{
-		if (RdfCmap.userSpecifiedInstanceNamespaces != null && !RdfCmap.userSpecifiedInstanceNamespaces.isEmpty())
-		{
-			for (Iterator<String> iterator = RdfCmap.userSpecifiedInstanceNamespaces.iterator(); iterator.hasNext();)
-			{
-				String namespace = iterator.next();
-				if (namespace.equals("hdf:/data-package"))
-				{
-					log.info("Visualizing instances of " + namespace + " as urn:uuid:data-package.");
-					modelAsString = modelAsString.replaceAll(Pattern.quote(namespace), CmapUtil.URN_UUID + "data-package");
-				}
-				else
-				{
-					String localTypeName = namespace.substring(namespace.lastIndexOf("/") + 1, namespace.length());
-					log.info("Visualizing instances of IRI pattern " + namespace + "instance as urn:uuid:" + localTypeName + "instance.");
-					modelAsString = modelAsString.replaceAll(Pattern.quote(namespace), CmapUtil.URN_UUID + localTypeName);
-					String base = namespace.substring(0, namespace.length() - 1);
-					modelAsString = modelAsString.replaceAll(Pattern.quote(base), CmapUtil.URN_UUID);
-				}
-			}
-		}
-
-		return modelAsString;
-	}
 }
@@ -0,0 +1,370 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.ResIterator;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+
+/**
+ * InstanceGraph
+ *
+ * Resource to resource statements of a model as compressed sparse rows. Nodes and predicates are interned to integer IDs, outgoing and incoming edges of
+ * a node are stored contiguously in int arrays, so traversals do not create iterators or statements per hop. Outgoing edges of a node keep the order in
+ * which the model lists them, incoming edges are ordered by source. The graph is built once per model on first use and rebuilt after the model changed.
+ * get() returns a copy bound to the model which shares the arrays of the cached graph.
+ */
+public class InstanceGraph
+{
+	private final Model model;
+
+	private final Map<Node, Integer> node2id;
+
+	private final List<Node> id2node;
+
+	private final Map<Node, Integer> predicate2id;
+
+	private final List<Node> id2predicate;
+
+	private final int[] outOffsets;
+
+	private final int[] outSources;
+
+	private final int[] outTargets;
+
+	private final int[] outPredicates;
+
+	private final int[] inOffsets;
+
+	private final int[] inSources;
+
+	private final int[] inPredicates;
+
+	private InstanceGraph(Model model)
+	{
+		// not bound to the model, see get()
+		this.model = null;
+		node2id = new HashMap<Node, Integer>();
+		id2node = new ArrayList<Node>();
+		predicate2id = new HashMap<Node, Integer>();
+		id2predicate = new ArrayList<Node>();
+
+		// subjects first, so that their edges are appended in order of node IDs
+		ResIterator subjectIterator = model.listSubjects();
+		while (subjectIterator.hasNext())
+		{
+			intern(subjectIterator.next().asNode());
+		}
+		int numSubjects = id2node.size();
+
+		IntList sources = new IntList();
+		IntList targets = new IntList();
+		IntList predicates = new IntList();
+		int[] offsets = new int[numSubjects + 1];
+		for (int id = 0; id < numSubjects; id++)
+		{
+			offsets[id] = targets.size();
+			StmtIterator stmtIterator = model.listStatements(model.wrapAsResource(id2node.get(id)), (Property) null, (RDFNode) null);
+			while (stmtIterator.hasNext())
+			{
+				Statement statement = stmtIterator.next();
+				if (statement.getObject().isLiteral())
+				{
+					continue;
+				}
+				sources.add(id);
+				targets.add(intern(statement.getObject().asNode()));
+				predicates.add(internPredicate(statement.getPredicate().asNode()));
+			}
+		}
+		offsets[numSubjects] = targets.size();
+
+		// nodes that are objects only have no outgoing edges
+		int numNodes = id2node.size();
+		int numEdges = targets.size();
+		outOffsets = Arrays.copyOf(offsets, numNodes + 1);
+		Arrays.fill(outOffsets, numSubjects, numNodes + 1, numEdges);
+		outSources = sources.toArray();
+		outTargets = targets.toArray();
+		outPredicates = predicates.toArray();
+
+		// incoming edges are the transposed outgoing edges: count in-degrees, prefix sums as offsets, then fill
+		inOffsets = new int[numNodes + 1];
+		for (int edge = 0; edge < numEdges; edge++)
+		{
+			inOffsets[outTargets[edge] + 1]++;
+		}
+		for (int id = 0; id < numNodes; id++)
+		{
+			inOffsets[id + 1] += inOffsets[id];
+		}
+
+		inSources = new int[numEdges];
+		inPredicates = new int[numEdges];
+		int[] nextInEdges = Arrays.copyOf(inOffsets, numNodes);
+		for (int edge = 0; edge < numEdges; edge++)
+		{
+			int inEdge = nextInEdges[outTargets[edge]]++;
+			inSources[inEdge] = outSources[edge];
+			inPredicates[inEdge] = outPredicates[edge];
+		}
+	}
+
+	private InstanceGraph(InstanceGraph instanceGraph, Model model)
+	{
+		this.model = model;
+		node2id = instanceGraph.node2id;
+		id2node = instanceGraph.id2node;
+		predicate2id = instanceGraph.predicate2id;
+		id2predicate = instanceGraph.id2predicate;
+		outOffsets = instanceGraph.outOffsets;
+		outSources = instanceGraph.outSources;
+		outTargets = instanceGraph.outTargets;
+		outPredicates = instanceGraph.outPredicates;
+		inOffsets = instanceGraph.inOffsets;
+		inSources = instanceGraph.inSources;
+		inPredicates = instanceGraph.inPredicates;
+	}
+
+	/**
+	 * Instance graph of the given model, it is built on first call and after the model changed.
+	 *
+	 * @param model
+	 * @return
+	 */
+	public static InstanceGraph get(Model model)
+	{
+		return new InstanceGraph(ModelIndexes.of(model).get(Holder.class, Holder::new).getInstanceGraph(model), model);
+	}
+
+	private int intern(Node node)
+	{
+		Integer id = node2id.get(node);
+		if (id == null)
+		{
+			id = id2node.size();
+			id2node.add(node);
+			node2id.put(node, id);
+		}
+		return id;
+	}
+
+	private int internPredicate(Node predicate)
+	{
+		Integer id = predicate2id.get(predicate);
+		if (id == null)
+		{
+			id = id2predicate.size();
+			id2predicate.add(predicate);
+			predicate2id.put(predicate, id);
+		}
+		return id;
+	}
+
+	public int getNumNodes()
+	{
+		return id2node.size();
+	}
+
+	/**
+	 * @return ID of the node, -1 if the resource is neither subject nor object of a resource to resource statement
+	 */
+	public int getId(Resource node)
+	{
+		Integer id = node2id.get(node.asNode());
+		return id == null ? -1 : id;
+	}
+
+	public Resource getNode(int id)
+	{
+		return model.wrapAsResource(id2node.get(id));
+	}
+
+	/**
+	 * @return ID of the predicate, -1 if it does not link two resources in the model
+	 */
+	public int getPredicateId(Property predicate)
+	{
+		Integer id = predicate2id.get(predicate.asNode());
+		return id == null ? -1 : id;
+	}
+
+	public Property getPredicate(int predicateId)
+	{
+		return model.createProperty(id2predicate.get(predicateId).getURI());
+	}
+
+	/**
+	 * Outgoing edges of node are numbered from getOutStart(node) inclusive to getOutEnd(node) exclusive.
+	 */
+	public int getOutStart(int id)
+	{
+		return outOffsets[id];
+	}
+
+	public int getOutEnd(int id)
+	{
+		return outOffsets[id + 1];
+	}
+
+	public int getOutSource(int edge)
+	{
+		return outSources[edge];
+	}
+
+	public int getOutTarget(int edge)
+	{
+		return outTargets[edge];
+	}
+
+	public int getOutPredicate(int edge)
+	{
+		return outPredicates[edge];
+	}
+
+	/**
+	 * Incoming edges of node are numbered from getInStart(node) inclusive to getInEnd(node) exclusive.
+	 */
+	public int getInStart(int id)
+	{
+		return inOffsets[id];
+	}
+
+	public int getInEnd(int id)
+	{
+		return inOffsets[id + 1];
+	}
+
+	public int getInSource(int edge)
+	{
+		return inSources[edge];
+	}
+
+	public int getInPredicate(int edge)
+	{
+		return inPredicates[edge];
+	}
+
+	/**
+	 * @return target of the first outgoing edge of node with the given predicate, -1 if there is none
+	 */
+	public int findOutTarget(int id, int predicateId)
+	{
+		for (int edge = outOffsets[id]; edge < outOffsets[id + 1]; edge++)
+		{
+			if (outPredicates[edge] == predicateId)
+			{
+				return outTargets[edge];
+			}
+		}
+		return -1;
+	}
+
+	public Statement createStatement(int subjectId, int predicateId, int objectId)
+	{
+		return model.createStatement(getNode(subjectId), getPredicate(predicateId), getNode(objectId));
+	}
+
+	/**
+	 * Breadth-first search along outgoing edges.
+	 *
+	 * @param rootId
+	 * @return for each node the outgoing edge of its predecessor on a shortest path from root, -1 for root and unreachable nodes
+	 */
+	public int[] findShortestPathTree(int rootId)
+	{
+		int[] predecessorEdges = new int[getNumNodes()];
+		Arrays.fill(predecessorEdges, -1);
+		boolean[] isVisited = new boolean[getNumNodes()];
+		isVisited[rootId] = true;
+
+		// every node is queued at most once
+		int[] queue = new int[getNumNodes()];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = rootId;
+		while (head < tail)
+		{
+			int id = queue[head++];
+			for (int edge = outOffsets[id]; edge < outOffsets[id + 1]; edge++)
+			{
+				int target = outTargets[edge];
+				if (isVisited[target])
+				{
+					continue;
+				}
+				isVisited[target] = true;
+				predecessorEdges[target] = edge;
+				queue[tail++] = target;
+			}
+		}
+		return predecessorEdges;
+	}
+
+	/**
+	 * Keeps the unbound instance graph of a model until resource to resource statements of the model change.
+	 */
+	private static class Holder implements ModelIndex
+	{
+		private InstanceGraph instanceGraph = null;
+
+		synchronized InstanceGraph getInstanceGraph(Model model)
+		{
+			if (instanceGraph == null)
+			{
+				instanceGraph = new InstanceGraph(model);
+			}
+			return instanceGraph;
+		}
+
+		@Override
+		public synchronized void onChange(Statement statement)
+		{
+			if (!statement.getObject().isLiteral())
+			{
+				instanceGraph = null;
+			}
+		}
+
+		@Override
+		public synchronized void invalidate()
+		{
+			instanceGraph = null;
+		}
+	}
+
+	private static class IntList
+	{
+		private int[] values = new int[16];
+
+		private int size = 0;
+
+		void add(int value)
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int size()
+		{
+			return size;
+		}
+
+		int[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
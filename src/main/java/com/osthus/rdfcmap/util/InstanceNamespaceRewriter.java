@@ -0,0 +1,146 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * InstanceNamespaceRewriter
+ *
+ * Stream filter that disguises instances of user specified namespaces (--namespace) as urn:uuid: resources for visualization. Triples are rewritten
+ * while they are parsed, so the model is never serialized to string for replacement.
+ */
+public class InstanceNamespaceRewriter extends StreamRDFWrapper
+{
+	private static final Logger log = LogManager.getLogger("Logger");
+
+	private final List<String[]> replacements;
+
+	/**
+	 * @param other
+	 * @param replacements
+	 *            namespace replacements created by createReplacements, they can be shared between rewriters of the same input
+	 */
+	public InstanceNamespaceRewriter(StreamRDF other, List<String[]> replacements)
+	{
+		super(other);
+		this.replacements = replacements;
+	}
+
+	/**
+	 * Replacements are applied in the order of the given namespaces, same as previous string based replacement. Each replacement is logged once.
+	 *
+	 * @param namespaces
+	 * @return pairs of namespace and its replacement
+	 */
+	public static List<String[]> createReplacements(List<String> namespaces)
+	{
+		List<String[]> replacements = new ArrayList<>();
+		for (Iterator<String> iterator = namespaces.iterator(); iterator.hasNext();)
+		{
+			String namespace = iterator.next();
+			if (namespace.equals("hdf:/data-package"))
+			{
+				log.info("Visualizing instances of " + namespace + " as urn:uuid:data-package.");
+				replacements.add(new String[] { namespace, CmapUtil.URN_UUID + "data-package" });
+			}
+			else
+			{
+				String localTypeName = namespace.substring(namespace.lastIndexOf("/") + 1, namespace.length());
+				log.info("Visualizing instances of IRI pattern " + namespace + "instance as urn:uuid:" + localTypeName + "instance.");
+				replacements.add(new String[] { namespace, CmapUtil.URN_UUID + localTypeName });
+				String base = namespace.substring(0, namespace.length() - 1);
+				replacements.add(new String[] { base, CmapUtil.URN_UUID });
+			}
+		}
+		return replacements;
+	}
+
+	public String rewriteString(String value)
+	{
+		for (String[] replacement : replacements)
+		{
+			if (value.contains(replacement[0]))
+			{
+				value = value.replace(replacement[0], replacement[1]);
+			}
+		}
+		return value;
+	}
+
+	public Node rewriteNode(Node node)
+	{
+		if (node == null)
+		{
+			return null;
+		}
+
+		if (node.isURI())
+		{
+			String uri = node.getURI();
+			String rewrittenUri = rewriteString(uri);
+			return uri.equals(rewrittenUri) ? node : NodeFactory.createURI(rewrittenUri);
+		}
+
+		if (node.isLiteral())
+		{
+			String lexicalForm = node.getLiteralLexicalForm();
+			String rewrittenLexicalForm = rewriteString(lexicalForm);
+			String language = node.getLiteralLanguage();
+			if (language != null && !language.isEmpty())
+			{
+				return lexicalForm.equals(rewrittenLexicalForm) ? node : NodeFactory.createLiteral(rewrittenLexicalForm, language);
+			}
+
+			String datatypeUri = node.getLiteralDatatypeURI();
+			String rewrittenDatatypeUri = datatypeUri == null ? null : rewriteString(datatypeUri);
+			if (lexicalForm.equals(rewrittenLexicalForm) && (datatypeUri == null || datatypeUri.equals(rewrittenDatatypeUri)))
+			{
+				return node;
+			}
+
+			if (rewrittenDatatypeUri == null)
+			{
+				return NodeFactory.createLiteral(rewrittenLexicalForm);
+			}
+			RDFDatatype datatype = TypeMapper.getInstance().getSafeTypeByName(rewrittenDatatypeUri);
+			return NodeFactory.createLiteral(rewrittenLexicalForm, datatype);
+		}
+
+		return node;
+	}
+
+	public Triple rewriteTriple(Triple triple)
+	{
+		return Triple.create(rewriteNode(triple.getSubject()), rewriteNode(triple.getPredicate()), rewriteNode(triple.getObject()));
+	}
+
+	@Override
+	public void triple(Triple triple)
+	{
+		super.triple(rewriteTriple(triple));
+	}
+
+	@Override
+	public void quad(Quad quad)
+	{
+		super.quad(Quad.create(rewriteNode(quad.getGraph()), rewriteTriple(quad.asTriple())));
+	}
+
+	@Override
+	public void prefix(String prefix, String iri)
+	{
+		super.prefix(prefix, rewriteString(iri));
+	}
+}
@@ -0,0 +1,332 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+
+/**
+ * LabelIndex
+ *
+ * Index of skos:prefLabel and rdfs:label of classes, named individuals and properties of a model. Labels are indexed exact and prefixed by namespace.
+ * Trigram indexes for fuzzy lookup, one of all labels and one of the labels of classes and individuals, are built on demand. The index is built once per
+ * model on first use and kept in sync with the model by listening to its changes.
+ */
+public class LabelIndex implements ModelIndex
+{
+	private static final double MIN_SIMILARITY = 0.5;
+
+	private static final Resource[] CLASS_AND_INDIVIDUAL_TYPES = new Resource[] { AFOUtil.OWL_CLASS, AFOUtil.OWL_NAMED_INDIVIDUAL };
+
+	private static final Resource[] PROPERTY_TYPES = new Resource[] { AFOUtil.OWL_OBJECT_PROPERTY, AFOUtil.OWL_DATATYPE_PROPERTY,
+			AFOUtil.OWL_ANNOTATION_PROPERTY };
+
+	private final Entries classesAndIndividuals = new Entries(CLASS_AND_INDIVIDUAL_TYPES);
+
+	private final Entries properties = new Entries(PROPERTY_TYPES);
+
+	private TrigramIndex trigramIndex = null;
+
+	private TrigramIndex classAndIndividualTrigramIndex = null;
+
+	private boolean isValid = false;
+
+	private LabelIndex()
+	{
+	}
+
+	/**
+	 * Label index of the given model, it is created on first call.
+	 *
+	 * @param model
+	 * @return
+	 */
+	public static LabelIndex get(Model model)
+	{
+		LabelIndex labelIndex = ModelIndexes.of(model).get(LabelIndex.class, LabelIndex::new);
+		labelIndex.ensureValid(model);
+		return labelIndex;
+	}
+
+	public synchronized Collection<Resource> getResources(Model model, String label, boolean includeProperties)
+	{
+		return lookup(model, classesAndIndividuals.label2nodes, properties.label2nodes, label, includeProperties);
+	}
+
+	public synchronized Collection<Resource> getResources(Model model, String namespace, String label, boolean includeProperties)
+	{
+		return lookup(model, classesAndIndividuals.prefixedLabel2nodes, properties.prefixedLabel2nodes, createPrefixedKey(namespace, label), includeProperties);
+	}
+
+	/**
+	 * Fuzzy lookup by label trigrams.
+	 *
+	 * @param model
+	 * @param label
+	 * @param maxLabels
+	 *            maximum number of similar labels
+	 * @param includeProperties
+	 * @return similar labels with their resources, most similar label first
+	 */
+	public synchronized Map<String, Collection<Resource>> findSimilarResources(Model model, String label, int maxLabels, boolean includeProperties)
+	{
+		// every label of the queried index has resources, so the limit applies to the returned labels
+		TrigramIndex index;
+		if (includeProperties)
+		{
+			if (trigramIndex == null)
+			{
+				Set<String> labels = new LinkedHashSet<String>(classesAndIndividuals.label2nodes.keySet());
+				labels.addAll(properties.label2nodes.keySet());
+				trigramIndex = new TrigramIndex(labels);
+			}
+			index = trigramIndex;
+		}
+		else
+		{
+			if (classAndIndividualTrigramIndex == null)
+			{
+				classAndIndividualTrigramIndex = new TrigramIndex(classesAndIndividuals.label2nodes.keySet());
+			}
+			index = classAndIndividualTrigramIndex;
+		}
+
+		Map<String, Collection<Resource>> label2resources = new LinkedHashMap<String, Collection<Resource>>();
+		for (String similarLabel : index.findSimilar(label, maxLabels, MIN_SIMILARITY))
+		{
+			label2resources.put(similarLabel, getResources(model, similarLabel, includeProperties));
+		}
+		return label2resources;
+	}
+
+	private static Collection<Resource> lookup(Model model, Map<String, Set<Node>> classAndIndividualMap, Map<String, Set<Node>> propertyMap, String key,
+			boolean includeProperties)
+	{
+		Set<Node> nodes = new LinkedHashSet<Node>();
+		if (classAndIndividualMap.containsKey(key))
+		{
+			nodes.addAll(classAndIndividualMap.get(key));
+		}
+		if (includeProperties && propertyMap.containsKey(key))
+		{
+			nodes.addAll(propertyMap.get(key));
+		}
+
+		if (nodes.isEmpty())
+		{
+			return Collections.<Resource> emptyList();
+		}
+
+		List<Resource> resources = new ArrayList<Resource>(nodes.size());
+		for (Node node : nodes)
+		{
+			resources.add(model.wrapAsResource(node));
+		}
+		return resources;
+	}
+
+	private static String createPrefixedKey(String namespace, String label)
+	{
+		return namespace + "\u0000" + label;
+	}
+
+	private static boolean isLabelPredicate(Property predicate)
+	{
+		return predicate.equals(AFOUtil.SKOS_PREF_LABEL) || predicate.equals(AFOUtil.RDFS_LABEL);
+	}
+
+	private synchronized void ensureValid(Model model)
+	{
+		if (isValid)
+		{
+			return;
+		}
+
+		classesAndIndividuals.clear();
+		properties.clear();
+		trigramIndex = null;
+		classAndIndividualTrigramIndex = null;
+		for (Resource type : CLASS_AND_INDIVIDUAL_TYPES)
+		{
+			indexSubjectsOfType(model, type);
+		}
+		for (Resource type : PROPERTY_TYPES)
+		{
+			indexSubjectsOfType(model, type);
+		}
+		isValid = true;
+	}
+
+	private void indexSubjectsOfType(Model model, Resource type)
+	{
+		StmtIterator stmtIterator = model.listStatements((Resource) null, (Property) null, type);
+		while (stmtIterator.hasNext())
+		{
+			Statement statement = stmtIterator.next();
+			reindex(statement.getSubject(), model);
+		}
+	}
+
+	private void reindex(Resource subject, Model model)
+	{
+		if (!subject.isURIResource())
+		{
+			return;
+		}
+		classesAndIndividuals.reindex(subject, model);
+		properties.reindex(subject, model);
+		trigramIndex = null;
+		classAndIndividualTrigramIndex = null;
+	}
+
+	@Override
+	public synchronized void onChange(Statement statement)
+	{
+		if (!isValid)
+		{
+			return;
+		}
+
+		if (isLabelPredicate(statement.getPredicate()) || classesAndIndividuals.isType(statement.getObject()) || properties.isType(statement.getObject()))
+		{
+			reindex(statement.getSubject(), statement.getModel());
+		}
+	}
+
+	@Override
+	public synchronized void invalidate()
+	{
+		isValid = false;
+	}
+
+	/**
+	 * Labels of the resources having one of the given types.
+	 */
+	private static class Entries
+	{
+		private final Resource[] types;
+
+		private final Map<String, Set<Node>> label2nodes = new HashMap<String, Set<Node>>();
+
+		private final Map<String, Set<Node>> prefixedLabel2nodes = new HashMap<String, Set<Node>>();
+
+		private final Map<Node, Set<String>> node2labels = new HashMap<Node, Set<String>>();
+
+		Entries(Resource[] types)
+		{
+			this.types = types;
+		}
+
+		boolean isType(RDFNode node)
+		{
+			for (Resource type : types)
+			{
+				if (type.equals(node))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void clear()
+		{
+			label2nodes.clear();
+			prefixedLabel2nodes.clear();
+			node2labels.clear();
+		}
+
+		void reindex(Resource resource, Model model)
+		{
+			Node node = resource.asNode();
+			Set<String> labels = node2labels.remove(node);
+			if (labels != null)
+			{
+				for (String label : labels)
+				{
+					remove(label2nodes, label, node);
+					remove(prefixedLabel2nodes, createPrefixedKey(resource.getNameSpace(), label), node);
+				}
+			}
+
+			if (!hasType(resource, model))
+			{
+				return;
+			}
+
+			labels = new LinkedHashSet<String>();
+			StmtIterator stmtIterator = model.listStatements(resource, (Property) null, (RDFNode) null);
+			while (stmtIterator.hasNext())
+			{
+				Statement statement = stmtIterator.next();
+				if (!isLabelPredicate(statement.getPredicate()) || !statement.getObject().isLiteral())
+				{
+					continue;
+				}
+				labels.add(statement.getString());
+			}
+
+			if (labels.isEmpty())
+			{
+				return;
+			}
+
+			node2labels.put(node, labels);
+			for (String label : labels)
+			{
+				add(label2nodes, label, node);
+				add(prefixedLabel2nodes, createPrefixedKey(resource.getNameSpace(), label), node);
+			}
+		}
+
+		private boolean hasType(Resource resource, Model model)
+		{
+			for (Resource type : types)
+			{
+				if (model.contains(resource, (Property) null, type))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static void add(Map<String, Set<Node>> map, String key, Node node)
+		{
+			Set<Node> nodes = map.get(key);
+			if (nodes == null)
+			{
+				nodes = new LinkedHashSet<Node>();
+				map.put(key, nodes);
+			}
+			nodes.add(node);
+		}
+
+		private static void remove(Map<String, Set<Node>> map, String key, Node node)
+		{
+			Set<Node> nodes = map.get(key);
+			if (nodes == null)
+			{
+				return;
+			}
+			nodes.remove(node);
+			if (nodes.isEmpty())
+			{
+				map.remove(key);
+			}
+		}
+	}
+}
@@ -0,0 +1,250 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.osthus.rdfcmap.enums.LongCommentTokenType;
+import com.osthus.rdfcmap.helper.LongCommentToken;
+
+/**
+ * LongCommentLexer
+ *
+ * Tokenizes turtle fragments of long comments in a single pass. Rewrites of human readable identifiers, prefixed names, placeholders and IRIs are
+ * applied per token, so the text is neither rescanned nor copied per rewrite. Strings and comments are kept as single tokens and are never rewritten.
+ */
+public class LongCommentLexer
+{
+	private static final String PLACEHOLDER_DELIMITERS = ".,;)]";
+
+	public static List<LongCommentToken> tokenize(String text)
+	{
+		List<LongCommentToken> tokens = new ArrayList<LongCommentToken>();
+		int length = text.length();
+		int position = 0;
+		int textStart = 0;
+		while (position < length)
+		{
+			LongCommentToken token = readToken(text, position);
+			if (token == null)
+			{
+				position++;
+				continue;
+			}
+
+			if (token.getType() == LongCommentTokenType.TEXT)
+			{
+				position += token.getText().length();
+				continue;
+			}
+
+			if (textStart < position)
+			{
+				tokens.add(createTextToken(text.substring(textStart, position)));
+			}
+			tokens.add(token);
+			position += token.getText().length();
+			textStart = position;
+		}
+
+		if (textStart < length)
+		{
+			tokens.add(createTextToken(text.substring(textStart)));
+		}
+
+		return tokens;
+	}
+
+	private static LongCommentToken createTextToken(String text)
+	{
+		return new LongCommentToken(LongCommentTokenType.TEXT, text, text);
+	}
+
+	private static LongCommentToken readToken(String text, int position)
+	{
+		char c = text.charAt(position);
+		switch (c)
+		{
+			case '"':
+			case '\'':
+				return readString(text, position, c);
+			case '#':
+				return readComment(text, position);
+			case '«':
+				return readIdentifier(text, position, "«", "»");
+			case '<':
+				if (text.startsWith("<<", position))
+				{
+					return readIdentifier(text, position, "<<", ">>");
+				}
+				return readIri(text, position);
+			case '?':
+				return readPlaceholder(text, position);
+			default:
+				if (isLetter(c) && (position == 0 || !isNameChar(text.charAt(position - 1))))
+				{
+					return readName(text, position);
+				}
+				return null;
+		}
+	}
+
+	private static LongCommentToken readString(String text, int position, char quote)
+	{
+		String delimiter = new String(new char[] { quote, quote, quote });
+		boolean isLong = text.startsWith(delimiter, position);
+		if (!isLong)
+		{
+			delimiter = String.valueOf(quote);
+		}
+
+		int index = position + delimiter.length();
+		while (index < text.length())
+		{
+			char c = text.charAt(index);
+			if (c == '\\')
+			{
+				index += 2;
+				continue;
+			}
+			if (!isLong && c == '\n')
+			{
+				return null;
+			}
+			if (text.startsWith(delimiter, index))
+			{
+				int end = index + delimiter.length();
+				return new LongCommentToken(LongCommentTokenType.STRING, text.substring(position, end), text.substring(position + delimiter.length(), index));
+			}
+			index++;
+		}
+
+		// unterminated string, quote is plain text
+		return null;
+	}
+
+	private static LongCommentToken readComment(String text, int position)
+	{
+		int end = text.indexOf('\n', position);
+		if (end == -1)
+		{
+			end = text.length();
+		}
+		return new LongCommentToken(LongCommentTokenType.COMMENT, text.substring(position, end), text.substring(position + 1, end));
+	}
+
+	private static LongCommentToken readIdentifier(String text, int position, String start, String end)
+	{
+		int index = text.indexOf(end, position + start.length());
+		if (index == -1)
+		{
+			return null;
+		}
+
+		String content = text.substring(position + start.length(), index);
+		if (content.indexOf('\n') != -1)
+		{
+			return null;
+		}
+
+		return new LongCommentToken(LongCommentTokenType.IDENTIFIER, text.substring(position, index + end.length()), content);
+	}
+
+	private static LongCommentToken readIri(String text, int position)
+	{
+		int index = position + 1;
+		while (index < text.length())
+		{
+			char c = text.charAt(index);
+			if (c == '>')
+			{
+				return new LongCommentToken(LongCommentTokenType.IRI, text.substring(position, index + 1), text.substring(position + 1, index));
+			}
+			if (Character.isWhitespace(c) || c == '<' || c == '"')
+			{
+				return null;
+			}
+			index++;
+		}
+		return null;
+	}
+
+	/**
+	 * Placeholder like ?variable-placeholder-name, only as a whole term: it starts at the beginning of the text or after whitespace and ends at whitespace,
+	 * punctuation of the turtle syntax or the end of the text. A '?' within a word is plain text.
+	 */
+	private static LongCommentToken readPlaceholder(String text, int position)
+	{
+		if (position > 0 && !Character.isWhitespace(text.charAt(position - 1)))
+		{
+			return null;
+		}
+
+		int index = position + 1;
+		while (index < text.length() && isPlaceholderChar(text.charAt(index)))
+		{
+			index++;
+		}
+		if (index == position + 1)
+		{
+			return null;
+		}
+		if (index < text.length() && !Character.isWhitespace(text.charAt(index)) && PLACEHOLDER_DELIMITERS.indexOf(text.charAt(index)) == -1)
+		{
+			return null;
+		}
+		return new LongCommentToken(LongCommentTokenType.PLACEHOLDER, text.substring(position, index), text.substring(position + 1, index));
+	}
+
+	/**
+	 * Prefixed name like af-x:AFX_0000001 or any other word, which is returned as text so that no token starts within the word.
+	 */
+	private static LongCommentToken readName(String text, int position)
+	{
+		int index = position;
+		while (index < text.length() && (isLetter(text.charAt(index)) || text.charAt(index) == '-'))
+		{
+			index++;
+		}
+
+		if (index < text.length() && text.charAt(index) == ':')
+		{
+			int localNameStart = index + 1;
+			int localNameEnd = localNameStart;
+			while (localNameEnd < text.length() && isLocalNameChar(text.charAt(localNameEnd)))
+			{
+				localNameEnd++;
+			}
+			if (localNameEnd > localNameStart)
+			{
+				String prefixedName = text.substring(position, localNameEnd);
+				return new LongCommentToken(LongCommentTokenType.PREFIXED_NAME, prefixedName, prefixedName);
+			}
+		}
+
+		while (index < text.length() && isNameChar(text.charAt(index)))
+		{
+			index++;
+		}
+		return createTextToken(text.substring(position, index));
+	}
+
+	private static boolean isLetter(char c)
+	{
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isNameChar(char c)
+	{
+		return isLetter(c) || (c >= '0' && c <= '9') || c == '_' || c == '-';
+	}
+
+	private static boolean isLocalNameChar(char c)
+	{
+		return isNameChar(c) || c == '#';
+	}
+
+	private static boolean isPlaceholderChar(char c)
+	{
+		return isLetter(c) || (c >= '0' && c <= '9') || c == '-';
+	}
+}
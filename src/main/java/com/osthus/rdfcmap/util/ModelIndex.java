@@ -0,0 +1,24 @@
+package com.osthus.rdfcmap.util;
+
+import org.apache.jena.rdf.model.Statement;
+
+/**
+ * ModelIndex
+ *
+ * Index or cache derived from a model and registered with ModelIndexes of that model. Indexes are held weakly by their model, so they keep resources as
+ * nodes and wrap them on lookup: a resource refers to its model and would keep the model reachable from its index.
+ */
+public interface ModelIndex
+{
+	/**
+	 * Called for every statement added to or removed from the model.
+	 *
+	 * @param statement
+	 */
+	void onChange(Statement statement);
+
+	/**
+	 * Called for changes of the model that are not reported statement by statement.
+	 */
+	void invalidate();
+}
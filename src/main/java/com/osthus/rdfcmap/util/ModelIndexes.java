@@ -0,0 +1,112 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.rdf.listeners.StatementListener;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Statement;
+
+/**
+ * ModelIndexes
+ *
+ * Indexes of a model share a single listener of the model. Added and removed statements are passed to every index, this includes statements removed by
+ * pattern, e.g. by Resource.removeAll(property), which the graph reports triple by triple before its pattern event. Only clearing the whole graph is not
+ * reported per statement, it invalidates all indexes.
+ */
+public class ModelIndexes extends StatementListener
+{
+	private static final Map<Model, ModelIndexes> model2indexes = Collections.synchronizedMap(new WeakHashMap<Model, ModelIndexes>());
+
+	private final List<ModelIndex> indexes = new CopyOnWriteArrayList<ModelIndex>();
+
+	private ModelIndexes()
+	{
+	}
+
+	/**
+	 * Indexes of the given model, the listener is registered on first call.
+	 *
+	 * @param model
+	 * @return
+	 */
+	public static ModelIndexes of(Model model)
+	{
+		synchronized (model2indexes)
+		{
+			ModelIndexes modelIndexes = model2indexes.get(model);
+			if (modelIndexes == null)
+			{
+				modelIndexes = new ModelIndexes();
+				model.register(modelIndexes);
+				model2indexes.put(model, modelIndexes);
+			}
+			return modelIndexes;
+		}
+	}
+
+	/**
+	 * @param type
+	 * @param factory
+	 * @return index of the given type, it is created by the factory and added if there is none
+	 */
+	public synchronized <T extends ModelIndex> T get(Class<T> type, Supplier<T> factory)
+	{
+		for (ModelIndex index : indexes)
+		{
+			if (type.isInstance(index))
+			{
+				return type.cast(index);
+			}
+		}
+
+		T index = factory.get();
+		indexes.add(index);
+		return index;
+	}
+
+	public synchronized void add(ModelIndex index)
+	{
+		indexes.add(index);
+	}
+
+	public synchronized void remove(ModelIndex index)
+	{
+		indexes.remove(index);
+	}
+
+	@Override
+	public void addedStatement(Statement statement)
+	{
+		for (ModelIndex index : indexes)
+		{
+			index.onChange(statement);
+		}
+	}
+
+	@Override
+	public void removedStatement(Statement statement)
+	{
+		for (ModelIndex index : indexes)
+		{
+			index.onChange(statement);
+		}
+	}
+
+	@Override
+	public void notifyEvent(Model model, Object event)
+	{
+		if (GraphEvents.removeAll.equals(event))
+		{
+			for (ModelIndex index : indexes)
+			{
+				index.invalidate();
+			}
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package com.osthus.rdfcmap.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.ReaderRIOT;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.system.ParserProfile;
+import org.apache.jena.riot.system.RiotLib;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.osthus.rdfcmap.RdfCmap;
+
+/**
+ * NTriplesLoader
+ *
+ * Parallel loading of N-Triples (.nt) and gzipped N-Triples (.nt.gz). The input is split at line boundaries into chunks that are parsed concurrently into
+ * partial graphs, which are merged into the target model in input order. Plain files are memory-mapped, gzipped files are decompressed in a single stream
+ * and handed over chunk by chunk. Instance namespaces given by --namespace are rewritten per chunk with replacements computed once per file.
+ */
+public class NTriplesLoader
+{
+	private static final Logger log = LogManager.getLogger("Logger");
+
+	private static final int CHUNK_SIZE = 32 * 1024 * 1024;
+
+	public static boolean isNTriplesFile(Path path)
+	{
+		String fileName = path.toFile().getName().toLowerCase();
+		return fileName.endsWith(".nt") || fileName.endsWith(".nt.gz");
+	}
+
+	public static Model read(Path path, Model model) throws IOException
+	{
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		// blank node labels are scoped to the document, so all chunks of the file share the same label prefix
+		String blankNodePrefix = UUID.randomUUID().toString() + "-";
+		List<String[]> replacements = null;
+		if (RdfCmap.userSpecifiedInstanceNamespaces != null && !RdfCmap.userSpecifiedInstanceNamespaces.isEmpty())
+		{
+			replacements = InstanceNamespaceRewriter.createReplacements(RdfCmap.userSpecifiedInstanceNamespaces);
+		}
+
+		ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+		try
+		{
+			if (path.toFile().getName().toLowerCase().endsWith(".gz"))
+			{
+				readGzipped(path, model, executorService, numThreads, blankNodePrefix, replacements);
+			}
+			else
+			{
+				readMapped(path, model, executorService, numThreads, blankNodePrefix, replacements);
+			}
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+
+		return model;
+	}
+
+	private static void readMapped(Path path, Model model, ExecutorService executorService, int numThreads, String blankNodePrefix, List<String[]> replacements)
+			throws IOException
+	{
+		try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			long size = fileChannel.size();
+			Deque<Future<Graph>> futures = new ArrayDeque<>();
+			long start = 0;
+			while (start < size)
+			{
+				long end = findLineEnd(fileChannel, Math.min(start + CHUNK_SIZE, size), size);
+				MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+				futures.add(executorService.submit(createParseTask(new ByteBufferInputStream(buffer), blankNodePrefix, replacements)));
+				start = end;
+
+				while (futures.size() > 2 * numThreads)
+				{
+					merge(futures.poll(), model);
+				}
+			}
+
+			while (!futures.isEmpty())
+			{
+				merge(futures.poll(), model);
+			}
+		}
+	}
+
+	/**
+	 * Position after the next line break at or after the given position, or the end of the file.
+	 */
+	private static long findLineEnd(FileChannel fileChannel, long position, long size) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		while (position < size)
+		{
+			buffer.clear();
+			int numBytes = fileChannel.read(buffer, position);
+			if (numBytes <= 0)
+			{
+				break;
+			}
+			for (int i = 0; i < numBytes; i++)
+			{
+				if (buffer.get(i) == '\n')
+				{
+					return position + i + 1;
+				}
+			}
+			position += numBytes;
+		}
+		return size;
+	}
+
+	private static void readGzipped(Path path, Model model, ExecutorService executorService, int numThreads, String blankNodePrefix, List<String[]> replacements)
+			throws IOException
+	{
+		try (InputStream inputStream = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), 65536)))
+		{
+			Deque<Future<Graph>> futures = new ArrayDeque<>();
+			ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_SIZE + 65536);
+			byte[] buffer = new byte[65536];
+			int numBytes;
+			while ((numBytes = inputStream.read(buffer)) != -1)
+			{
+				chunk.write(buffer, 0, numBytes);
+				if (chunk.size() < CHUNK_SIZE)
+				{
+					continue;
+				}
+
+				byte[] bytes = chunk.toByteArray();
+				int lineEnd = bytes.length;
+				while (lineEnd > 0 && bytes[lineEnd - 1] != '\n')
+				{
+					lineEnd--;
+				}
+				if (lineEnd == 0)
+				{
+					continue; // no complete line yet
+				}
+
+				futures.add(executorService.submit(createParseTask(new ByteArrayInputStream(bytes, 0, lineEnd), blankNodePrefix, replacements)));
+				chunk.reset();
+				chunk.write(bytes, lineEnd, bytes.length - lineEnd);
+
+				while (futures.size() > 2 * numThreads)
+				{
+					merge(futures.poll(), model);
+				}
+			}
+
+			if (chunk.size() > 0)
+			{
+				futures.add(executorService.submit(createParseTask(new ByteArrayInputStream(chunk.toByteArray()), blankNodePrefix, replacements)));
+			}
+
+			while (!futures.isEmpty())
+			{
+				merge(futures.poll(), model);
+			}
+		}
+	}
+
+	/**
+	 * @param replacements
+	 *            instance namespace replacements of the file, null if there are none
+	 */
+	private static Callable<Graph> createParseTask(InputStream inputStream, String blankNodePrefix, List<String[]> replacements)
+	{
+		return () -> {
+			Graph graph = GraphFactory.createGraphMem();
+			StreamRDF sink = StreamRDFLib.graph(graph);
+			if (replacements != null)
+			{
+				sink = new InstanceNamespaceRewriter(sink, replacements);
+			}
+			sink = new BlankNodeLabelScope(sink, blankNodePrefix);
+			ParserProfile parserProfile = RiotLib.profile(Lang.NTRIPLES, null);
+			parserProfile.setLabelToNode(LabelToNode.createUseLabelAsGiven());
+			ReaderRIOT reader = RDFDataMgr.createReader(Lang.NTRIPLES);
+			reader.setParserProfile(parserProfile);
+			sink.start();
+			reader.read(inputStream, null, null, sink, null);
+			sink.finish();
+			return graph;
+		};
+	}
+
+	private static void merge(Future<Graph> future, Model model) throws IOException
+	{
+		Graph graph;
+		try
+		{
+			graph = future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while reading N-Triples.", e);
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException("Error while reading N-Triples.", e.getCause());
+		}
+
+		log.debug("Merging " + graph.size() + " triples of chunk.");
+		GraphUtil.addInto(model.getGraph(), graph);
+	}
+
+	/**
+	 * Blank node labels are kept as given by the parser, this filter makes them unique for the current file.
+	 */
+	private static class BlankNodeLabelScope extends StreamRDFWrapper
+	{
+		private final String prefix;
+
+		BlankNodeLabelScope(StreamRDF other, String prefix)
+		{
+			super(other);
+			this.prefix = prefix;
+		}
+
+		private Node scope(Node node)
+		{
+			if (node.isBlank())
+			{
+				return NodeFactory.createBlankNode(prefix + node.getBlankNodeLabel());
+			}
+			return node;
+		}
+
+		@Override
+		public void triple(Triple triple)
+		{
+			super.triple(Triple.create(scope(triple.getSubject()), triple.getPredicate(), scope(triple.getObject())));
+		}
+	}
+
+	private static class ByteBufferInputStream extends InputStream
+	{
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer)
+		{
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read()
+		{
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len)
+		{
+			if (!buffer.hasRemaining())
+			{
+				return -1;
+			}
+			int numBytes = Math.min(len, buffer.remaining());
+			buffer.get(bytes, off, numBytes);
+			return numBytes;
+		}
+	}
+}
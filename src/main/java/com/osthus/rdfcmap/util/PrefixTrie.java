@@ -0,0 +1,78 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * PrefixTrie
+ *
+ * Character trie of string keys for longest-match lookup at any position of a text, e.g. the namespace of an IRI. Lookup time depends on the length of
+ * the match only, not on the number of keys.
+ */
+public class PrefixTrie
+{
+	private final Node root = new Node();
+
+	private int size = 0;
+
+	public void put(String key, String value)
+	{
+		Node node = root;
+		for (int i = 0; i < key.length(); i++)
+		{
+			char c = key.charAt(i);
+			Node child = node.children.get(c);
+			if (child == null)
+			{
+				child = new Node();
+				node.children.put(c, child);
+			}
+			node = child;
+		}
+
+		if (node.entry == null)
+		{
+			size++;
+		}
+		node.entry = new SimpleImmutableEntry<String, String>(key, value);
+	}
+
+	/**
+	 * @param text
+	 * @param start
+	 *            position in text where the key has to start
+	 * @return the entry of the longest key that text contains at start, or null
+	 */
+	public Entry<String, String> findLongestPrefix(CharSequence text, int start)
+	{
+		Entry<String, String> longestEntry = root.entry;
+		Node node = root;
+		for (int i = start; i < text.length(); i++)
+		{
+			node = node.children.get(text.charAt(i));
+			if (node == null)
+			{
+				break;
+			}
+			if (node.entry != null)
+			{
+				longestEntry = node.entry;
+			}
+		}
+		return longestEntry;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	private static class Node
+	{
+		private final Map<Character, Node> children = new HashMap<Character, Node>(4);
+
+		private Entry<String, String> entry;
+	}
+}
@@ -125,6 +125,10 @@ public class Prefixes
 
 	private static Map<String, String> namespaceMap = new HashMap<String, String>();
 
+	private static PrefixTrie namespaceTrie = null;
+
+	private static PrefixTrie prefixTrie = null;
+
 	public static String getSparqlPrefixes()
 	{
 		if (!prefixes.equals(""))
@@ -173,6 +177,86 @@ public class Prefixes
 		{
 			namespaceMap.put(entry.getValue(), entry.getKey());
 		}
+
+		namespaceTrie = null;
+		prefixTrie = null;
+	}
+
+	/**
+	 * Trie of namespaces to prefixes, same mapping as the namespace map.
+	 */
+	private static synchronized PrefixTrie getNamespaceTrie()
+	{
+		if (namespaceTrie == null)
+		{
+			PrefixTrie trie = new PrefixTrie();
+			for (Entry<String, String> entry : getNamespaceMap().entrySet())
+			{
+				trie.put(entry.getKey(), entry.getValue());
+			}
+			namespaceTrie = trie;
+		}
+		return namespaceTrie;
+	}
+
+	/**
+	 * Trie of prefixes including colon to namespaces.
+	 */
+	private static synchronized PrefixTrie getPrefixTrie()
+	{
+		if (prefixTrie == null)
+		{
+			PrefixTrie trie = new PrefixTrie();
+			for (Entry<String, String> entry : nsPrefixMap.entrySet())
+			{
+				if (entry.getValue() != null && !entry.getValue().isEmpty())
+				{
+					trie.put(entry.getKey() + ":", entry.getValue());
+				}
+			}
+			prefixTrie = trie;
+		}
+		return prefixTrie;
+	}
+
+	/**
+	 * Compact IRI with the longest matching known namespace.
+	 *
+	 * @param iri
+	 * @return prefixed name, the IRI in angle brackets if it is a known namespace itself, or null if there is no known namespace for the IRI
+	 */
+	public static String compactIri(String iri)
+	{
+		Entry<String, String> entry = getNamespaceTrie().findLongestPrefix(iri, 0);
+		if (entry == null)
+		{
+			return null;
+		}
+
+		if (entry.getKey().length() == iri.length())
+		{
+			// namespace itself, e.g. in prefix declarations
+			return "<" + iri + ">";
+		}
+
+		return entry.getValue() + ":" + iri.substring(entry.getKey().length());
+	}
+
+	/**
+	 * Expand prefixed name with the namespace of its prefix.
+	 *
+	 * @param prefixedName
+	 * @return IRI or null if the prefix is unknown
+	 */
+	public static String expandPrefixedName(String prefixedName)
+	{
+		Entry<String, String> entry = getPrefixTrie().findLongestPrefix(prefixedName, 0);
+		if (entry == null)
+		{
+			return null;
+		}
+
+		return entry.getValue() + prefixedName.substring(entry.getKey().length());
 	}
 
 	public static void updatePrefixes(String[] newPrefixes)
@@ -1,9 +1,11 @@
 package com.osthus.rdfcmap.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -25,6 +27,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.osthus.rdfcmap.helper.ConceptRelation;
+import com.osthus.rdfcmap.helper.StatementDelta;
 
 /**
  * @author Helge Krieg, OSTHUS GmbH
@@ -33,6 +36,20 @@ public class RdfUtil
 {
 	private static final Logger log = LogManager.getLogger("Logger");
 
+	private static final int MAX_SIMILAR_LABELS = 5;
+
+	private static final Set<Resource> VOCABULARY_TYPES = new HashSet<Resource>(Arrays.asList(AFOUtil.OWL_RESTRICTION, AFOUtil.OWL_CLASS,
+			AFOUtil.OWL_OBJECT_PROPERTY, AFOUtil.OWL_DATATYPE_PROPERTY, AFOUtil.OWL_ANNOTATION_PROPERTY, AFOUtil.OWL_AXIOM, AFOUtil.RDFS_DATATYPE,
+			AFOUtil.OWL_ALL_DIFFERENT));
+
+	private static final Pattern INSTANCE_PATTERN = Pattern.compile("(?i)(instance\\:[a-zA-Z0-9\\s]+)$");
+
+	private static final Pattern AID_PATTERN = Pattern.compile("\\(([A-Z]+_[0-9]{5,7})\\)");
+
+	private static final Pattern PREFIXED_IRI_PATTERN = Pattern.compile("\\(([a-zA-Z\\-]+\\:[a-zA-Z]+)\\)");
+
+	private static final Pattern PREFIXED_IRI_LIST_PATTERN = Pattern.compile("\\((([a-zA-Z\\-]+\\:[a-zA-Z]+)[\\s]*[\\,]?[\\s]*)*\\)");
+
 	public static boolean isAFTNamespace(String namespace)
 	{
 		if (Prefixes.aftPrefixMap.containsValue(namespace))
@@ -67,8 +84,7 @@ public class RdfUtil
 			return model;
 		}
 
-		List<Statement> statementsToRemove = new ArrayList<Statement>();
-		List<Statement> statementsToAdd = new ArrayList<Statement>();
+		StatementDelta delta = new StatementDelta();
 
 		for (Entry<Resource, String> entry : blankNode2id.entrySet())
 		{
@@ -79,7 +95,7 @@ public class RdfUtil
 			while (stmtIterator.hasNext())
 			{
 				Statement statement = stmtIterator.next();
-				statementsToRemove.add(statement);
+				delta.remove(statement);
 
 				Statement newStatement = null;
 				if (!statement.getObject().isAnon())
@@ -91,14 +107,14 @@ public class RdfUtil
 					Resource newResourceForBlankObject = model.createResource(blankNode2id.get(statement.getObject().asResource()));
 					newStatement = ResourceFactory.createStatement(newResource, statement.getPredicate(), newResourceForBlankObject);
 				}
-				statementsToAdd.add(newStatement);
+				delta.add(newStatement);
 			}
 
 			stmtIterator = model.listStatements((Resource) null, (Property) null, bnode);
 			while (stmtIterator.hasNext())
 			{
 				Statement statement = stmtIterator.next();
-				statementsToRemove.add(statement);
+				delta.remove(statement);
 
 				Statement newStatement = null;
 				if (!statement.getSubject().isAnon())
@@ -110,16 +126,147 @@ public class RdfUtil
 					Resource newResourceForBlankSubject = model.createResource(blankNode2id.get(statement.getSubject()));
 					newStatement = ResourceFactory.createStatement(newResourceForBlankSubject, statement.getPredicate(), newResource);
 				}
-				statementsToAdd.add(newStatement);
+				delta.add(newStatement);
 			}
 		}
 
-		model.remove(statementsToRemove);
-		model.add(statementsToAdd);
+		delta.apply(model);
 
 		return model;
 	}
 
+	/**
+	 * Copy the k-hop neighborhood of the given root within the instance graph to the target model. Instances are resources with urn:uuid: IRI and blank
+	 * nodes, they are traversed in both directions using indexed lookups. Classes disguised as urn:uuid: IRIs and blank nodes typed as ontology
+	 * constructs are vocabulary. All statements about vocabulary are kept together with the blank nodes they refer to (e.g. rdf:List cells), statements
+	 * pointing to instances outside of the neighborhood are dropped.
+	 *
+	 * @param model
+	 * @param root
+	 * @param hops
+	 * @param target
+	 * @return target
+	 */
+	public static Model extractNeighborhood(Model model, Resource root, int hops, Model target)
+	{
+		log.info("Extracting " + hops + "-hop neighborhood of " + root.toString());
+		Map<Resource, Boolean> blankNode2isInstance = new HashMap<>();
+		Set<Resource> neighborhood = new HashSet<>();
+		neighborhood.add(root);
+		List<Resource> frontier = new ArrayList<>();
+		frontier.add(root);
+		for (int hop = 0; hop < hops && !frontier.isEmpty(); hop++)
+		{
+			List<Resource> nextFrontier = new ArrayList<>();
+			for (Resource node : frontier)
+			{
+				StmtIterator stmtIterator = model.listStatements(node, (Property) null, (RDFNode) null);
+				while (stmtIterator.hasNext())
+				{
+					RDFNode object = stmtIterator.next().getObject();
+					if (object.isResource() && isInstance(object.asResource(), blankNode2isInstance) && neighborhood.add(object.asResource()))
+					{
+						nextFrontier.add(object.asResource());
+					}
+				}
+
+				stmtIterator = model.listStatements((Resource) null, (Property) null, node);
+				while (stmtIterator.hasNext())
+				{
+					Resource subject = stmtIterator.next().getSubject();
+					if (isInstance(subject, blankNode2isInstance) && neighborhood.add(subject))
+					{
+						nextFrontier.add(subject);
+					}
+				}
+			}
+			frontier = nextFrontier;
+		}
+
+		// blank nodes outside of the neighborhood that are referred to by vocabulary
+		Set<Resource> closure = new HashSet<>();
+		List<Resource> closureQueue = new ArrayList<>();
+
+		List<Statement> statements = new ArrayList<>();
+		StmtIterator stmtIterator = model.listStatements();
+		while (stmtIterator.hasNext())
+		{
+			Statement statement = stmtIterator.next();
+			Resource subject = statement.getSubject();
+			boolean isInstanceSubject = isInstance(subject, blankNode2isInstance);
+			if (isInstanceSubject && !neighborhood.contains(subject))
+			{
+				continue;
+			}
+
+			RDFNode object = statement.getObject();
+			if (object.isResource() && isInstance(object.asResource(), blankNode2isInstance) && !neighborhood.contains(object.asResource()))
+			{
+				if (isInstanceSubject || !object.isAnon())
+				{
+					continue;
+				}
+
+				if (closure.add(object.asResource()))
+				{
+					closureQueue.add(object.asResource());
+				}
+			}
+
+			statements.add(statement);
+			if (statements.size() >= 100000)
+			{
+				target.add(statements);
+				statements.clear();
+			}
+		}
+
+		for (int i = 0; i < closureQueue.size(); i++)
+		{
+			stmtIterator = model.listStatements(closureQueue.get(i), (Property) null, (RDFNode) null);
+			while (stmtIterator.hasNext())
+			{
+				Statement statement = stmtIterator.next();
+				statements.add(statement);
+				RDFNode object = statement.getObject();
+				if (object.isAnon() && !neighborhood.contains(object.asResource()) && closure.add(object.asResource()))
+				{
+					closureQueue.add(object.asResource());
+				}
+			}
+		}
+		target.add(statements);
+
+		log.info(neighborhood.size() + " instances within neighborhood, " + closure.size() + " blank nodes of vocabulary, " + target.size()
+				+ " triples kept.");
+		return target;
+	}
+
+	private static boolean isInstance(Resource resource, Map<Resource, Boolean> blankNode2isInstance)
+	{
+		if (resource.isURIResource())
+		{
+			return resource.getURI().startsWith(CmapUtil.URN_UUID) && !ClassHierarchyLevels.isAfoClass(resource);
+		}
+
+		Boolean isInstance = blankNode2isInstance.get(resource);
+		if (isInstance == null)
+		{
+			isInstance = !isVocabularyType(resource.getPropertyResourceValue(AFOUtil.RDF_TYPE));
+			blankNode2isInstance.put(resource, isInstance);
+		}
+		return isInstance;
+	}
+
+	/**
+	 * @param type
+	 * @return true if resources of the type are part of an ontology (restrictions, classes, properties, axioms, datatypes), not of the instance graph
+	 */
+	public static boolean isVocabularyType(Resource type)
+	{
+		return type != null && VOCABULARY_TYPES.contains(type);
+	}
+
 	public static Map<Resource, ConceptRelation> determineConceptRelations(Model model)
 	{
 		Map<Resource, ConceptRelation> link2conceptRelations = new HashMap<Resource, ConceptRelation>();
@@ -239,8 +386,7 @@ public class RdfUtil
 
 		if (label.toLowerCase().contains("instance:"))
 		{
-			Pattern pattern = Pattern.compile("(?i)(instance\\:[a-zA-Z0-9\\s]+)$");
-			Matcher matcher = pattern.matcher(label);
+			Matcher matcher = INSTANCE_PATTERN.matcher(label);
 			if (matcher.find())
 			{
 				String instanceString = matcher.group(1);
@@ -265,8 +411,7 @@ public class RdfUtil
 
 		if (label.contains("("))
 		{
-			Pattern pattern = Pattern.compile("\\(([A-Z]+_[0-9]{5,7})\\)");
-			Matcher matcher = pattern.matcher(label);
+			Matcher matcher = AID_PATTERN.matcher(label);
 			if (matcher.find())
 			{
 				aid = matcher.group(1);
@@ -278,8 +423,7 @@ public class RdfUtil
 		if (label.contains("("))
 		{
 			// try pattern for readable prefixed iris
-			Pattern pattern = Pattern.compile("\\(([a-zA-Z\\-]+\\:[a-zA-Z]+)\\)");
-			Matcher matcher = pattern.matcher(label);
+			Matcher matcher = PREFIXED_IRI_PATTERN.matcher(label);
 			if (matcher.find())
 			{
 				prefixedIri = matcher.group(1);
@@ -288,8 +432,7 @@ public class RdfUtil
 			else if (label.contains(","))
 			{
 				// try pattern for comma-separated list of prefixed iris
-				pattern = Pattern.compile("\\((([a-zA-Z\\-]+\\:[a-zA-Z]+)[\\s]*[\\,]?[\\s]*)*\\)");
-				matcher = pattern.matcher(label);
+				matcher = PREFIXED_IRI_LIST_PATTERN.matcher(label);
 				if (matcher.find())
 				{
 					String prefixedIris = matcher.group(0);
@@ -444,93 +587,43 @@ public class RdfUtil
 			}
 		}
 
-		Set<String> partialHits = new HashSet<String>();
-
-		Set<Resource> allClassesAndIndividuals = new HashSet<Resource>();
-		StmtIterator classIterator = model.listStatements((Resource) null, (Property) null, AFOUtil.OWL_CLASS);
-		while (classIterator.hasNext())
+		LabelIndex labelIndex = LabelIndex.get(model);
+		for (Resource subject : labelIndex.getResources(model, namespace, filterLabel, includeProperties))
 		{
-			Statement statement = classIterator.next();
-			Resource subject = statement.getSubject();
-			allClassesAndIndividuals.add(subject);
+			return subject;
 		}
 
-		StmtIterator individualIterator = model.listStatements((Resource) null, (Property) null, AFOUtil.OWL_NAMED_INDIVIDUAL);
-		while (individualIterator.hasNext())
-		{
-			Statement statement = individualIterator.next();
-			Resource subject = statement.getSubject();
-			allClassesAndIndividuals.add(subject);
-		}
-
-		if (includeProperties)
+		Set<String> partialHits = new HashSet<String>();
+		for (Resource subject : labelIndex.getResources(model, filterLabel, includeProperties))
 		{
-			StmtIterator propertiesIterator = model.listStatements((Resource) null, (Property) null, AFOUtil.OWL_OBJECT_PROPERTY);
-			while (propertiesIterator.hasNext())
-			{
-				Statement statement = propertiesIterator.next();
-				Resource subject = statement.getSubject();
-				allClassesAndIndividuals.add(subject);
-			}
-
-			propertiesIterator = model.listStatements((Resource) null, (Property) null, AFOUtil.OWL_DATATYPE_PROPERTY);
-			while (propertiesIterator.hasNext())
+			if (subject.getURI().startsWith(namespace))
 			{
-				Statement statement = propertiesIterator.next();
-				Resource subject = statement.getSubject();
-				allClassesAndIndividuals.add(subject);
-			}
-
-			propertiesIterator = model.listStatements((Resource) null, (Property) null, AFOUtil.OWL_ANNOTATION_PROPERTY);
-			while (propertiesIterator.hasNext())
-			{
-				Statement statement = propertiesIterator.next();
-				Resource subject = statement.getSubject();
-				allClassesAndIndividuals.add(subject);
+				return subject;
 			}
 
+			partialHits.add(createPrefixedLabel(subject, filterLabel));
 		}
 
-		Iterator<Resource> nodeIterator = allClassesAndIndividuals.iterator();
-		while (nodeIterator.hasNext())
+		if (!partialHits.isEmpty())
 		{
-			Resource subject = nodeIterator.next();
-
-			StmtIterator subjectStmtIterator = model.listStatements(subject, (Property) null, (RDFNode) null);
-			while (subjectStmtIterator.hasNext())
+			log.info("No term found for label \"" + label + "\" but found possibly matching term: " + StringUtils.join(partialHits, ", "));
+		}
+		else
+		{
+			Set<String> similarTerms = new LinkedHashSet<String>();
+			Map<String, Collection<Resource>> label2resources = labelIndex.findSimilarResources(model, filterLabel, MAX_SIMILAR_LABELS, includeProperties);
+			for (Entry<String, Collection<Resource>> entry : label2resources.entrySet())
 			{
-				Statement subjectStatement = subjectStmtIterator.next();
-				if (subjectStatement.getPredicate().equals(AFOUtil.SKOS_PREF_LABEL) || subjectStatement.getPredicate().equals(AFOUtil.RDFS_LABEL))
+				for (Resource subject : entry.getValue())
 				{
-					String currentLabel = subjectStatement.getString();
-					if (!filterLabel.equals(currentLabel))
-					{
-						continue;
-					}
-
-					if (subject.getURI().startsWith(namespace))
-					{
-						return subject;
-					}
-					else
-					{
-						String currentNamespace = Prefixes.getNamespaceMap().get(subject.getNameSpace());
-						if (currentNamespace != null)
-						{
-							partialHits.add(currentNamespace + ":" + currentLabel);
-						}
-						else
-						{
-							partialHits.add(subject.getNameSpace() + currentLabel);
-						}
-					}
+					similarTerms.add(createPrefixedLabel(subject, entry.getKey()));
 				}
 			}
-		}
 
-		if (!partialHits.isEmpty())
-		{
-			log.info("No term found for label \"" + label + "\" but found possibly matching term: " + StringUtils.join(partialHits, ", "));
+			if (!similarTerms.isEmpty())
+			{
+				log.info("No term found for label \"" + label + "\" but found similar terms: " + StringUtils.join(similarTerms, ", "));
+			}
 		}
 
 		log.info("No resource found for label: " + label);
@@ -538,6 +631,17 @@ public class RdfUtil
 		return null;
 	}
 
+	private static String createPrefixedLabel(Resource resource, String label)
+	{
+		String prefix = Prefixes.getNamespaceMap().get(resource.getNameSpace());
+		if (prefix != null)
+		{
+			return prefix + ":" + label;
+		}
+
+		return resource.getNameSpace() + label;
+	}
+
 	private static String getLabelForResource(Resource resource, Model model)
 	{
 		if (model.listStatements(resource, AFOUtil.SKOS_PREF_LABEL, (RDFNode) null).hasNext())
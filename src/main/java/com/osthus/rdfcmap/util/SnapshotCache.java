@@ -0,0 +1,150 @@
+package com.osthus.rdfcmap.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.osthus.rdfcmap.RdfCmap;
+
+/**
+ * SnapshotCache
+ *
+ * On-disk cache of parsed vocabulary files in binary RDF Thrift format. A snapshot is keyed by absolute path, size, modification time and content hash of
+ * the source file, so any change to the source invalidates the snapshot. The cache is active if a cache directory is specified via --cache.
+ */
+public class SnapshotCache
+{
+	private static final Logger log = LogManager.getLogger("Logger");
+
+	private static final String SNAPSHOT_FILE_EXTENSION = ".rt";
+
+	public static boolean isEnabled()
+	{
+		return RdfCmap.snapshotCacheDirectory != null;
+	}
+
+	/**
+	 * Read the model from the snapshot of the given file if available. Otherwise parse the file with the given serialization and store a new snapshot.
+	 *
+	 * @param path
+	 * @param serialization
+	 * @return
+	 * @throws IOException
+	 */
+	public static Model read(Path path, String serialization) throws IOException
+	{
+		Path snapshot = null;
+		if (isEnabled())
+		{
+			try
+			{
+				snapshot = RdfCmap.snapshotCacheDirectory.resolve(createKey(path) + SNAPSHOT_FILE_EXTENSION);
+				if (Files.exists(snapshot))
+				{
+					Model model = ModelFactory.createDefaultModel();
+					try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(snapshot)))
+					{
+						RDFDataMgr.read(model, inputStream, Lang.RDFTHRIFT);
+					}
+					log.info("Read snapshot of " + path.toString() + " from cache: " + snapshot.toString());
+					return model;
+				}
+			}
+			catch (Exception e)
+			{
+				log.warn("Ignoring snapshot cache for " + path.toString() + ": " + e.getMessage());
+				snapshot = null;
+			}
+		}
+
+		Model model = ModelFactory.createDefaultModel();
+		try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path)))
+		{
+			model.read(inputStream, null, serialization);
+		}
+
+		if (snapshot != null)
+		{
+			write(model, snapshot);
+		}
+
+		return model;
+	}
+
+	private static void write(Model model, Path snapshot)
+	{
+		Path tempSnapshot = null;
+		try
+		{
+			Files.createDirectories(snapshot.getParent());
+			tempSnapshot = Files.createTempFile(snapshot.getParent(), "snapshot", ".tmp");
+			try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempSnapshot)))
+			{
+				RDFDataMgr.write(outputStream, model, Lang.RDFTHRIFT);
+			}
+			Files.move(tempSnapshot, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.debug("Stored snapshot in cache: " + snapshot.toString());
+		}
+		catch (Exception e)
+		{
+			log.warn("Could not store snapshot " + snapshot.toString() + ": " + e.getMessage());
+			if (tempSnapshot != null)
+			{
+				try
+				{
+					Files.deleteIfExists(tempSnapshot);
+				}
+				catch (IOException e1)
+				{
+					// ignore, temp file is left in cache directory
+				}
+			}
+		}
+	}
+
+	private static String createKey(Path path) throws IOException, NoSuchAlgorithmException
+	{
+		Path absolutePath = path.toAbsolutePath().normalize();
+
+		MessageDigest contentDigest = MessageDigest.getInstance("SHA-256");
+		try (InputStream inputStream = new DigestInputStream(new BufferedInputStream(Files.newInputStream(absolutePath)), contentDigest))
+		{
+			byte[] buffer = new byte[65536];
+			while (inputStream.read(buffer) != -1)
+			{
+				// digest is updated while reading
+			}
+		}
+
+		String key = absolutePath.toString() + "|" + Files.size(absolutePath) + "|" + Files.getLastModifiedTime(absolutePath).toMillis() + "|"
+				+ toHex(contentDigest.digest());
+
+		MessageDigest keyDigest = MessageDigest.getInstance("SHA-256");
+		return toHex(keyDigest.digest(key.getBytes("UTF-8")));
+	}
+
+	private static String toHex(byte[] bytes)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes)
+		{
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,200 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+
+import com.osthus.rdfcmap.helper.StatementDelta;
+
+/**
+ * StyleIndex
+ *
+ * Interned afv:Font and afv:Border resources of a model. Visualization resources with equal style values reference one shared style resource, so styles
+ * must not be changed in place but replaced by the interned style with the new values. Default fonts and borders of the map are not interned. Entries
+ * are verified on lookup, the index does not follow changes of the model.
+ */
+public class StyleIndex
+{
+	private static final Map<Model, StyleIndex> model2styleIndex = Collections.synchronizedMap(new WeakHashMap<Model, StyleIndex>());
+
+	private static final List<Resource> STYLE_TYPES = Arrays.asList(VizUtil.AFV_FONT, VizUtil.AFV_BORDER);
+
+	private static final List<Property> MAP_STYLE_PROPERTIES = Arrays.asList(VizUtil.AFV_HAS_CONCEPT_STYLE, VizUtil.AFV_HAS_LINK_STYLE,
+			VizUtil.AFV_HAS_RESOURCE_STYLE);
+
+	private final Map<Node, Map<Map<String, String>, Node>> type2values2style = new HashMap<Node, Map<Map<String, String>, Node>>();
+
+	private StyleIndex(Model model)
+	{
+		for (Resource type : STYLE_TYPES)
+		{
+			Map<Map<String, String>, Node> values2style = new HashMap<Map<String, String>, Node>();
+			type2values2style.put(type.asNode(), values2style);
+			StmtIterator stmtIterator = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, type);
+			while (stmtIterator.hasNext())
+			{
+				Resource style = stmtIterator.next().getSubject();
+				if (isMapDefaultStyle(model, style))
+				{
+					continue;
+				}
+				Map<String, String> key = toKey(getValues(style));
+				if (!values2style.containsKey(key))
+				{
+					values2style.put(key, style.asNode());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Style index of the given model, it is built on first call.
+	 *
+	 * @param model
+	 * @return
+	 */
+	public static StyleIndex get(Model model)
+	{
+		synchronized (model2styleIndex)
+		{
+			StyleIndex styleIndex = model2styleIndex.get(model);
+			if (styleIndex == null)
+			{
+				styleIndex = new StyleIndex(model);
+				model2styleIndex.put(model, styleIndex);
+			}
+			return styleIndex;
+		}
+	}
+
+	public static boolean isStyleType(Resource type)
+	{
+		return STYLE_TYPES.contains(type);
+	}
+
+	/**
+	 * @param style
+	 * @return literal values of the style resource
+	 */
+	public static Map<Property, String> getValues(Resource style)
+	{
+		Map<Property, String> values = new HashMap<Property, String>();
+		StmtIterator stmtIterator = style.listProperties();
+		while (stmtIterator.hasNext())
+		{
+			Statement statement = stmtIterator.next();
+			if (statement.getObject().isLiteral())
+			{
+				values.put(statement.getPredicate(), statement.getString());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @param model
+	 * @param type
+	 * @param values
+	 * @return shared style resource of the given type with exactly the given literal values, it is created if there is none
+	 */
+	public synchronized Resource intern(Model model, Resource type, Map<Property, String> values)
+	{
+		Map<Map<String, String>, Node> values2style = type2values2style.get(type.asNode());
+		if (values2style == null)
+		{
+			throw new IllegalStateException("Not a style type: " + type.getURI());
+		}
+
+		Map<String, String> key = toKey(values);
+		Node node = values2style.get(key);
+		if (node != null)
+		{
+			Resource style = model.wrapAsResource(node);
+			if (model.contains(style, AFOUtil.RDF_TYPE, type) && getValues(style).equals(values))
+			{
+				return style;
+			}
+		}
+
+		Resource style = model.createResource(VizUtil.AFV_PREFIX + UUID.randomUUID());
+		style.addProperty(AFOUtil.RDF_TYPE, type);
+		for (Entry<Property, String> entry : values.entrySet())
+		{
+			style.addLiteral(entry.getKey(), entry.getValue());
+		}
+		values2style.put(key, style.asNode());
+		return style;
+	}
+
+	/**
+	 * Remove fonts and borders that are not referenced by any resource of the model.
+	 *
+	 * @param model
+	 * @return
+	 */
+	public static Model removeUnreferencedStyles(Model model)
+	{
+		StatementDelta delta = new StatementDelta();
+		for (Resource type : STYLE_TYPES)
+		{
+			StmtIterator stmtIterator = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, type);
+			while (stmtIterator.hasNext())
+			{
+				Resource style = stmtIterator.next().getSubject();
+				if (!model.contains((Resource) null, (Property) null, style))
+				{
+					delta.removeAll(model.listStatements(style, (Property) null, (RDFNode) null).toList());
+				}
+			}
+		}
+
+		return delta.apply(model);
+	}
+
+	/**
+	 * Default fonts and borders of the map are changed together with the map style sheets and must not be shared by visualization resources.
+	 *
+	 * @param model
+	 * @param style
+	 * @return true if the style belongs to a concept, link or resource style of a map
+	 */
+	private static boolean isMapDefaultStyle(Model model, Resource style)
+	{
+		StmtIterator stmtIterator = model.listStatements((Resource) null, (Property) null, style);
+		while (stmtIterator.hasNext())
+		{
+			Resource graphicStyle = stmtIterator.next().getSubject();
+			for (Property property : MAP_STYLE_PROPERTIES)
+			{
+				if (model.contains((Resource) null, property, graphicStyle))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static Map<String, String> toKey(Map<Property, String> values)
+	{
+		Map<String, String> key = new HashMap<String, String>();
+		for (Entry<Property, String> entry : values.entrySet())
+		{
+			key.put(entry.getKey().getURI(), entry.getValue());
+		}
+		return key;
+	}
+}
@@ -0,0 +1,157 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+
+import com.osthus.rdfcmap.enums.DomainEnum;
+
+/**
+ * SubClassClosure
+ *
+ * Transitive closure of rdfs:subClassOf between named classes of a model. Classes are interned to integer IDs and the ancestors of a class are stored as
+ * bitset, computed once per class and reused for all classes below it. The domain classification of classes for the color scheme is cached alongside.
+ * Closure and cache are dropped if named subclass relations of the model change, other changes including removals by pattern keep them.
+ */
+public class SubClassClosure implements ModelIndex
+{
+	private final Map<Node, Integer> class2id = new HashMap<Node, Integer>();
+
+	private final List<Node> id2class = new ArrayList<Node>();
+
+	private final Map<Integer, BitSet> id2ancestors = new HashMap<Integer, BitSet>();
+
+	private final Map<Node, DomainEnum> class2domain = new HashMap<Node, DomainEnum>();
+
+	private SubClassClosure()
+	{
+	}
+
+	public static SubClassClosure get(Model model)
+	{
+		return ModelIndexes.of(model).get(SubClassClosure.class, SubClassClosure::new);
+	}
+
+	/**
+	 * @param resource
+	 * @param classType
+	 * @return true if classType is reachable from resource via named rdfs:subClassOf relations, resource itself is not its own subclass
+	 */
+	public synchronized boolean isSubClassOf(Resource resource, Resource classType, Model model)
+	{
+		return getAncestors(resource, model).get(getId(classType));
+	}
+
+	public synchronized boolean hasCachedDomain(Resource resource)
+	{
+		return class2domain.containsKey(resource.asNode());
+	}
+
+	/**
+	 * @return cached domain, null if no domain applies to the class
+	 */
+	public synchronized DomainEnum getCachedDomain(Resource resource)
+	{
+		return class2domain.get(resource.asNode());
+	}
+
+	public synchronized void cacheDomain(Resource resource, DomainEnum domain)
+	{
+		class2domain.put(resource.asNode(), domain);
+	}
+
+	private int getId(Resource resource)
+	{
+		Node node = resource.asNode();
+		Integer id = class2id.get(node);
+		if (id == null)
+		{
+			id = id2class.size();
+			id2class.add(node);
+			class2id.put(node, id);
+		}
+		return id;
+	}
+
+	private BitSet getAncestors(Resource resource, Model model)
+	{
+		int id = getId(resource);
+		BitSet ancestors = id2ancestors.get(id);
+		if (ancestors != null)
+		{
+			return ancestors;
+		}
+
+		// breadth-first over parents, expansion stops at classes with known ancestors
+		ancestors = new BitSet();
+		Deque<Integer> queue = new ArrayDeque<Integer>();
+		queue.add(id);
+		BitSet expanded = new BitSet();
+		expanded.set(id);
+		while (!queue.isEmpty())
+		{
+			Resource current = model.wrapAsResource(id2class.get(queue.poll()));
+			StmtIterator stmtIterator = model.listStatements(current, AFOUtil.RDFS_SUBCLASS_OF, (RDFNode) null);
+			while (stmtIterator.hasNext())
+			{
+				RDFNode parentClass = stmtIterator.next().getObject();
+				if (parentClass.isAnon() || !parentClass.isResource())
+				{
+					continue;
+				}
+
+				int parentId = getId(parentClass.asResource());
+				ancestors.set(parentId);
+				if (expanded.get(parentId))
+				{
+					continue;
+				}
+				expanded.set(parentId);
+
+				BitSet knownAncestors = id2ancestors.get(parentId);
+				if (knownAncestors != null)
+				{
+					ancestors.or(knownAncestors);
+					expanded.or(knownAncestors);
+					continue;
+				}
+				queue.add(parentId);
+			}
+		}
+
+		// only reachable via cycle
+		ancestors.clear(id);
+		id2ancestors.put(id, ancestors);
+		return ancestors;
+	}
+
+	@Override
+	public synchronized void onChange(Statement statement)
+	{
+		// anonymous superclasses like restrictions are not part of the closure
+		if (statement.getPredicate().equals(AFOUtil.RDFS_SUBCLASS_OF) && !statement.getObject().isAnon())
+		{
+			invalidate();
+		}
+	}
+
+	@Override
+	public synchronized void invalidate()
+	{
+		class2id.clear();
+		id2class.clear();
+		id2ancestors.clear();
+		class2domain.clear();
+	}
+}
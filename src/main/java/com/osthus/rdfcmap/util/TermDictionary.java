@@ -0,0 +1,341 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+
+/**
+ * TermDictionary
+ *
+ * Dictionary of human readable identifiers &lt;&lt;prefix:label&gt;&gt; used in long comments. Labels (skos:prefLabel before rdfs:label, untagged or
+ * english) are matched like the former SPARQL filter regex(?label, "^label$", "i"): characters are compared case-insensitive one by one with Unicode
+ * case folding, and a label may end with a line terminator. The term is selected by prefix and resolved to its replacement if deprecated. Resolved
+ * terms are memoized. Label changes update the dictionary, the memo is cleared if labels, deprecation or replacements of the model change.
+ */
+public class TermDictionary implements ModelIndex
+{
+	private static final String[] LINE_TERMINATORS = new String[] { "\r\n", "\n", "\r", "\u0085", "\u2028", "\u2029" };
+
+	private final Map<String, List<Node>> prefLabel2nodes = new HashMap<String, List<Node>>();
+
+	private final Map<String, List<Node>> rdfsLabel2nodes = new HashMap<String, List<Node>>();
+
+	private final Map<String, Term> prefixedLabel2term = new HashMap<String, Term>();
+
+	private boolean isValid = false;
+
+	private TermDictionary()
+	{
+	}
+
+	public static TermDictionary get(Model model)
+	{
+		TermDictionary termDictionary = ModelIndexes.of(model).get(TermDictionary.class, TermDictionary::new);
+		termDictionary.ensureValid(model);
+		return termDictionary;
+	}
+
+	/**
+	 * Term for the human readable identifier prefix:label.
+	 *
+	 * @param model
+	 *            model of the dictionary
+	 * @param prefix
+	 *            prefix as written in the identifier
+	 * @param label
+	 *            label as written in the identifier
+	 * @return the term or null if there is no term with that label for the prefix
+	 */
+	public synchronized Term getTerm(Model model, String prefix, String label)
+	{
+		String foldedLabel = fold(label);
+		String key = prefix + ":" + foldedLabel;
+		if (prefixedLabel2term.containsKey(key))
+		{
+			return prefixedLabel2term.get(key);
+		}
+
+		Term term = resolve(model, prefix, prefLabel2nodes.get(foldedLabel));
+		if (term == null)
+		{
+			term = resolve(model, prefix, rdfsLabel2nodes.get(foldedLabel));
+		}
+		prefixedLabel2term.put(key, term);
+		return term;
+	}
+
+	/**
+	 * Case folding of java.util.regex with CASE_INSENSITIVE and UNICODE_CASE, which SPARQL regex applies for flag "i".
+	 */
+	private static String fold(String label)
+	{
+		StringBuilder sb = new StringBuilder(label.length());
+		for (int i = 0; i < label.length();)
+		{
+			int codePoint = label.codePointAt(i);
+			sb.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+			i += Character.charCount(codePoint);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Keys a label is found by, "$" of the former regex also matched before a line terminator at the end of the label.
+	 */
+	private static Set<String> createKeys(String label)
+	{
+		Set<String> keys = new LinkedHashSet<String>();
+		keys.add(fold(label));
+		for (String lineTerminator : LINE_TERMINATORS)
+		{
+			if (label.endsWith(lineTerminator))
+			{
+				keys.add(fold(label.substring(0, label.length() - lineTerminator.length())));
+			}
+		}
+		return keys;
+	}
+
+	private static Term resolve(Model model, String prefix, List<Node> nodes)
+	{
+		if (nodes == null)
+		{
+			return null;
+		}
+
+		for (Node node : nodes)
+		{
+			Resource resource = model.wrapAsResource(node);
+			String namespace = resource.getNameSpace();
+			String currentPrefix = Prefixes.getNamespaceMap().get(namespace);
+			if (currentPrefix == null
+					|| !(currentPrefix.equals(prefix) || currentPrefix.replaceAll("-", "").equals(prefix) || currentPrefix.toLowerCase(Locale.ROOT).equals("obo")))
+			{
+				continue;
+			}
+
+			if (!resource.hasProperty(AFOUtil.OWL_DEPRECATED) || !resource.getProperty(AFOUtil.OWL_DEPRECATED).getBoolean())
+			{
+				return new Term(namespace, resource.getLocalName(), false, null, null);
+			}
+
+			if (!resource.hasProperty(AFOUtil.DCT_IS_REPLACED_BY))
+			{
+				return new Term(namespace, resource.getLocalName(), true, null, null);
+			}
+
+			Resource replacement = resource.getProperty(AFOUtil.DCT_IS_REPLACED_BY).getObject().asResource();
+			namespace = replacement.getNameSpace();
+			return new Term(namespace, replacement.getLocalName(), true, Prefixes.getNamespaceMap().get(namespace),
+					resource.getProperty(AFOUtil.SKOS_PREF_LABEL).getString());
+		}
+
+		return null;
+	}
+
+	private synchronized void ensureValid(Model model)
+	{
+		if (isValid)
+		{
+			return;
+		}
+
+		prefLabel2nodes.clear();
+		rdfsLabel2nodes.clear();
+		prefixedLabel2term.clear();
+		addLabels(model, AFOUtil.SKOS_PREF_LABEL);
+		addLabels(model, AFOUtil.RDFS_LABEL);
+		isValid = true;
+	}
+
+	private void addLabels(Model model, Property labelProperty)
+	{
+		Map<String, List<Node>> label2nodes = getLabel2nodes(labelProperty);
+		StmtIterator stmtIterator = model.listStatements((Resource) null, labelProperty, (RDFNode) null);
+		while (stmtIterator.hasNext())
+		{
+			Statement statement = stmtIterator.next();
+			if (statement.getSubject().isAnon() || !isEnglishOrUntaggedString(statement.getObject()))
+			{
+				continue;
+			}
+
+			for (String key : createKeys(statement.getString()))
+			{
+				add(label2nodes, key, statement.getSubject().asNode());
+			}
+		}
+	}
+
+	/**
+	 * Update the entries of the subject for the keys of the changed label with the labels the subject has now.
+	 */
+	private void reindex(Statement statement)
+	{
+		if (statement.getSubject().isAnon() || !isEnglishOrUntaggedString(statement.getObject()))
+		{
+			return;
+		}
+
+		Map<String, List<Node>> label2nodes = getLabel2nodes(statement.getPredicate());
+		Node node = statement.getSubject().asNode();
+		Set<String> keys = createKeys(statement.getString());
+		for (String key : keys)
+		{
+			List<Node> nodes = label2nodes.get(key);
+			if (nodes != null)
+			{
+				nodes.removeIf(node::equals);
+				if (nodes.isEmpty())
+				{
+					label2nodes.remove(key);
+				}
+			}
+		}
+
+		StmtIterator stmtIterator = statement.getModel().listStatements(statement.getSubject(), statement.getPredicate(), (RDFNode) null);
+		while (stmtIterator.hasNext())
+		{
+			RDFNode label = stmtIterator.next().getObject();
+			if (!isEnglishOrUntaggedString(label))
+			{
+				continue;
+			}
+
+			for (String key : createKeys(label.asLiteral().getString()))
+			{
+				if (keys.contains(key))
+				{
+					add(label2nodes, key, node);
+				}
+			}
+		}
+	}
+
+	private Map<String, List<Node>> getLabel2nodes(Property labelProperty)
+	{
+		return labelProperty.equals(AFOUtil.SKOS_PREF_LABEL) ? prefLabel2nodes : rdfsLabel2nodes;
+	}
+
+	private static void add(Map<String, List<Node>> label2nodes, String key, Node node)
+	{
+		List<Node> nodes = label2nodes.get(key);
+		if (nodes == null)
+		{
+			nodes = new ArrayList<Node>(1);
+			label2nodes.put(key, nodes);
+		}
+		nodes.add(node);
+	}
+
+	private static boolean isEnglishOrUntaggedString(RDFNode node)
+	{
+		if (!node.isLiteral())
+		{
+			return false;
+		}
+
+		Literal literal = node.asLiteral();
+		String language = literal.getLanguage();
+		if (language != null && !language.isEmpty())
+		{
+			language = language.toLowerCase(Locale.ROOT);
+			return language.equals("en") || language.startsWith("en-");
+		}
+
+		return XSDDatatype.XSDstring.getURI().equals(literal.getDatatypeURI());
+	}
+
+	@Override
+	public synchronized void onChange(Statement statement)
+	{
+		Property predicate = statement.getPredicate();
+		if (predicate.equals(AFOUtil.SKOS_PREF_LABEL) || predicate.equals(AFOUtil.RDFS_LABEL))
+		{
+			if (isValid)
+			{
+				reindex(statement);
+			}
+			prefixedLabel2term.clear();
+		}
+		else if (predicate.equals(AFOUtil.OWL_DEPRECATED) || predicate.equals(AFOUtil.DCT_IS_REPLACED_BY))
+		{
+			prefixedLabel2term.clear();
+		}
+	}
+
+	@Override
+	public synchronized void invalidate()
+	{
+		isValid = false;
+	}
+
+	public static class Term
+	{
+		private final String namespace;
+
+		private final String localName;
+
+		private final boolean isDeprecated;
+
+		private final String replacementPrefix;
+
+		private final String deprecatedLabel;
+
+		Term(String namespace, String localName, boolean isDeprecated, String replacementPrefix, String deprecatedLabel)
+		{
+			this.namespace = namespace;
+			this.localName = localName;
+			this.isDeprecated = isDeprecated;
+			this.replacementPrefix = replacementPrefix;
+			this.deprecatedLabel = deprecatedLabel;
+		}
+
+		public String getIri()
+		{
+			return namespace + localName;
+		}
+
+		public String getLocalName()
+		{
+			return localName;
+		}
+
+		public boolean isDeprecated()
+		{
+			return isDeprecated;
+		}
+
+		/**
+		 * @return true if the term is deprecated and resolved to its replacement
+		 */
+		public boolean isReplaced()
+		{
+			return isDeprecated && deprecatedLabel != null;
+		}
+
+		public String getReplacementPrefix()
+		{
+			return replacementPrefix;
+		}
+
+		public String getDeprecatedLabel()
+		{
+			return deprecatedLabel;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * TrigramIndex
+ *
+ * Fuzzy lookup of terms by case-insensitive character trigrams. Only terms sharing at least one trigram with the query are scored, candidates are ranked
+ * by Dice similarity of their trigram sets.
+ */
+public class TrigramIndex
+{
+	private final List<String> terms = new ArrayList<String>();
+
+	private final List<Integer> termTrigramCounts = new ArrayList<Integer>();
+
+	private final Map<String, List<Integer>> trigram2termIds = new HashMap<String, List<Integer>>();
+
+	public TrigramIndex(Collection<String> terms)
+	{
+		for (String term : terms)
+		{
+			int termId = this.terms.size();
+			this.terms.add(term);
+			Set<String> trigrams = createTrigrams(term);
+			termTrigramCounts.add(trigrams.size());
+			for (String trigram : trigrams)
+			{
+				List<Integer> termIds = trigram2termIds.get(trigram);
+				if (termIds == null)
+				{
+					termIds = new ArrayList<Integer>();
+					trigram2termIds.put(trigram, termIds);
+				}
+				termIds.add(termId);
+			}
+		}
+	}
+
+	private static Set<String> createTrigrams(String term)
+	{
+		String padded = "  " + term.toLowerCase(Locale.ROOT).trim() + " ";
+		Set<String> trigrams = new LinkedHashSet<String>();
+		for (int i = 0; i + 3 <= padded.length(); i++)
+		{
+			trigrams.add(padded.substring(i, i + 3));
+		}
+		return trigrams;
+	}
+
+	/**
+	 * @param query
+	 * @param maxResults
+	 * @param minSimilarity
+	 *            minimum Dice similarity between 0 and 1
+	 * @return most similar terms, best match first
+	 */
+	public List<String> findSimilar(String query, int maxResults, double minSimilarity)
+	{
+		Set<String> queryTrigrams = createTrigrams(query);
+		Map<Integer, Integer> termId2commonTrigrams = new HashMap<Integer, Integer>();
+		for (String trigram : queryTrigrams)
+		{
+			List<Integer> termIds = trigram2termIds.get(trigram);
+			if (termIds == null)
+			{
+				continue;
+			}
+			for (Integer termId : termIds)
+			{
+				Integer count = termId2commonTrigrams.get(termId);
+				termId2commonTrigrams.put(termId, count == null ? 1 : count + 1);
+			}
+		}
+
+		final Map<String, Double> term2similarity = new HashMap<String, Double>();
+		for (Entry<Integer, Integer> entry : termId2commonTrigrams.entrySet())
+		{
+			double similarity = 2.0 * entry.getValue() / (queryTrigrams.size() + termTrigramCounts.get(entry.getKey()));
+			if (similarity >= minSimilarity)
+			{
+				term2similarity.put(terms.get(entry.getKey()), similarity);
+			}
+		}
+
+		List<String> similarTerms = new ArrayList<String>(term2similarity.keySet());
+		Collections.sort(similarTerms, new Comparator<String>()
+		{
+			@Override
+			public int compare(String term1, String term2)
+			{
+				int result = Double.compare(term2similarity.get(term2), term2similarity.get(term1));
+				return result != 0 ? result : term1.compareTo(term2);
+			}
+		});
+
+		return similarTerms.size() > maxResults ? similarTerms.subList(0, maxResults) : similarTerms;
+	}
+}
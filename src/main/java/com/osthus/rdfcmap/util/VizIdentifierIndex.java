@@ -0,0 +1,178 @@
+package com.osthus.rdfcmap.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+
+/**
+ * VizIdentifierIndex
+ *
+ * Index of visualization resources by afv:identifier, one per visualization type. The index is built once and kept in sync with the model by listening to
+ * its changes while registered, so that inserted and deleted resources are found without scanning all resources of a type. Statements removed by pattern
+ * are reindexed one by one like any other change, only clearing the model rebuilds the index on the next lookup.
+ */
+public class VizIdentifierIndex implements ModelIndex
+{
+	private final ModelIndexes modelIndexes;
+
+	private final Resource[] types;
+
+	private final Map<Resource, Map<String, Set<Node>>> type2identifier2nodes = new HashMap<Resource, Map<String, Set<Node>>>();
+
+	private final Map<Resource, Map<Node, String>> type2node2identifier = new HashMap<Resource, Map<Node, String>>();
+
+	private boolean isValid = false;
+
+	private VizIdentifierIndex(ModelIndexes modelIndexes, Resource... types)
+	{
+		this.modelIndexes = modelIndexes;
+		this.types = types;
+		for (Resource type : types)
+		{
+			type2identifier2nodes.put(type, new HashMap<String, Set<Node>>());
+			type2node2identifier.put(type, new HashMap<Node, String>());
+		}
+	}
+
+	/**
+	 * Index of the given visualization types, registered with the indexes of the model until unregister() is called.
+	 *
+	 * @param model
+	 * @param types
+	 * @return
+	 */
+	public static VizIdentifierIndex register(Model model, Resource... types)
+	{
+		ModelIndexes modelIndexes = ModelIndexes.of(model);
+		VizIdentifierIndex vizIdentifierIndex = new VizIdentifierIndex(modelIndexes, types);
+		modelIndexes.add(vizIdentifierIndex);
+		return vizIdentifierIndex;
+	}
+
+	public void unregister()
+	{
+		modelIndexes.remove(this);
+	}
+
+	/**
+	 * @param model
+	 *            model the index is registered with
+	 * @param identifier
+	 * @param type
+	 * @return resource of the given type with the given afv:identifier, null if there is none
+	 */
+	public synchronized Resource find(Model model, String identifier, Resource type)
+	{
+		ensureValid(model);
+		Map<String, Set<Node>> identifier2nodes = type2identifier2nodes.get(type);
+		if (identifier2nodes == null)
+		{
+			throw new IllegalStateException("Visualization type not indexed: " + type.getURI());
+		}
+
+		Set<Node> nodes = identifier2nodes.get(identifier);
+		return nodes == null ? null : model.wrapAsResource(nodes.iterator().next());
+	}
+
+	private void ensureValid(Model model)
+	{
+		if (isValid)
+		{
+			return;
+		}
+
+		for (Resource type : types)
+		{
+			type2identifier2nodes.get(type).clear();
+			type2node2identifier.get(type).clear();
+			StmtIterator stmtIterator = model.listStatements((Resource) null, AFOUtil.RDF_TYPE, type);
+			while (stmtIterator.hasNext())
+			{
+				reindex(model, stmtIterator.next().getSubject(), type);
+			}
+		}
+		isValid = true;
+	}
+
+	private void reindex(Model model, Resource resource, Resource type)
+	{
+		Map<String, Set<Node>> identifier2nodes = type2identifier2nodes.get(type);
+		Map<Node, String> node2identifier = type2node2identifier.get(type);
+
+		Node node = resource.asNode();
+		String identifier = node2identifier.remove(node);
+		if (identifier != null)
+		{
+			Set<Node> nodes = identifier2nodes.get(identifier);
+			nodes.remove(node);
+			if (nodes.isEmpty())
+			{
+				identifier2nodes.remove(identifier);
+			}
+		}
+
+		if (!resource.isURIResource() || !model.contains(resource, AFOUtil.RDF_TYPE, type))
+		{
+			return;
+		}
+
+		StmtIterator stmtIterator = model.listStatements(resource, VizUtil.AFV_IDENTIFIER, (RDFNode) null);
+		if (!stmtIterator.hasNext())
+		{
+			return;
+		}
+
+		identifier = stmtIterator.next().getString();
+		stmtIterator.close();
+		if (identifier == null || identifier.isEmpty())
+		{
+			return;
+		}
+
+		node2identifier.put(node, identifier);
+		Set<Node> nodes = identifier2nodes.get(identifier);
+		if (nodes == null)
+		{
+			nodes = new LinkedHashSet<Node>();
+			identifier2nodes.put(identifier, nodes);
+		}
+		nodes.add(node);
+	}
+
+	@Override
+	public synchronized void onChange(Statement statement)
+	{
+		if (!isValid)
+		{
+			return;
+		}
+
+		Property predicate = statement.getPredicate();
+		if (predicate.equals(VizUtil.AFV_IDENTIFIER))
+		{
+			for (Resource type : types)
+			{
+				reindex(statement.getModel(), statement.getSubject(), type);
+			}
+		}
+		else if (predicate.equals(AFOUtil.RDF_TYPE) && type2identifier2nodes.containsKey(statement.getObject()))
+		{
+			reindex(statement.getModel(), statement.getSubject(), statement.getResource());
+		}
+	}
+
+	@Override
+	public synchronized void invalidate()
+	{
+		isValid = false;
+	}
+}
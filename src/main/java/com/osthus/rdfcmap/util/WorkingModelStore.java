@@ -0,0 +1,94 @@
+package com.osthus.rdfcmap.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.tdb.TDBFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.osthus.rdfcmap.RdfCmap;
+
+/**
+ * WorkingModelStore
+ *
+ * Creates the working model of the conversions. By default the model is held in memory. If a scratch directory is specified via --store, the model is
+ * backed by a TDB dataset on disk, so the size of instance data is bounded by disk instead of heap. Datasets are removed by release(), which also runs
+ * on shutdown, so that failed conversions and System.exit() do not leave datasets behind.
+ */
+public class WorkingModelStore
+{
+	private static final Logger log = LogManager.getLogger("Logger");
+
+	private static List<Dataset> datasets = new ArrayList<>();
+
+	private static List<Path> datasetDirectories = new ArrayList<>();
+
+	private static boolean isShutdownHookRegistered = false;
+
+	public static boolean isDiskBacked()
+	{
+		return RdfCmap.storeDirectory != null;
+	}
+
+	public static synchronized Model createModel() throws IOException
+	{
+		if (!isDiskBacked())
+		{
+			return ModelFactory.createDefaultModel();
+		}
+
+		if (!isShutdownHookRegistered)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					release();
+				}
+			}));
+			isShutdownHookRegistered = true;
+		}
+
+		Files.createDirectories(RdfCmap.storeDirectory);
+		Path datasetDirectory = Files.createTempDirectory(RdfCmap.storeDirectory, "rdfcmap-");
+		log.info("Using disk-backed working model: " + datasetDirectory.toString());
+		Dataset dataset = TDBFactory.createDataset(datasetDirectory.toString());
+		datasets.add(dataset);
+		datasetDirectories.add(datasetDirectory);
+		return dataset.getDefaultModel();
+	}
+
+	/**
+	 * Close all datasets created by this store and delete their directories.
+	 */
+	public static synchronized void release()
+	{
+		for (Dataset dataset : datasets)
+		{
+			TDBFactory.release(dataset);
+		}
+		datasets.clear();
+
+		for (Path datasetDirectory : datasetDirectories)
+		{
+			try
+			{
+				FileUtils.deleteDirectory(datasetDirectory.toFile());
+			}
+			catch (IOException e)
+			{
+				log.warn("Could not delete working model directory: " + datasetDirectory.toString());
+			}
+		}
+		datasetDirectories.clear();
+	}
+}